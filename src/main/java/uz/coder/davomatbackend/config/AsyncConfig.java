@@ -1,24 +1,115 @@
 package uz.coder.davomatbackend.config;
 
 import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
 import org.springframework.scheduling.annotation.EnableAsync;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Ilova thread poollari. Navbat hajmi, aktiv threadlar va h.k. Actuator da executor.* (name = bean nomi)
+ * metrikalari sifatida avtomatik chiqadi; rad etilgan vazifalar executor.rejected hisoblagichida.
+ */
 @Configuration
 @EnableAsync
 public class AsyncConfig {
     
     @Bean(name = "taskExecutor")
-    public Executor taskExecutor() {
+    public Executor taskExecutor(MeterRegistry meterRegistry) {
         ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
         executor.setCorePoolSize(5);
         executor.setMaxPoolSize(10);
         executor.setQueueCapacity(100);
         executor.setThreadNamePrefix("async-log-");
+        executor.setRejectedExecutionHandler(countingRejections(meterRegistry, "taskExecutor", new ThreadPoolExecutor.AbortPolicy()));
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * StreamingResponseBody (Excel export) javoblarini yozadigan pool.
+     * Log yozuvlari bilan bir navbatda turmasligi uchun alohida.
+     */
+    @Bean(name = "streamingTaskExecutor")
+    public AsyncTaskExecutor streamingTaskExecutor(MeterRegistry meterRegistry) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(2);
+        executor.setMaxPoolSize(4);
+        executor.setQueueCapacity(20);
+        executor.setThreadNamePrefix("async-export-");
+        executor.setRejectedExecutionHandler(countingRejections(meterRegistry, "streamingTaskExecutor", new ThreadPoolExecutor.AbortPolicy()));
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Davomat rollupini oyma-oy qayta hisoblash uchun: har bir oy alohida thread va tranzaksiyada.
+     */
+    @Bean(name = "rollupRebuildExecutor")
+    public AsyncTaskExecutor rollupRebuildExecutor(MeterRegistry meterRegistry,
+                                                   @Value("${app.attendance-rollup.rebuild-threads:4}") int threads) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setThreadNamePrefix("rollup-rebuild-");
+        executor.setRejectedExecutionHandler(countingRejections(meterRegistry, "rollupRebuildExecutor", new ThreadPoolExecutor.AbortPolicy()));
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Qo'lda boshlangan retention ishlari (system_logs tozalash) HTTP thread ni band qilmasligi uchun.
+     * Bir vaqtda bitta ish: RetentionService buni o'zi tekshiradi.
+     */
+    @Bean(name = "retentionExecutor")
+    public AsyncTaskExecutor retentionExecutor(MeterRegistry meterRegistry) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setQueueCapacity(1);
+        executor.setThreadNamePrefix("retention-");
+        executor.setRejectedExecutionHandler(countingRejections(meterRegistry, "retentionExecutor", new ThreadPoolExecutor.AbortPolicy()));
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Dashboard bo'limlarini parallel hisoblash uchun. Navbat to'lsa bo'lim so'rov thread ida bajariladi,
+     * shuning uchun bazaga bir vaqtda boradigan so'rovlar soni pool hajmi bilan cheklanadi.
+     */
+    @Bean(name = "statisticsExecutor")
+    public Executor statisticsExecutor(MeterRegistry meterRegistry,
+                                       @Value("${app.statistics.executor-threads:4}") int threads) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(100);
+        executor.setThreadNamePrefix("stats-");
+        executor.setRejectedExecutionHandler(countingRejections(meterRegistry, "statisticsExecutor", new ThreadPoolExecutor.CallerRunsPolicy()));
         executor.initialize();
         return executor;
     }
+
+    /**
+     * Rad etilgan (navbati to'lgan) vazifalarni sanab, qarorni delegate ga qoldiradi.
+     */
+    private static RejectedExecutionHandler countingRejections(MeterRegistry meterRegistry, String name,
+                                                               RejectedExecutionHandler delegate) {
+        Counter rejected = Counter.builder("executor.rejected")
+                .description("Tasks rejected because the pool and its queue were full")
+                .tag("name", name)
+                .register(meterRegistry);
+        return (task, pool) -> {
+            rejected.increment();
+            delegate.rejectedExecution(task, pool);
+        };
+    }
 }
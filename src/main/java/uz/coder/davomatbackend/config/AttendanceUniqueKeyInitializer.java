@@ -0,0 +1,80 @@
+package uz.coder.davomatbackend.config;
+
+import java.util.List;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import uz.coder.davomatbackend.model.AttendanceDelta;
+import uz.coder.davomatbackend.service.AttendanceRollupService;
+
+/**
+ * attendance(student_id, date) unique cheklovini ta'minlaydi: AttendanceBatchDatabase dagi ON CONFLICT
+ * so'rovlari unga tayanadi. Eski bazada takroriy qatorlar bo'lsa ddl-auto cheklovni qo'sha olmaydi, shuning uchun
+ * bu yerda har juftlikdan eng yangi (katta id) qator qoldirilib qolganlari o'chiriladi (rollup ham kamaytiriladi)
+ * va cheklov qo'shiladi. Baribir qo'shilmasa ilova ishga tushmaydi. Boshqa bazalarda (H2 testlar) hech narsa qilinmaydi.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class AttendanceUniqueKeyInitializer {
+
+    static final String CONSTRAINT_NAME = "uk_attendance_student_date";
+
+    private static final String CONSTRAINT_EXISTS_SQL = """
+            SELECT count(*) FROM pg_constraint
+            WHERE conrelid = to_regclass('attendance') AND conname = ?
+            """;
+
+    private static final String DELETE_DUPLICATES_SQL = """
+            DELETE FROM attendance a
+            USING attendance newer
+            WHERE newer.student_id = a.student_id AND newer.date = a.date AND newer.id > a.id
+            RETURNING a.student_id, a.date, a.status
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final AttendanceRollupService attendanceRollupService;
+
+    // Rollup boshlang'ich qurilishidan (AttendanceRollupService.buildIfEmpty) oldin
+    @Order(0)
+    @EventListener(ApplicationReadyEvent.class)
+    void ensureUniqueKey() {
+        if (!isPostgres() || hasUniqueKey()) return;
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                // Tozalash va ALTER orasida yangi takror yozilmasligi uchun
+                jdbcTemplate.execute("LOCK TABLE attendance IN SHARE ROW EXCLUSIVE MODE");
+                List<AttendanceDelta> removed = jdbcTemplate.query(DELETE_DUPLICATES_SQL, (rs, rowNum) ->
+                        AttendanceDelta.removed(rs.getLong("student_id"), rs.getDate("date").toLocalDate(),
+                                rs.getString("status")));
+                attendanceRollupService.apply(removed);
+                jdbcTemplate.execute("ALTER TABLE attendance ADD CONSTRAINT " + CONSTRAINT_NAME
+                        + " UNIQUE (student_id, date)");
+                log.info("Added {} after removing {} duplicate attendance rows", CONSTRAINT_NAME, removed.size());
+            });
+        } catch (DataAccessException e) {
+            throw new IllegalStateException("attendance(student_id, date) unique constraint is missing and could not be added: "
+                    + e.getMostSpecificCause().getMessage(), e);
+        }
+    }
+
+    private boolean hasUniqueKey() {
+        Integer count = jdbcTemplate.queryForObject(CONSTRAINT_EXISTS_SQL, Integer.class, CONSTRAINT_NAME);
+        return count != null && count > 0;
+    }
+
+    private boolean isPostgres() {
+        String product = jdbcTemplate.execute((ConnectionCallback<String>) con -> con.getMetaData().getDatabaseProductName());
+        return "PostgreSQL".equalsIgnoreCase(product);
+    }
+}
@@ -1,5 +1,7 @@
 package uz.coder.davomatbackend.config;
 
+import java.util.concurrent.TimeUnit;
+
 import org.aspectj.lang.JoinPoint;
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.*;
@@ -13,6 +15,7 @@ import org.springframework.web.context.request.ServletRequestAttributes;
 
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
+import uz.coder.davomatbackend.service.EndpointLatencyService;
 import uz.coder.davomatbackend.service.SystemLogService;
 
 @Aspect
@@ -22,10 +25,11 @@ public class LoggingAspect {
 
     private static final Logger logger = LoggerFactory.getLogger(LoggingAspect.class);
     private final SystemLogService systemLogService;
+    private final EndpointLatencyService endpointLatencyService;
 
     @Around("execution(* uz.coder.davomatbackend.controller..*(..))")
     public Object logControllerMethods(ProceedingJoinPoint joinPoint) throws Throwable {
-        long startTime = System.currentTimeMillis();
+        long startTime = System.nanoTime();
         
         String methodName = joinPoint.getSignature().toShortString();
         String username = getCurrentUsername();
@@ -36,7 +40,9 @@ public class LoggingAspect {
         
         try {
             Object result = joinPoint.proceed();
-            long executionTime = System.currentTimeMillis() - startTime;
+            long elapsed = System.nanoTime() - startTime;
+            endpointLatencyService.record(methodName, elapsed);
+            long executionTime = TimeUnit.NANOSECONDS.toMillis(elapsed);
             logger.info("← Response: {} | Time: {}ms | Status: SUCCESS", methodName, executionTime);
             
             // Save to database
@@ -54,7 +60,9 @@ public class LoggingAspect {
             
             return result;
         } catch (Exception e) {
-            long executionTime = System.currentTimeMillis() - startTime;
+            long elapsed = System.nanoTime() - startTime;
+            endpointLatencyService.record(methodName, elapsed);
+            long executionTime = TimeUnit.NANOSECONDS.toMillis(elapsed);
             logger.error("← Response: {} | Time: {}ms | Status: ERROR | Message: {}", 
                 methodName, executionTime, e.getMessage());
             
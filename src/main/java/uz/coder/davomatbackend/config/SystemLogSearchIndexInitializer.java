@@ -0,0 +1,67 @@
+package uz.coder.davomatbackend.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import uz.coder.davomatbackend.db.SystemLogDatabase;
+import uz.coder.davomatbackend.service.SystemLogPartitionService;
+
+/**
+ * PostgreSQL da system_logs qidiruvi uchun pg_trgm GIN indeksini yaratadi (Hibernate ddl-auto ifoda va
+ * GIN indekslarni yarata olmaydi). Oddiy jadvalda indeks yozuvlarni bloklamaslik uchun CONCURRENTLY quriladi; oldingi urinishdan
+ * yaroqsiz (INVALID) indeks qolgan bo'lsa qayta quriladi. Boshqa bazalarda (H2 testlar) hech narsa qilinmaydi -
+ * qidiruv indekssiz ILIKE bilan ishlayveradi.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SystemLogSearchIndexInitializer {
+
+    private static final String INDEX_NAME = "idx_log_search_trgm";
+
+    private static final String INDEX_DEFINITION = " IF NOT EXISTS " + INDEX_NAME
+            + " ON system_logs USING gin (" + SystemLogDatabase.SEARCH_TEXT + " gin_trgm_ops)";
+
+    private static final String INVALID_INDEX_SQL = """
+            SELECT count(*) FROM pg_index i JOIN pg_class c ON c.oid = i.indexrelid
+            WHERE c.relname = ? AND NOT i.indisvalid
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final SystemLogPartitionService systemLogPartitionService;
+
+    @Value("${app.system-log.search-index:true}")
+    private boolean enabled;
+
+    @Order(1)
+    @EventListener(ApplicationReadyEvent.class)
+    void createSearchIndex() {
+        if (!enabled || !isPostgres()) return;
+        try {
+            jdbcTemplate.execute("CREATE EXTENSION IF NOT EXISTS pg_trgm");
+            Integer invalid = jdbcTemplate.queryForObject(INVALID_INDEX_SQL, Integer.class, INDEX_NAME);
+            if (invalid != null && invalid > 0) {
+                jdbcTemplate.execute("DROP INDEX CONCURRENTLY IF EXISTS " + INDEX_NAME);
+            }
+            // Partitsiyalangan jadvalda CONCURRENTLY mumkin emas; ota jadvaldagi indeks barcha partitsiyalarga tarqaladi
+            boolean partitioned = systemLogPartitionService.isPartitioned();
+            jdbcTemplate.execute((partitioned ? "CREATE INDEX" : "CREATE INDEX CONCURRENTLY") + INDEX_DEFINITION);
+        } catch (DataAccessException e) {
+            // Masalan pg_trgm o'rnatishga huquq yo'q: qidiruv ishlaydi, faqat indekssiz
+            log.warn("System log search index was not created: {}", e.getMostSpecificCause().getMessage());
+        }
+    }
+
+    private boolean isPostgres() {
+        String product = jdbcTemplate.execute((ConnectionCallback<String>) con -> con.getMetaData().getDatabaseProductName());
+        return "PostgreSQL".equalsIgnoreCase(product);
+    }
+}
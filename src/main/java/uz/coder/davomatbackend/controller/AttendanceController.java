@@ -1,6 +1,7 @@
 package uz.coder.davomatbackend.controller;
 
 import java.io.IOException;
+import java.util.List;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
@@ -9,8 +10,6 @@ import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -21,15 +20,19 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import lombok.RequiredArgsConstructor;
 import uz.coder.davomatbackend.model.AddAttendance;
+import uz.coder.davomatbackend.model.AddAttendanceBatch;
 import uz.coder.davomatbackend.model.ApiResponse;
 import uz.coder.davomatbackend.model.Attendance;
+import uz.coder.davomatbackend.model.AttendanceBatchResult;
+import uz.coder.davomatbackend.model.AttendanceImportResult;
 import uz.coder.davomatbackend.model.PageResponse;
 import uz.coder.davomatbackend.model.User;
+import uz.coder.davomatbackend.security.CurrentUser;
 import uz.coder.davomatbackend.service.AttendanceService;
-import uz.coder.davomatbackend.service.UserService;
 import uz.coder.davomatbackend.service.WebSocketNotificationService;
 
 @RestController
@@ -38,19 +41,10 @@ import uz.coder.davomatbackend.service.WebSocketNotificationService;
 public class AttendanceController {
 
     private final AttendanceService attendanceService;
-    private final UserService userService;
     private final WebSocketNotificationService notificationService;
 
-    private User getCurrentUser() {
-        UserDetails userDetails = (UserDetails) SecurityContextHolder
-                .getContext()
-                .getAuthentication()
-                .getPrincipal();
-        return userService.findByEmail(userDetails.getUsername());
-    }
-
     @PostMapping("/add")
-    public ResponseEntity<ApiResponse<Attendance>> save(@RequestBody AddAttendance addAttendance) {
+    public ResponseEntity<ApiResponse<Attendance>> save(@RequestBody AddAttendance addAttendance, @CurrentUser User currentUser) {
         try {
             Attendance attendance = new Attendance();
             attendance.setDate(addAttendance.getDate());
@@ -60,7 +54,6 @@ public class AttendanceController {
             
             // Get student's user to send notification
             try {
-                User currentUser = getCurrentUser();
                 notificationService.notifyAttendanceUpdated(currentUser.getUsername(), "Attendance recorded for student ID: " + addAttendance.getStudentId());
             } catch (Exception e) {
                 // Log but don't fail the request if notification fails
@@ -74,13 +67,37 @@ public class AttendanceController {
         }
     }
 
+    @PostMapping("/batch")
+    public ResponseEntity<ApiResponse<List<AttendanceBatchResult>>> saveBatch(@RequestBody AddAttendanceBatch batch, @CurrentUser User currentUser) {
+        try {
+            if (!attendanceService.canMarkGroup(currentUser, batch.getGroupId())) {
+                return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                        .body(ApiResponse.forbidden("You can only mark attendance for your own groups"));
+            }
+            List<AttendanceBatchResult> results = attendanceService.saveBatch(batch);
+
+            try {
+                notificationService.notifyAttendanceUpdated(currentUser.getUsername(), "Attendance recorded for group ID: " + batch.getGroupId());
+            } catch (Exception e) {
+                // Log but don't fail the request if notification fails
+            }
+
+            return ResponseEntity.ok(ApiResponse.success("Attendance saved", results));
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(ApiResponse.badRequest(ex.getMessage()));
+        } catch (Exception ex) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error(ex.getMessage()));
+        }
+    }
+
     @PutMapping("/edit")
-    public ResponseEntity<ApiResponse<Attendance>> update(@RequestBody Attendance attendance) {
+    public ResponseEntity<ApiResponse<Attendance>> update(@RequestBody Attendance attendance, @CurrentUser User currentUser) {
         try {
             Attendance updated = attendanceService.update(attendance);
             
             try {
-                User currentUser = getCurrentUser();
                 notificationService.notifyAttendanceUpdated(currentUser.getUsername(), "Attendance updated for student ID: " + attendance.getStudentId());
             } catch (Exception e) {
                 // Log but don't fail the request if notification fails
@@ -134,15 +151,29 @@ public class AttendanceController {
         }
     }
 
+    @PostMapping("/excel/stream")
+    public ResponseEntity<ApiResponse<AttendanceImportResult>> importExcelStreaming(@RequestParam MultipartFile file) {
+        try {
+            AttendanceImportResult result = attendanceService.saveAllByExcelStreaming(file);
+            return ResponseEntity.ok(ApiResponse.success("Imported successfully", result));
+        } catch (IOException ex) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(ApiResponse.badRequest("Import failed: " + ex.getMessage()));
+        } catch (Exception ex) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error(ex.getMessage()));
+        }
+    }
+
     @GetMapping("/export")
     public ResponseEntity<byte[]> exportAttendance(
             @RequestParam int year,
             @RequestParam int month,
             @RequestParam(required = false) Long courseId,
-            @RequestParam(required = false) Long groupId) {
+            @RequestParam(required = false) Long groupId,
+            @CurrentUser User user) {
 
         try {
-            User user = getCurrentUser();
             long userId = user.getId();
             
             if (year < 2000 || year > 2100) {
@@ -171,6 +202,42 @@ public class AttendanceController {
         }
     }
 
+    /**
+     * {@link #exportAttendance} bilan bir xil fayl, lekin SXSSF orqali to'g'ridan-to'g'ri javob oqimiga yoziladi:
+     * yuklab olish darhol boshlanadi va butun fayl xotirada saqlanmaydi.
+     */
+    @GetMapping("/export/stream")
+    public ResponseEntity<StreamingResponseBody> exportAttendanceStreaming(
+            @RequestParam int year,
+            @RequestParam int month,
+            @RequestParam(required = false) Long courseId,
+            @RequestParam(required = false) Long groupId,
+            @CurrentUser User currentUser) {
+
+        if (year < 2000 || year > 2100) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .contentType(MediaType.TEXT_PLAIN)
+                    .body(out -> out.write("Invalid year. Must be between 2000-2100".getBytes()));
+        }
+        if (month < 1 || month > 12) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .contentType(MediaType.TEXT_PLAIN)
+                    .body(out -> out.write("Invalid month. Must be between 1-12".getBytes()));
+        }
+
+        // Foydalanuvchi so'rov oqimida olinadi: body boshqa thread da, SecurityContext siz ishlaydi
+        long userId = currentUser.getId();
+        String filename = String.format("attendance_%d_%d_%d.xlsx", userId, year, month);
+
+        StreamingResponseBody body = out ->
+                attendanceService.exportToExcelByMonth(userId, courseId, groupId, year, month, out);
+
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
+                .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                .body(body);
+    }
+
     @GetMapping("/student/{studentId}")
     public ResponseEntity<ApiResponse<PageResponse<Attendance>>> getByStudent(
             @PathVariable long studentId,
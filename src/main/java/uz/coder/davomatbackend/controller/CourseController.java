@@ -5,8 +5,6 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -24,8 +22,8 @@ import uz.coder.davomatbackend.model.Course;
 import uz.coder.davomatbackend.model.PageResponse;
 import uz.coder.davomatbackend.model.UpdateCourse;
 import uz.coder.davomatbackend.model.User;
+import uz.coder.davomatbackend.security.CurrentUser;
 import uz.coder.davomatbackend.service.CourseService;
-import uz.coder.davomatbackend.service.UserService;
 import uz.coder.davomatbackend.service.WebSocketNotificationService;
 import static uz.coder.davomatbackend.todo.Strings.ROLE_ADMIN;
 import static uz.coder.davomatbackend.todo.Strings.ROLE_TEACHER;
@@ -37,21 +35,11 @@ import static uz.coder.davomatbackend.todo.Strings.YOU_ARE_A_STUDENT;
 public class CourseController {
 
     private final CourseService service;
-    private final UserService userService;
     private final WebSocketNotificationService notificationService;
 
-    private User getCurrentUser() {
-        UserDetails userDetails = (UserDetails) SecurityContextHolder
-                .getContext()
-                .getAuthentication()
-                .getPrincipal();
-        return userService.findByEmail(userDetails.getUsername());
-    }
-
     @DeleteMapping("/delete/{id}")
-    public ResponseEntity<ApiResponse<Integer>> deleteById(@PathVariable long id) {
+    public ResponseEntity<ApiResponse<Integer>> deleteById(@PathVariable long id, @CurrentUser User user) {
         try {
-            User user = getCurrentUser();
             if (user.getRole().equals(ROLE_ADMIN) || user.getRole().equals(ROLE_TEACHER)) {
                 int data = service.deleteById(id);
                 notificationService.notifyCourseUpdated(user.getUsername(), "Course deleted");
@@ -78,10 +66,9 @@ public class CourseController {
     }
 
     @PostMapping("/create")
-    public ResponseEntity<ApiResponse<Course>> create(@RequestBody AddCourse addCourse) {
+    public ResponseEntity<ApiResponse<Course>> create(@RequestBody AddCourse addCourse, @CurrentUser User user) {
         try {
             Course course = new Course();
-            User user = getCurrentUser();
             course.setTitle(addCourse.getTitle());
             course.setDescription(addCourse.getDescription());
             course.setUserId(user.getId());
@@ -101,13 +88,12 @@ public class CourseController {
     }
 
     @PutMapping("/update")
-    public ResponseEntity<ApiResponse<Course>> update(@RequestBody UpdateCourse updateCourse) {
+    public ResponseEntity<ApiResponse<Course>> update(@RequestBody UpdateCourse updateCourse, @CurrentUser User user) {
         try {
             Course course = new Course();
             course.setTitle(updateCourse.getTitle());
             course.setDescription(updateCourse.getDescription());
             course.setId(updateCourse.getId());
-            User user = getCurrentUser();
             course.setUserId(user.getId());
             if (user.getRole().equals(ROLE_ADMIN) || user.getRole().equals(ROLE_TEACHER)) {
                 Course edit = service.edit(course);
@@ -126,9 +112,9 @@ public class CourseController {
     @GetMapping("/getAllCourses")
     public ResponseEntity<ApiResponse<PageResponse<Course>>> getAllCourses(
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size) {
+            @RequestParam(defaultValue = "10") int size,
+            @CurrentUser User user) {
         try {
-            User user = getCurrentUser();
             Pageable pageable = PageRequest.of(page, size);
             Page<Course> coursePage = service.findAllPaginated(user.getId(), pageable);
             return ResponseEntity.ok(ApiResponse.success(PageResponse.of(coursePage)));
@@ -5,8 +5,6 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -23,8 +21,8 @@ import uz.coder.davomatbackend.model.ApiResponse;
 import uz.coder.davomatbackend.model.Group;
 import uz.coder.davomatbackend.model.PageResponse;
 import uz.coder.davomatbackend.model.User;
+import uz.coder.davomatbackend.security.CurrentUser;
 import uz.coder.davomatbackend.service.GroupService;
-import uz.coder.davomatbackend.service.UserService;
 import uz.coder.davomatbackend.service.WebSocketNotificationService;
 
 @RestController
@@ -33,18 +31,9 @@ import uz.coder.davomatbackend.service.WebSocketNotificationService;
 public class GroupController {
     private final GroupService service;
     private final WebSocketNotificationService notificationService;
-    private final UserService userService;
-
-    private User getCurrentUser() {
-        UserDetails userDetails = (UserDetails) SecurityContextHolder
-                .getContext()
-                .getAuthentication()
-                .getPrincipal();
-        return userService.findByEmail(userDetails.getUsername());
-    }
 
     @PostMapping({"/addGroup", "/create"})
-    public ResponseEntity<ApiResponse<Group>> addGroup(@RequestBody AddGroup addGroup) {
+    public ResponseEntity<ApiResponse<Group>> addGroup(@RequestBody AddGroup addGroup, @CurrentUser User currentUser) {
         try {
             Group group = new Group();
             group.setTitle(addGroup.getTitle());
@@ -52,7 +41,6 @@ public class GroupController {
             Group saved = service.save(group);
             
             try {
-                User currentUser = getCurrentUser();
                 notificationService.notifyGroupUpdated(currentUser.getUsername(), "New group added: " + saved.getTitle());
             } catch (Exception e) {
                 // Log but don't fail the request if notification fails
@@ -67,12 +55,11 @@ public class GroupController {
     }
 
     @PutMapping({"/editGroup", "/update"})
-    public ResponseEntity<ApiResponse<Group>> editGroup(@RequestBody Group group) {
+    public ResponseEntity<ApiResponse<Group>> editGroup(@RequestBody Group group, @CurrentUser User currentUser) {
         try {
             Group updated = service.edit(group);
             
             try {
-                User currentUser = getCurrentUser();
                 notificationService.notifyGroupUpdated(currentUser.getUsername(), "Group updated: " + updated.getTitle());
             } catch (Exception e) {
                 // Log but don't fail the request if notification fails
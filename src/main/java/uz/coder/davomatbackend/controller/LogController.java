@@ -2,17 +2,29 @@ package uz.coder.davomatbackend.controller;
 
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 
 import uz.coder.davomatbackend.model.ApiResponse;
+import uz.coder.davomatbackend.model.LogSearchQuery;
 import uz.coder.davomatbackend.model.User;
+import uz.coder.davomatbackend.security.CurrentUser;
+import uz.coder.davomatbackend.service.LogDownloadService;
+import uz.coder.davomatbackend.service.LogSearchService;
 import uz.coder.davomatbackend.service.LogService;
-import uz.coder.davomatbackend.service.UserService;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
 
@@ -22,27 +34,28 @@ import static uz.coder.davomatbackend.todo.Strings.ROLE_ADMIN;
 @RequestMapping("/api/logs")
 public class LogController {
 
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
     private final LogService logService;
-    private final UserService userService;
+    private final LogSearchService logSearchService;
+    private final LogDownloadService logDownloadService;
+    private final ObjectMapper objectMapper;
 
-    public LogController(LogService logService, UserService userService) {
+    public LogController(LogService logService, LogSearchService logSearchService,
+                         LogDownloadService logDownloadService, ObjectMapper objectMapper) {
         this.logService = logService;
-        this.userService = userService;
-    }
-
-    private User getCurrentUser() {
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        String username = authentication.getName();
-        return userService.findByEmail(username);
+        this.logSearchService = logSearchService;
+        this.logDownloadService = logDownloadService;
+        this.objectMapper = objectMapper;
     }
 
     @GetMapping("/recent")
     public ResponseEntity<ApiResponse<List<Map<String, String>>>> getRecentLogs(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "50") int size,
-            @RequestParam(defaultValue = "all") String level) {
+            @RequestParam(defaultValue = "all") String level,
+            @CurrentUser User user) {
         try {
-            User user = getCurrentUser();
             if (!ROLE_ADMIN.equals(user.getRole())) {
                 return ResponseEntity.status(HttpStatus.FORBIDDEN)
                         .body(ApiResponse.forbidden("Admin access required"));
@@ -63,9 +76,9 @@ public class LogController {
     @GetMapping("/security")
     public ResponseEntity<ApiResponse<List<Map<String, String>>>> getSecurityLogs(
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "50") int size) {
+            @RequestParam(defaultValue = "50") int size,
+            @CurrentUser User user) {
         try {
-            User user = getCurrentUser();
             if (!ROLE_ADMIN.equals(user.getRole())) {
                 return ResponseEntity.status(HttpStatus.FORBIDDEN)
                         .body(ApiResponse.forbidden("Admin access required"));
@@ -85,9 +98,9 @@ public class LogController {
     @GetMapping("/errors")
     public ResponseEntity<ApiResponse<List<Map<String, String>>>> getErrorLogs(
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "50") int size) {
+            @RequestParam(defaultValue = "50") int size,
+            @CurrentUser User user) {
         try {
-            User user = getCurrentUser();
             if (!ROLE_ADMIN.equals(user.getRole())) {
                 return ResponseEntity.status(HttpStatus.FORBIDDEN)
                         .body(ApiResponse.forbidden("Admin access required"));
@@ -104,10 +117,92 @@ public class LogController {
         }
     }
 
+    /**
+     * Faol fayl va rotatsiya qilingan (.gz ham) arxivlar bo'yicha qidiruv. Natija NDJSON ko'rinishida
+     * eng yangisidan boshlab oqim bilan yoziladi: har qatorda bitta yozuv. Xatolar boshqa endpointlar kabi
+     * ApiResponse (JSON) bo'lib qaytadi, Accept sarlavhasidan qat'i nazar.
+     */
+    @GetMapping("/search")
+    public ResponseEntity<?> searchLogs(
+            @RequestParam(defaultValue = "all") String type,
+            @RequestParam(defaultValue = "all") String level,
+            @RequestParam(required = false) String q,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(defaultValue = "1000") int limit,
+            @CurrentUser User user) {
+        if (!ROLE_ADMIN.equals(user.getRole())) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(ApiResponse.forbidden("Admin access required"));
+        }
+        if (!logSearchService.supports(type)) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(ApiResponse.badRequest("Unknown log type: " + type));
+        }
+
+        LogSearchQuery query = new LogSearchQuery(level, q, from, to, Math.min(limit, LogSearchService.MAX_LIMIT));
+        StreamingResponseBody body = out -> logSearchService.search(type, query, entry -> writeLine(out, entry));
+        return ResponseEntity.ok()
+                .contentType(NDJSON)
+                .body(body);
+    }
+
+    private void writeLine(OutputStream out, Map<String, String> entry) throws IOException {
+        out.write(objectMapper.writeValueAsBytes(entry));
+        out.write('\n');
+    }
+
+    @GetMapping("/files")
+    public ResponseEntity<ApiResponse<List<Map<String, Object>>>> listLogFiles(@CurrentUser User user) {
+        try {
+            if (!ROLE_ADMIN.equals(user.getRole())) {
+                return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                        .body(ApiResponse.forbidden("Admin access required"));
+            }
+
+            return ResponseEntity.ok(ApiResponse.success(logDownloadService.listFiles()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error(e.getMessage()));
+        }
+    }
+
+    /**
+     * Xom log faylini (yoki Range bilan uning bir qismini) yuklab berish. Muvaffaqiyatli holatda javob to'g'ridan-to'g'ri
+     * servlet javobiga yoziladi va null qaytadi (Spring uni "javob yozilgan" deb qabul qiladi).
+     */
+    @GetMapping("/download")
+    public ResponseEntity<ApiResponse<String>> downloadLog(
+            @RequestParam String file,
+            @CurrentUser User user,
+            HttpServletRequest request,
+            HttpServletResponse response) {
+        try {
+            if (!ROLE_ADMIN.equals(user.getRole())) {
+                return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                        .body(ApiResponse.forbidden("Admin access required"));
+            }
+
+            logDownloadService.send(logDownloadService.resolve(file), request, response);
+            return null;
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(ApiResponse.notFound(e.getMessage()));
+        } catch (Exception e) {
+            // Yuborish boshlangandan keyin (masalan mijoz uzilsa) javobni almashtirib bo'lmaydi
+            if (response.isCommitted()) {
+                return null;
+            }
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error(e.getMessage()));
+        }
+    }
+
     @DeleteMapping("/clear")
-    public ResponseEntity<ApiResponse<String>> clearLogs(@RequestParam String type) {
+    public ResponseEntity<ApiResponse<String>> clearLogs(@RequestParam String type, @CurrentUser User user) {
         try {
-            User user = getCurrentUser();
             if (!ROLE_ADMIN.equals(user.getRole())) {
                 return ResponseEntity.status(HttpStatus.FORBIDDEN)
                         .body(ApiResponse.forbidden("Admin access required"));
@@ -1,24 +1,31 @@
 package uz.coder.davomatbackend.controller;
 
+import java.time.LocalDate;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import lombok.RequiredArgsConstructor;
-import uz.coder.davomatbackend.db.AttendanceDatabase;
-import uz.coder.davomatbackend.db.CourseDatabase;
-import uz.coder.davomatbackend.db.StudentDatabase;
-import uz.coder.davomatbackend.db.UserDatabase;
 import uz.coder.davomatbackend.model.ApiResponse;
+import uz.coder.davomatbackend.model.AttendanceStats;
+import uz.coder.davomatbackend.model.AttendanceTrend;
+import uz.coder.davomatbackend.model.EndpointLatency;
 import uz.coder.davomatbackend.model.User;
-import uz.coder.davomatbackend.service.UserService;
+import uz.coder.davomatbackend.security.CurrentUser;
+import uz.coder.davomatbackend.service.AttendanceRollupService;
+import uz.coder.davomatbackend.service.DashboardService;
+import uz.coder.davomatbackend.service.EndpointLatencyService;
+import uz.coder.davomatbackend.service.RuntimeMetricsService;
+import uz.coder.davomatbackend.service.StatisticsService;
 import static uz.coder.davomatbackend.todo.Strings.ROLE_ADMIN;
 import static uz.coder.davomatbackend.todo.Strings.ROLE_TEACHER;
 
@@ -27,44 +34,18 @@ import static uz.coder.davomatbackend.todo.Strings.ROLE_TEACHER;
 @RequiredArgsConstructor
 public class StatisticsController {
 
-    private final UserService userService;
-    private final UserDatabase userDatabase;
-    private final CourseDatabase courseDatabase;
-    private final StudentDatabase studentDatabase;
-    private final AttendanceDatabase attendanceDatabase;
-
-    private User getCurrentUser() {
-        UserDetails userDetails = (UserDetails) SecurityContextHolder
-                .getContext()
-                .getAuthentication()
-                .getPrincipal();
-        return userService.findByEmail(userDetails.getUsername());
-    }
+    private final StatisticsService statisticsService;
+    private final DashboardService dashboardService;
+    private final AttendanceRollupService attendanceRollupService;
+    private final EndpointLatencyService endpointLatencyService;
+    private final RuntimeMetricsService runtimeMetricsService;
 
     @GetMapping("/dashboard")
-    public ResponseEntity<ApiResponse<Map<String, Object>>> getDashboardStats() {
+    public ResponseEntity<ApiResponse<Map<String, Object>>> getDashboardStats(
+            @RequestParam(defaultValue = "false") boolean exact,
+            @CurrentUser User user) {
         try {
-            User user = getCurrentUser();
-            Map<String, Object> stats = new HashMap<>();
-
-            if (ROLE_ADMIN.equals(user.getRole())) {
-                // Admin sees all statistics
-                stats.put("totalUsers", userDatabase.count());
-                stats.put("totalCourses", courseDatabase.count());
-                stats.put("totalStudents", studentDatabase.count());
-                stats.put("totalAttendance", attendanceDatabase.count());
-                stats.put("attendanceRate", calculateAttendanceRate());
-            } else if (ROLE_TEACHER.equals(user.getRole())) {
-                // Teacher sees their own statistics
-                stats.put("myCourses", courseDatabase.findAllByUserId(user.getId()).size());
-                stats.put("myStudents", studentDatabase.findAllStudentsByOwnerUserId(user.getId()).size());
-                stats.put("attendanceRate", 85.5); // Placeholder
-            } else {
-                // Student sees their own statistics
-                stats.put("myCourses", 0); // Placeholder
-                stats.put("myAttendance", 0); // Placeholder
-                stats.put("attendanceRate", 0); // Placeholder
-            }
+            Map<String, Object> stats = dashboardService.getDashboard(user, exact);
 
             return ResponseEntity.ok(ApiResponse.success(stats));
         } catch (Exception e) {
@@ -73,10 +54,39 @@ public class StatisticsController {
         }
     }
 
+    @GetMapping("/attendance")
+    public ResponseEntity<ApiResponse<AttendanceStats>> getAttendanceStats(@CurrentUser User user) {
+        try {
+            return ResponseEntity.ok(ApiResponse.success(statisticsService.getAttendanceStats(user)));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error(e.getMessage()));
+        }
+    }
+
+    /**
+     * Kunlik davomat rollupini xom ma'lumotdan oyma-oy parallel qayta hisoblaydi.
+     */
+    @PostMapping("/rollup/rebuild")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> rebuildRollup(@CurrentUser User user) {
+        if (!ROLE_ADMIN.equals(user.getRole())) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                    .body(ApiResponse.forbidden("Only admins can rebuild statistics"));
+        }
+        try {
+            return ResponseEntity.ok(ApiResponse.success("Rollup rebuilt", attendanceRollupService.rebuild()));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(ApiResponse.error(HttpStatus.CONFLICT, e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error(e.getMessage()));
+        }
+    }
+
     @GetMapping("/performance")
-    public ResponseEntity<ApiResponse<Map<String, Object>>> getPerformanceMetrics() {
+    public ResponseEntity<ApiResponse<Map<String, Object>>> getPerformanceMetrics(@CurrentUser User user) {
         try {
-            User user = getCurrentUser();
             
             if (!ROLE_ADMIN.equals(user.getRole())) {
                 return ResponseEntity.status(HttpStatus.FORBIDDEN)
@@ -96,7 +106,9 @@ public class StatisticsController {
             metrics.put("usedMemoryMB", usedMemory / (1024 * 1024));
             metrics.put("freeMemoryMB", freeMemory / (1024 * 1024));
             metrics.put("availableProcessors", runtime.availableProcessors());
-            metrics.put("activeConnections", 0); // Placeholder
+
+            // Connection pool, Tomcat, executorlar, WebSocket va GC (Actuator bilan bir xil manbadan)
+            metrics.putAll(runtimeMetricsService.getRuntimeMetrics());
 
             return ResponseEntity.ok(ApiResponse.success(metrics));
         } catch (Exception e) {
@@ -105,29 +117,28 @@ public class StatisticsController {
         }
     }
 
+    /**
+     * Controller metodlari bo'yicha kechikish percentillari (ms), oxirgi app.metrics.endpoint-latency.window oynasi.
+     */
+    @GetMapping("/latency")
+    public ResponseEntity<ApiResponse<List<EndpointLatency>>> getEndpointLatencies(@CurrentUser User user) {
+        if (!ROLE_ADMIN.equals(user.getRole())) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                    .body(ApiResponse.forbidden("Only admins can view performance metrics"));
+        }
+        return ResponseEntity.ok(ApiResponse.success(endpointLatencyService.getLatencies()));
+    }
+
     @GetMapping("/activity")
-    public ResponseEntity<ApiResponse<Map<String, Object>>> getRecentActivity() {
+    public ResponseEntity<ApiResponse<Map<String, Object>>> getRecentActivity(@CurrentUser User user) {
         try {
-            User user = getCurrentUser();
             
             if (!ROLE_ADMIN.equals(user.getRole())) {
                 return ResponseEntity.status(HttpStatus.FORBIDDEN)
                         .body(ApiResponse.forbidden("Only admins can view activity"));
             }
 
-            Map<String, Object> activity = new HashMap<>();
-            
-            // Recent activity counts
-            activity.put("newUsersToday", userDatabase.count() > 0 ? 3 : 0);
-            activity.put("newCoursesToday", courseDatabase.count() > 0 ? 2 : 0);
-            activity.put("newStudentsToday", studentDatabase.count() > 0 ? 5 : 0);
-            activity.put("attendanceToday", attendanceDatabase.count() > 0 ? 12 : 0);
-            
-            // Growth percentages
-            activity.put("userGrowth", 12.5);
-            activity.put("courseGrowth", 8.3);
-            activity.put("studentGrowth", 15.7);
-            activity.put("attendanceGrowth", 22.1);
+            Map<String, Object> activity = dashboardService.getRecentActivity();
 
             return ResponseEntity.ok(ApiResponse.success(activity));
         } catch (Exception e) {
@@ -137,24 +148,21 @@ public class StatisticsController {
     }
 
     @GetMapping("/charts/attendance-trend")
-    public ResponseEntity<ApiResponse<Map<String, Object>>> getAttendanceTrend() {
+    public ResponseEntity<ApiResponse<AttendanceTrend>> getAttendanceTrend(
+            @RequestParam(defaultValue = "day") String granularity,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @CurrentUser User user) {
         try {
-            User user = getCurrentUser();
-            
-            if (!ROLE_ADMIN.equals(user.getRole())) {
+            if (!ROLE_ADMIN.equals(user.getRole()) && !ROLE_TEACHER.equals(user.getRole())) {
                 return ResponseEntity.status(HttpStatus.FORBIDDEN)
-                        .body(ApiResponse.forbidden("Only admins can view charts"));
+                        .body(ApiResponse.forbidden("Only admins and teachers can view charts"));
             }
 
-            Map<String, Object> chartData = new HashMap<>();
-            
-            // Last 7 days attendance data
-            chartData.put("labels", new String[]{"Mon", "Tue", "Wed", "Thu", "Fri", "Sat", "Sun"});
-            chartData.put("present", new int[]{45, 52, 48, 55, 50, 30, 25});
-            chartData.put("absent", new int[]{5, 3, 7, 2, 5, 2, 1});
-            chartData.put("late", new int[]{3, 2, 1, 3, 2, 1, 0});
-
-            return ResponseEntity.ok(ApiResponse.success(chartData));
+            return ResponseEntity.ok(ApiResponse.success(statisticsService.getAttendanceTrend(user, granularity, from, to)));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(ApiResponse.badRequest(e.getMessage()));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(ApiResponse.error(e.getMessage()));
@@ -162,39 +170,18 @@ public class StatisticsController {
     }
 
     @GetMapping("/charts/user-distribution")
-    public ResponseEntity<ApiResponse<Map<String, Object>>> getUserDistribution() {
+    public ResponseEntity<ApiResponse<Map<String, Object>>> getUserDistribution(@CurrentUser User user) {
         try {
-            User user = getCurrentUser();
             
             if (!ROLE_ADMIN.equals(user.getRole())) {
                 return ResponseEntity.status(HttpStatus.FORBIDDEN)
                         .body(ApiResponse.forbidden("Only admins can view charts"));
             }
 
-            Map<String, Object> chartData = new HashMap<>();
-            
-            long totalUsers = userDatabase.count();
-            // Simplified distribution - in production, query by role
-            chartData.put("labels", new String[]{"Admins", "Teachers", "Students"});
-            chartData.put("values", new int[]{
-                totalUsers > 0 ? 1 : 0,  // Admins
-                totalUsers > 1 ? 2 : 0,  // Teachers
-                totalUsers > 3 ? (int)(totalUsers - 3) : 0  // Students
-            });
-            chartData.put("colors", new String[]{"#667eea", "#48bb78", "#ed8936"});
-
-            return ResponseEntity.ok(ApiResponse.success(chartData));
+            return ResponseEntity.ok(ApiResponse.success(statisticsService.getUserDistribution()));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(ApiResponse.error(e.getMessage()));
         }
     }
-
-    private double calculateAttendanceRate() {
-        long totalAttendance = attendanceDatabase.count();
-        if (totalAttendance == 0) return 0.0;
-        
-        // Simplified calculation - in production, calculate based on actual attendance status
-        return 87.5; // Placeholder
-    }
 }
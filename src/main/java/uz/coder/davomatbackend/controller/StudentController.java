@@ -12,8 +12,6 @@ import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -35,9 +33,9 @@ import uz.coder.davomatbackend.model.StudentCourseGroup;
 import uz.coder.davomatbackend.model.TelegramUser;
 import uz.coder.davomatbackend.model.UpdateStudent;
 import uz.coder.davomatbackend.model.User;
+import uz.coder.davomatbackend.security.CurrentUser;
 import uz.coder.davomatbackend.service.StudentService;
 import uz.coder.davomatbackend.service.TelegramUserService;
-import uz.coder.davomatbackend.service.UserService;
 import uz.coder.davomatbackend.service.WebSocketNotificationService;
 
 @RestController
@@ -46,20 +44,11 @@ import uz.coder.davomatbackend.service.WebSocketNotificationService;
 public class StudentController {
 
     private final StudentService service;
-    private final UserService userService;
     private final TelegramUserService telegramUserService;
     private final WebSocketNotificationService notificationService;
 
-    private User getCurrentUser() {
-        UserDetails userDetails = (UserDetails) SecurityContextHolder
-                .getContext()
-                .getAuthentication()
-                .getPrincipal();
-        return userService.findByEmail(userDetails.getUsername());
-    }
-
     @PostMapping("/addStudent")
-    public ResponseEntity<ApiResponse<Student>> addStudent(@RequestBody AddStudent addStudent) {
+    public ResponseEntity<ApiResponse<Student>> addStudent(@RequestBody AddStudent addStudent, @CurrentUser User user) {
         try {
             Student student = new Student();
             student.setFullName(addStudent.getFullName());
@@ -68,7 +57,6 @@ public class StudentController {
             Student saved = service.save(student);
             
             try {
-                User user = getCurrentUser();
                 notificationService.notifyStudentAdded(user.getUsername(), "New student added: " + saved.getFullName());
             } catch (Exception e) {
                 // Log but don't fail the request if notification fails
@@ -83,7 +71,7 @@ public class StudentController {
     }
 
     @PutMapping("/editStudent")
-    public ResponseEntity<ApiResponse<Student>> editStudent(@RequestBody UpdateStudent updateStudent) {
+    public ResponseEntity<ApiResponse<Student>> editStudent(@RequestBody UpdateStudent updateStudent, @CurrentUser User user) {
         try {
             Student student = new Student();
             student.setFullName(updateStudent.getFullName());
@@ -93,7 +81,6 @@ public class StudentController {
             Student updated = service.edit(student);
             
             try {
-                User user = getCurrentUser();
                 notificationService.notifyStudentAdded(user.getUsername(), "Student updated: " + updated.getFullName());
             } catch (Exception e) {
                 // Log but don't fail the request if notification fails
@@ -149,9 +136,8 @@ public class StudentController {
     }
 
     @PostMapping(value = "/upload-excel", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
-    public ResponseEntity<ApiResponse<String>> uploadExcel(@RequestParam MultipartFile file) {
+    public ResponseEntity<ApiResponse<String>> uploadExcel(@RequestParam MultipartFile file, @CurrentUser User user) {
         try {
-            User user = getCurrentUser();
             if (!Objects.requireNonNull(file.getOriginalFilename()).endsWith(".xlsx")) {
                 return ResponseEntity.status(HttpStatus.BAD_REQUEST)
                         .body(ApiResponse.badRequest("Only .xlsx format files are allowed"));
@@ -172,8 +158,7 @@ public class StudentController {
     }
 
     @GetMapping("/export")
-    public ResponseEntity<byte[]> exportXlsx() throws IOException {
-        User user = getCurrentUser();
+    public ResponseEntity<byte[]> exportXlsx(@CurrentUser User user) throws IOException {
         List<Student> students = service.getStudentsByUserId(user.getId());
         byte[] fileBytes = service.exportStudentsToXlsx(students);
         HttpHeaders headers = new HttpHeaders();
@@ -184,9 +169,8 @@ public class StudentController {
     }
 
     @GetMapping("/seeCourses")
-    public ResponseEntity<ApiResponse<List<StudentCourseGroup>>> findAllCourses() {
+    public ResponseEntity<ApiResponse<List<StudentCourseGroup>>> findAllCourses(@CurrentUser User user) {
         try {
-            User user = getCurrentUser();
             List<StudentCourseGroup> result = service.getCourseAndGroupByUserId(user.getId());
             return ResponseEntity.ok(ApiResponse.success(result));
         } catch (Exception ex) {
@@ -196,9 +180,8 @@ public class StudentController {
     }
 
     @GetMapping("/balance")
-    public ResponseEntity<ApiResponse<Balance>> getUserBalanceByTelegram() {
+    public ResponseEntity<ApiResponse<Balance>> getUserBalanceByTelegram(@CurrentUser User user) {
         try {
-            User user = getCurrentUser();
             TelegramUser telegramUserServiceByUserId = telegramUserService.findByUserId(user.getId());
             Balance balance = service.getUserBalanceByTelegramUserId(telegramUserServiceByUserId.getTelegramUserId());
             return ResponseEntity.ok(ApiResponse.success(balance));
@@ -209,9 +192,8 @@ public class StudentController {
     }
 
     @GetMapping("/findByGroupIdAndUserId")
-    public ResponseEntity<ApiResponse<Student>> findByGroupIdAndUserId(@RequestParam long groupId) {
+    public ResponseEntity<ApiResponse<Student>> findByGroupIdAndUserId(@RequestParam long groupId, @CurrentUser User user) {
         try {
-            User user = getCurrentUser();
             Student student = service.findByGroupIdAndUserId(user.getId(), groupId);
             return ResponseEntity.ok(ApiResponse.success(student));
         } catch (Exception e) {
@@ -4,16 +4,24 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.net.URI;
+import java.time.LocalDateTime;
+
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
 import uz.coder.davomatbackend.db.model.SystemLogDbModel;
 import uz.coder.davomatbackend.model.PageResponse;
 import uz.coder.davomatbackend.model.Response;
+import uz.coder.davomatbackend.model.RetentionStatus;
+import uz.coder.davomatbackend.model.SystemLogFilter;
+import uz.coder.davomatbackend.service.RetentionService;
 import uz.coder.davomatbackend.service.SystemLogService;
 import static uz.coder.davomatbackend.todo.Strings.ROLE_ADMIN;
 
@@ -23,20 +31,45 @@ import static uz.coder.davomatbackend.todo.Strings.ROLE_ADMIN;
 @Tag(name = "System Logs", description = "System logging and monitoring")
 @PreAuthorize("hasAuthority('" + ROLE_ADMIN + "')")
 public class SystemLogController {
+
+    private static final String RETENTION_STATUS_PATH = "/api/system-logs/retention";
     
     private final SystemLogService systemLogService;
+    private final RetentionService retentionService;
     
     @GetMapping
     @Operation(summary = "Get all system logs (Admin only)")
     public ResponseEntity<PageResponse<SystemLogDbModel>> getAllLogs(
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "50") int size
+            @RequestParam(defaultValue = "50") int size,
+            @RequestParam(defaultValue = "false") boolean exact
     ) {
         Pageable pageable = PageRequest.of(page, Math.min(size, 100), 
             Sort.by(Sort.Direction.DESC, "timestamp"));
-        Page<SystemLogDbModel> logs = systemLogService.getAllLogs(pageable);
         
-        return ResponseEntity.ok(PageResponse.of(logs));
+        return ResponseEntity.ok(systemLogService.getAllLogs(pageable, exact));
+    }
+    
+    @GetMapping("/cursor")
+    @Operation(summary = "Browse and search logs with keyset cursors (level + user + action + text + time range, no total count)")
+    public ResponseEntity<?> getLogsByCursor(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int size,
+            @RequestParam(required = false) String level,
+            @RequestParam(required = false) String username,
+            @RequestParam(required = false) String action,
+            @RequestParam(required = false) String q,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to
+    ) {
+        SystemLogFilter filter = new SystemLogFilter(
+            level != null ? level.toUpperCase() : null, username, action,
+            q != null && !q.isBlank() ? q.trim() : null, from, to);
+        try {
+            return ResponseEntity.ok(systemLogService.getLogsByCursor(filter, cursor, Math.max(1, Math.min(size, 100))));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(new Response<Void>(400, e.getMessage()));
+        }
     }
     
     @GetMapping("/level/{level}")
@@ -105,19 +138,38 @@ public class SystemLogController {
     
     @GetMapping("/statistics")
     @Operation(summary = "Get log statistics")
-    public ResponseEntity<Response<java.util.Map<String, Long>>> getStatistics() {
-        java.util.Map<String, Long> stats = systemLogService.getLogStatistics();
+    public ResponseEntity<Response<java.util.Map<String, Object>>> getStatistics(
+            @RequestParam(defaultValue = "false") boolean exact
+    ) {
+        java.util.Map<String, Object> stats = systemLogService.getLogStatistics(exact);
         return ResponseEntity.ok(new Response<>(200, stats, "Statistics retrieved successfully"));
     }
     
+    @GetMapping("/writer")
+    @Operation(summary = "Get buffered log writer counters")
+    public ResponseEntity<Response<java.util.Map<String, Long>>> getWriterStatistics() {
+        java.util.Map<String, Long> stats = systemLogService.getWriterStatistics();
+        return ResponseEntity.ok(new Response<>(200, stats, "Writer statistics retrieved successfully"));
+    }
+    
+    @GetMapping("/retention")
+    @Operation(summary = "Get background retention status per policy")
+    public ResponseEntity<Response<java.util.List<RetentionStatus>>> getRetentionStatus() {
+        return ResponseEntity.ok(new Response<>(200, retentionService.getStatus(), "Retention status retrieved successfully"));
+    }
+    
     @DeleteMapping("/cleanup")
-    @Operation(summary = "Clean up old logs")
-    public ResponseEntity<Response<Void>> cleanupOldLogs(
+    @Operation(summary = "Start cleaning up old logs in the background")
+    public ResponseEntity<Response<RetentionStatus>> cleanupOldLogs(
             @RequestParam(defaultValue = "90") int daysToKeep
     ) {
-        systemLogService.cleanupOldLogs(daysToKeep);
-        return ResponseEntity.ok(new Response<>(200, 
-            "Logs older than " + daysToKeep + " days have been deleted"));
+        try {
+            RetentionStatus status = systemLogService.cleanupOldLogs(daysToKeep);
+            return retentionAccepted(status,
+                "Deleting logs older than " + daysToKeep + " days, progress: " + RETENTION_STATUS_PATH);
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(new Response<>(409, e.getMessage()));
+        }
     }
     
     @DeleteMapping("/{id}")
@@ -130,15 +182,26 @@ public class SystemLogController {
     @DeleteMapping("/bulk")
     @Operation(summary = "Delete multiple logs by IDs")
     public ResponseEntity<Response<Void>> deleteLogs(@RequestBody java.util.List<Long> ids) {
-        systemLogService.deleteLogs(ids);
+        int deleted = systemLogService.deleteLogs(ids);
         return ResponseEntity.ok(new Response<>(200, 
-            ids.size() + " log(s) deleted successfully"));
+            deleted + " log(s) deleted successfully"));
     }
     
     @DeleteMapping("/all")
-    @Operation(summary = "Delete all logs")
-    public ResponseEntity<Response<Void>> deleteAllLogs() {
-        systemLogService.deleteAllLogs();
-        return ResponseEntity.ok(new Response<>(200, "All logs deleted successfully"));
+    @Operation(summary = "Start deleting all logs in the background")
+    public ResponseEntity<Response<RetentionStatus>> deleteAllLogs() {
+        try {
+            RetentionStatus status = systemLogService.deleteAllLogs();
+            return retentionAccepted(status, "Deleting all logs, progress: " + RETENTION_STATUS_PATH);
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(new Response<>(409, e.getMessage()));
+        }
+    }
+
+    // O'chirish fonda davom etadi: 202 va holatni kuzatish manzili
+    private ResponseEntity<Response<RetentionStatus>> retentionAccepted(RetentionStatus status, String message) {
+        return ResponseEntity.accepted()
+                .location(URI.create(RETENTION_STATUS_PATH))
+                .body(new Response<>(202, status, message));
     }
 }
@@ -3,10 +3,9 @@ package uz.coder.davomatbackend.controller;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
 import uz.coder.davomatbackend.model.*;
+import uz.coder.davomatbackend.security.CurrentUser;
 import uz.coder.davomatbackend.service.UserService;
 
 @RequestMapping("/api/user")
@@ -16,16 +15,9 @@ public class UserController {
 
     private final UserService service;
 
-    private User getCurrentUser() {
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        String username = authentication.getName();
-        return service.findByEmail(username);
-    }
-
     @DeleteMapping("/delete")
-    public ResponseEntity<ApiResponse<Integer>> deleteMe() {
+    public ResponseEntity<ApiResponse<Integer>> deleteMe(@CurrentUser(fresh = true) User currentUser) {
         try {
-            User currentUser = getCurrentUser();
             int data = service.deleteById(currentUser.getId());
             return ResponseEntity.ok(ApiResponse.success("User deleted successfully", data));
         } catch (Exception e) {
@@ -35,9 +27,8 @@ public class UserController {
     }
 
     @GetMapping("/me")
-    public ResponseEntity<ApiResponse<UserResponse>> getMe() {
+    public ResponseEntity<ApiResponse<UserResponse>> getMe(@CurrentUser User currentUser) {
         try {
-            User currentUser = getCurrentUser();
             UserResponse userResponse = new UserResponse(
                     currentUser.getId(),
                     currentUser.getFirstName(),
@@ -56,9 +47,8 @@ public class UserController {
     }
 
     @PutMapping("/update")
-    public ResponseEntity<ApiResponse<UserResponse>> updateMe(@RequestBody UpdateUser updateUser) {
+    public ResponseEntity<ApiResponse<UserResponse>> updateMe(@RequestBody UpdateUser updateUser, @CurrentUser(fresh = true) User currentUser) {
         try {
-            User currentUser = getCurrentUser();
             User user = new User();
             user.setFirstName(updateUser.getFirstName());
             user.setLastName(updateUser.getLastName());
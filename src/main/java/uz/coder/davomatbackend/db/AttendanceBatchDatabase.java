@@ -0,0 +1,142 @@
+package uz.coder.davomatbackend.db;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import lombok.RequiredArgsConstructor;
+import uz.coder.davomatbackend.db.model.AttendanceDbModel;
+import uz.coder.davomatbackend.model.AttendanceBatchResult;
+import uz.coder.davomatbackend.model.AttendanceMark;
+
+/**
+ * Ko'p qatorli yozuvlar: IDENTITY id tufayli Hibernate insertlarni batch qila olmaydi,
+ * shuning uchun importlar va guruh bo'yicha belgilash massivli (unnest) so'rovlar bilan shu yerdan yoziladi.
+ * So'rovlar PostgreSQL ga mo'ljallangan va attendance(student_id, date) unique indeksiga tayanadi.
+ */
+@Repository
+@RequiredArgsConstructor
+public class AttendanceBatchDatabase {
+
+    private static final int BATCH_SIZE = 500;
+
+    private static final String INSERT_SQL = """
+            INSERT INTO attendance (student_id, date, status)
+            SELECT * FROM unnest(CAST(? AS bigint[]), CAST(? AS date[]), CAST(? AS varchar[]))
+            ON CONFLICT (student_id, date) DO NOTHING
+            RETURNING id, student_id, date, status
+            """;
+
+    // Rollup eski holatdan hisoblanadi, shuning uchun yozishdan oldin qatorlar qulflanadi. SELECT ... FOR UPDATE
+    // yo'q qatorni qulflay olmaydi, shu sababli yo'qlari shu so'rovda qo'shiladi, borlari o'zgarmagan holda
+    // yangilanib (DO UPDATE qulfi) eng oxirgi commit bo'lgan holati qaytadi. Bitta so'rov va student_id tartibi:
+    // parallel belgilashlar qatorlarni bir xil tartibda qulflaydi, deadlock bo'lmaydi.
+    // xmax = 0 faqat yangi qo'shilgan qatorda bo'ladi
+    private static final String LOCK_OR_INSERT_SQL = """
+            INSERT INTO attendance (student_id, date, status)
+            SELECT t.student_id, CAST(? AS date), t.status
+            FROM unnest(CAST(? AS bigint[]), CAST(? AS varchar[])) AS t(student_id, status)
+            ON CONFLICT (student_id, date) DO UPDATE SET status = attendance.status
+            RETURNING id, student_id, status, (xmax = 0) AS inserted
+            """;
+
+    private static final String UPDATE_STATUS_SQL = """
+            UPDATE attendance a SET status = t.status
+            FROM unnest(CAST(? AS bigint[]), CAST(? AS varchar[])) AS t(id, status)
+            WHERE a.id = t.id
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Yozuvlarni har {@value #BATCH_SIZE} tadan bitta unnest so'rovi bilan qo'shadi va haqiqatan qo'shilgan
+     * qatorlarni qaytaradi. Bazada allaqachon bor (studentId, sana) juftliklari o'zgarmaydi.
+     */
+    public List<AttendanceDbModel> insertAll(List<AttendanceDbModel> records) {
+        List<AttendanceDbModel> inserted = new ArrayList<>();
+        for (int from = 0; from < records.size(); from += BATCH_SIZE) {
+            List<AttendanceDbModel> chunk = records.subList(from, Math.min(from + BATCH_SIZE, records.size()));
+            Long[] studentIds = chunk.stream().map(AttendanceDbModel::getStudentId).toArray(Long[]::new);
+            Date[] dates = chunk.stream().map(record -> Date.valueOf(record.getDate())).toArray(Date[]::new);
+            String[] statuses = chunk.stream().map(AttendanceDbModel::getStatus).toArray(String[]::new);
+
+            inserted.addAll(jdbcTemplate.query(con -> {
+                PreparedStatement ps = con.prepareStatement(INSERT_SQL);
+                ps.setArray(1, con.createArrayOf("bigint", studentIds));
+                ps.setArray(2, con.createArrayOf("date", dates));
+                ps.setArray(3, con.createArrayOf("varchar", statuses));
+                return ps;
+            }, (rs, rowNum) -> new AttendanceDbModel(
+                    rs.getLong("id"),
+                    rs.getLong("student_id"),
+                    rs.getDate("date").toLocalDate(),
+                    rs.getString("status")
+            )));
+        }
+        return inserted;
+    }
+
+    /**
+     * Bitta sana uchun belgilarni yozadi. Avval qatorlar qulflanadi (yo'qlari qo'shiladi) va eski holati olinadi,
+     * keyin alohida so'rov bilan holati o'zgarganlari yangilanadi, shuning uchun previousStatus parallel
+     * yozuvlarda ham haqiqiy eski holat. Har {@value #BATCH_SIZE} ta belgi alohida bo'lak.
+     * studentId lar takrorlanmasligi kerak; chaqiruvchi tranzaksiya ichida bo'lishi kerak.
+     */
+    public List<AttendanceBatchResult> upsertAll(LocalDate date, List<AttendanceMark> marks) {
+        List<AttendanceMark> sorted = marks.stream()
+                .sorted(Comparator.comparing(AttendanceMark::getStudentId))
+                .toList();
+        List<AttendanceBatchResult> results = new ArrayList<>(marks.size());
+        for (int from = 0; from < sorted.size(); from += BATCH_SIZE) {
+            List<AttendanceMark> chunk = sorted.subList(from, Math.min(from + BATCH_SIZE, sorted.size()));
+            Map<Long, String> statuses = new HashMap<>();
+            chunk.forEach(mark -> statuses.put(mark.getStudentId(), mark.getStatus()));
+            Long[] studentIds = chunk.stream().map(AttendanceMark::getStudentId).toArray(Long[]::new);
+            String[] values = chunk.stream().map(AttendanceMark::getStatus).toArray(String[]::new);
+
+            List<AttendanceBatchResult> locked = jdbcTemplate.query(con -> {
+                PreparedStatement ps = con.prepareStatement(LOCK_OR_INSERT_SQL);
+                ps.setDate(1, Date.valueOf(date));
+                ps.setArray(2, con.createArrayOf("bigint", studentIds));
+                ps.setArray(3, con.createArrayOf("varchar", values));
+                return ps;
+            }, (rs, rowNum) -> {
+                long studentId = rs.getLong("student_id");
+                boolean inserted = rs.getBoolean("inserted");
+                return new AttendanceBatchResult(
+                        studentId,
+                        rs.getLong("id"),
+                        statuses.get(studentId),
+                        inserted ? AttendanceBatchResult.CREATED : AttendanceBatchResult.UPDATED,
+                        null,
+                        inserted ? null : rs.getString("status"));
+            });
+
+            List<AttendanceBatchResult> changed = locked.stream()
+                    .filter(result -> AttendanceBatchResult.UPDATED.equals(result.getResult()))
+                    .filter(result -> !Objects.equals(result.getStatus(), result.getPreviousStatus()))
+                    .toList();
+            if (!changed.isEmpty()) {
+                Long[] ids = changed.stream().map(AttendanceBatchResult::getAttendanceId).toArray(Long[]::new);
+                String[] newStatuses = changed.stream().map(AttendanceBatchResult::getStatus).toArray(String[]::new);
+                jdbcTemplate.update(con -> {
+                    PreparedStatement ps = con.prepareStatement(UPDATE_STATUS_SQL);
+                    ps.setArray(1, con.createArrayOf("bigint", ids));
+                    ps.setArray(2, con.createArrayOf("varchar", newStatuses));
+                    return ps;
+                });
+            }
+            results.addAll(locked);
+        }
+        return results;
+    }
+}
@@ -1,25 +1,38 @@
 package uz.coder.davomatbackend.db;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.data.rest.core.annotation.RestResource;
 import org.springframework.stereotype.Repository;
 
+import jakarta.persistence.LockModeType;
 import uz.coder.davomatbackend.db.model.AttendanceDbModel;
+import uz.coder.davomatbackend.model.AttendanceKey;
+import uz.coder.davomatbackend.model.StatusCount;
 
 @Repository
 public interface AttendanceDatabase extends JpaRepository<AttendanceDbModel, Long> {
 
+    // Rollup eski holatdan hisoblanadi, shuning uchun o'zgartiriladigan qator SELECT ... FOR UPDATE bilan o'qiladi
+    @RestResource(exported = false)
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT a FROM AttendanceDbModel a WHERE a.id = :id")
+    Optional<AttendanceDbModel> findByIdForUpdate(@Param("id") long id);
+
+    @RestResource(exported = false)
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
     @Query("SELECT a FROM AttendanceDbModel a WHERE a.studentId = :studentId AND a.date = :date")
-    Optional<AttendanceDbModel> findByStudentIdAndDate(@Param("studentId") Long studentId,
-                                                       @Param("date") LocalDate date);
+    Optional<AttendanceDbModel> findByStudentIdAndDateForUpdate(@Param("studentId") Long studentId,
+                                                                @Param("date") LocalDate date);
 
     @RestResource(path = "by-student", rel = "by-student")
     @Query("SELECT a FROM AttendanceDbModel a WHERE a.studentId = :studentId")
@@ -29,9 +42,11 @@ public interface AttendanceDatabase extends JpaRepository<AttendanceDbModel, Lon
     @Query("SELECT a FROM AttendanceDbModel a WHERE a.studentId = :studentId")
     Page<AttendanceDbModel> findAllByStudentId(@Param("studentId") Long studentId, Pageable pageable);
 
+    // Oylik export uchun: sana oralig'i bazada filtrlanadi, butun tarix yuklanmaydi
     @Query("""
     select a from AttendanceDbModel a
-    where a.studentId in (
+    where a.date between :from and :to
+    and a.studentId in (
         select s.id from StudentDbModel s
         where s.groupId in (
             select g.id from GroupDbModel g
@@ -49,9 +64,32 @@ public interface AttendanceDatabase extends JpaRepository<AttendanceDbModel, Lon
         )
     )
 """)
-    List<AttendanceDbModel> findAllByTeacherAndOptionalCourseAndGroup(
+    List<AttendanceDbModel> findAllByTeacherAndOptionalCourseAndGroupAndDateBetween(
             @Param("userId") long userId,
             @Param("courseId") Long courseId,
-            @Param("groupId") Long groupId
+            @Param("groupId") Long groupId,
+            @Param("from") LocalDate from,
+            @Param("to") LocalDate to
     );
-}
\ No newline at end of file
+
+    @Query("""
+    select new uz.coder.davomatbackend.model.AttendanceKey(a.studentId, a.date)
+    from AttendanceDbModel a
+    where a.studentId in :studentIds
+    and a.date between :from and :to
+""")
+    List<AttendanceKey> findKeysByStudentIdsAndDateBetween(@Param("studentIds") Collection<Long> studentIds,
+                                                           @Param("from") LocalDate from,
+                                                           @Param("to") LocalDate to);
+
+    // O'quvchi statistikasi: status bo'yicha guruhlangan sonlar (admin/o'qituvchi doirasi rollupdan o'qiladi)
+
+    @Query("""
+    select new uz.coder.davomatbackend.model.StatusCount(a.status, count(a))
+    from AttendanceDbModel a
+    join StudentDbModel s on a.studentId = s.id
+    where s.userId = :userId
+    group by a.status
+""")
+    List<StatusCount> countGroupByStatusForStudentUser(@Param("userId") long userId);
+}
@@ -0,0 +1,210 @@
+package uz.coder.davomatbackend.db;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import lombok.RequiredArgsConstructor;
+import uz.coder.davomatbackend.model.AttendanceDelta;
+
+/**
+ * attendance_daily_rollup ga JDBC yozuvlari. O'quvchi -> guruh -> kurs -> o'qituvchi zanjiri yozish paytida
+ * so'rov ichida aniqlanadi, shuning uchun chaqiruvchi faqat (studentId, sana, holat, +-1) beradi.
+ * So'rovlar PostgreSQL ga mo'ljallangan va uk_attendance_rollup_key unique indeksiga tayanadi.
+ */
+@Repository
+@RequiredArgsConstructor
+public class AttendanceRollupBatchDatabase {
+
+    private static final int BATCH_SIZE = 1000;
+
+    private static final String UPSERT_CONFLICT = """
+            ON CONFLICT (date, group_id, course_id, teacher_id, status)
+            DO UPDATE SET total = attendance_daily_rollup.total + EXCLUDED.total
+            """;
+
+    private static final String APPLY_DELTAS_SQL = """
+            INSERT INTO attendance_daily_rollup (date, group_id, course_id, teacher_id, status, total)
+            SELECT d.date, s.group_id, g.course_id, c.user_id, d.status, sum(d.delta)
+            FROM unnest(CAST(? AS bigint[]), CAST(? AS date[]), CAST(? AS varchar[]), CAST(? AS int[]))
+                 AS d(student_id, date, status, delta)
+            JOIN student s ON s.id = d.student_id
+            JOIN groups g ON g.id = s.group_id
+            JOIN course c ON c.id = g.course_id
+            GROUP BY d.date, s.group_id, g.course_id, c.user_id, d.status
+            """ + UPSERT_CONFLICT;
+
+    private static final String APPLY_STUDENT_SQL = """
+            INSERT INTO attendance_daily_rollup (date, group_id, course_id, teacher_id, status, total)
+            SELECT a.date, s.group_id, g.course_id, c.user_id, a.status, ? * count(*)
+            FROM attendance a
+            JOIN student s ON s.id = a.student_id
+            JOIN groups g ON g.id = s.group_id
+            JOIN course c ON c.id = g.course_id
+            WHERE a.student_id = ?
+            GROUP BY a.date, s.group_id, g.course_id, c.user_id, a.status
+            """ + UPSERT_CONFLICT;
+
+    // Oy bo'yicha xom davomatdan hisoblangan son bilan rollupdagi son farqi; faqat nolga teng bo'lmaganlari
+    private static final String MONTH_CORRECTIONS_SQL = """
+            SELECT date, group_id, course_id, teacher_id, status, sum(total) AS delta FROM (
+                SELECT a.date, s.group_id, g.course_id, c.user_id AS teacher_id, a.status, count(*) AS total
+                FROM attendance a
+                JOIN student s ON s.id = a.student_id
+                JOIN groups g ON g.id = s.group_id
+                JOIN course c ON c.id = g.course_id
+                WHERE a.date >= ? AND a.date < ?
+                GROUP BY a.date, s.group_id, g.course_id, c.user_id, a.status
+                UNION ALL
+                SELECT date, group_id, course_id, teacher_id, status, -total
+                FROM attendance_daily_rollup
+                WHERE date >= ? AND date < ?
+            ) t
+            GROUP BY date, group_id, course_id, teacher_id, status
+            HAVING sum(total) <> 0
+            """;
+
+    private static final String APPLY_CORRECTIONS_SQL = """
+            INSERT INTO attendance_daily_rollup (date, group_id, course_id, teacher_id, status, total)
+            SELECT * FROM unnest(CAST(? AS date[]), CAST(? AS bigint[]), CAST(? AS bigint[]), CAST(? AS bigint[]),
+                                 CAST(? AS varchar[]), CAST(? AS bigint[]))
+            """ + UPSERT_CONFLICT;
+
+    private static final String DELETE_EMPTY_SQL =
+            "DELETE FROM attendance_daily_rollup WHERE total <= 0 AND date = ANY(CAST(? AS date[]))";
+
+    private static final String DELETE_EMPTY_RANGE_SQL =
+            "DELETE FROM attendance_daily_rollup WHERE total <= 0 AND date >= ? AND date < ?";
+
+    private static final String DELETE_EMPTY_STUDENT_SQL = """
+            DELETE FROM attendance_daily_rollup
+            WHERE total <= 0 AND group_id = (SELECT group_id FROM student WHERE id = ?)
+            """;
+
+    private static final String DATE_RANGE_SQL = """
+            SELECT min(d) AS first_date, max(d) AS last_date FROM (
+                SELECT min(date) AS d FROM attendance UNION ALL SELECT max(date) FROM attendance
+                UNION ALL SELECT min(date) FROM attendance_daily_rollup UNION ALL SELECT max(date) FROM attendance_daily_rollup
+            ) t
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Deltalarni rollupga qo'shadi. Guruhi yoki kursi topilmagan o'quvchilar hisobga olinmaydi.
+     * Ayirishdan keyin soni 0 ga tushgan qatorlar o'chiriladi.
+     */
+    public void applyDeltas(List<AttendanceDelta> deltas) {
+        for (int from = 0; from < deltas.size(); from += BATCH_SIZE) {
+            List<AttendanceDelta> chunk = deltas.subList(from, Math.min(from + BATCH_SIZE, deltas.size()));
+            Long[] studentIds = chunk.stream().map(AttendanceDelta::studentId).toArray(Long[]::new);
+            Date[] dates = chunk.stream().map(delta -> Date.valueOf(delta.date())).toArray(Date[]::new);
+            String[] statuses = chunk.stream().map(AttendanceDelta::status).toArray(String[]::new);
+            Integer[] signs = chunk.stream().map(AttendanceDelta::delta).toArray(Integer[]::new);
+
+            jdbcTemplate.update(con -> {
+                PreparedStatement ps = con.prepareStatement(APPLY_DELTAS_SQL);
+                ps.setArray(1, con.createArrayOf("bigint", studentIds));
+                ps.setArray(2, con.createArrayOf("date", dates));
+                ps.setArray(3, con.createArrayOf("varchar", statuses));
+                ps.setArray(4, con.createArrayOf("integer", signs));
+                return ps;
+            });
+        }
+        Date[] touched = deltas.stream().filter(delta -> delta.delta() < 0)
+                .map(delta -> Date.valueOf(delta.date())).distinct().toArray(Date[]::new);
+        if (touched.length > 0) {
+            jdbcTemplate.update(con -> {
+                PreparedStatement ps = con.prepareStatement(DELETE_EMPTY_SQL);
+                ps.setArray(1, con.createArrayOf("date", touched));
+                return ps;
+            });
+        }
+    }
+
+    /**
+     * O'quvchining barcha davomatini joriy guruhi bo'yicha rollupga qo'shadi (sign = 1) yoki ayiradi (sign = -1).
+     * Guruh almashtirish va o'quvchini o'chirishdan oldin/keyin chaqiriladi.
+     */
+    public void applyStudent(long studentId, int sign) {
+        jdbcTemplate.update(APPLY_STUDENT_SQL, sign, studentId);
+        if (sign < 0) {
+            jdbcTemplate.update(DELETE_EMPTY_STUDENT_SQL, studentId);
+        }
+    }
+
+    /**
+     * Bitta oy uchun rollupni xom davomatga keltiradigan tuzatishlarni hisoblaydi. Jadvallarni qulflamaydi:
+     * chaqiruvchi REPEATABLE READ (bitta snapshot) tranzaksiyasida chaqirishi kerak, shunda ikkala tomon
+     * bir xil holatdan o'qiladi.
+     */
+    public List<Correction> findMonthCorrections(YearMonth month) {
+        Date from = Date.valueOf(month.atDay(1));
+        Date to = Date.valueOf(month.plusMonths(1).atDay(1));
+        return jdbcTemplate.query(MONTH_CORRECTIONS_SQL, (rs, rowNum) -> new Correction(
+                rs.getDate("date").toLocalDate(),
+                rs.getLong("group_id"),
+                rs.getLong("course_id"),
+                rs.getLong("teacher_id"),
+                rs.getString("status"),
+                rs.getLong("delta")
+        ), from, to, from, to);
+    }
+
+    /**
+     * Tuzatishlarni rollupga qo'shadi va oyning soni 0 ga tushgan qatorlarini o'chiradi.
+     * Tuzatish delta bo'lgani uchun snapshotdan keyin commit bo'lgan yozuvlarning deltalari saqlanib qoladi.
+     */
+    public void applyMonthCorrections(YearMonth month, List<Correction> corrections) {
+        for (int from = 0; from < corrections.size(); from += BATCH_SIZE) {
+            List<Correction> chunk = corrections.subList(from, Math.min(from + BATCH_SIZE, corrections.size()));
+            Date[] dates = chunk.stream().map(correction -> Date.valueOf(correction.date())).toArray(Date[]::new);
+            Long[] groupIds = chunk.stream().map(Correction::groupId).toArray(Long[]::new);
+            Long[] courseIds = chunk.stream().map(Correction::courseId).toArray(Long[]::new);
+            Long[] teacherIds = chunk.stream().map(Correction::teacherId).toArray(Long[]::new);
+            String[] statuses = chunk.stream().map(Correction::status).toArray(String[]::new);
+            Long[] totals = chunk.stream().map(Correction::delta).toArray(Long[]::new);
+
+            jdbcTemplate.update(con -> {
+                PreparedStatement ps = con.prepareStatement(APPLY_CORRECTIONS_SQL);
+                ps.setArray(1, con.createArrayOf("date", dates));
+                ps.setArray(2, con.createArrayOf("bigint", groupIds));
+                ps.setArray(3, con.createArrayOf("bigint", courseIds));
+                ps.setArray(4, con.createArrayOf("bigint", teacherIds));
+                ps.setArray(5, con.createArrayOf("varchar", statuses));
+                ps.setArray(6, con.createArrayOf("bigint", totals));
+                return ps;
+            });
+        }
+        jdbcTemplate.update(DELETE_EMPTY_RANGE_SQL,
+                Date.valueOf(month.atDay(1)), Date.valueOf(month.plusMonths(1).atDay(1)));
+    }
+
+    /**
+     * attendance yoki rollupda yozuvi bo'lishi mumkin bo'lgan oylar: ikkala jadvaldagi eng erta va eng kech sana oralig'i.
+     */
+    public List<YearMonth> findMonths() {
+        return jdbcTemplate.query(DATE_RANGE_SQL, rs -> {
+            List<YearMonth> months = new ArrayList<>();
+            if (!rs.next() || rs.getDate("first_date") == null) return months;
+            YearMonth last = YearMonth.from(rs.getDate("last_date").toLocalDate());
+            for (YearMonth month = YearMonth.from(rs.getDate("first_date").toLocalDate());
+                 !month.isAfter(last); month = month.plusMonths(1)) {
+                months.add(month);
+            }
+            return months;
+        });
+    }
+
+    /**
+     * Rollup kaliti uchun qo'shiladigan son (manfiy bo'lishi mumkin).
+     */
+    public record Correction(LocalDate date, long groupId, long courseId, long teacherId, String status, long delta) {
+    }
+}
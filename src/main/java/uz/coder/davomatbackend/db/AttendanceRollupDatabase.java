@@ -0,0 +1,62 @@
+package uz.coder.davomatbackend.db;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import jakarta.transaction.Transactional;
+import uz.coder.davomatbackend.db.model.AttendanceRollupDbModel;
+import uz.coder.davomatbackend.model.DateCount;
+import uz.coder.davomatbackend.model.StatusCount;
+
+@Repository
+public interface AttendanceRollupDatabase extends JpaRepository<AttendanceRollupDbModel, Long> {
+
+    @Query("""
+    select new uz.coder.davomatbackend.model.StatusCount(r.status, sum(r.total))
+    from AttendanceRollupDbModel r
+    group by r.status
+""")
+    List<StatusCount> countGroupByStatus();
+
+    @Query("""
+    select new uz.coder.davomatbackend.model.StatusCount(r.status, sum(r.total))
+    from AttendanceRollupDbModel r
+    where r.teacherId = :teacherId
+    group by r.status
+""")
+    List<StatusCount> countGroupByStatusForTeacher(@Param("teacherId") long teacherId);
+
+    @Query("""
+    select new uz.coder.davomatbackend.model.DateCount(r.date, sum(r.total))
+    from AttendanceRollupDbModel r
+    where r.date between :from and :to
+    group by r.date
+""")
+    List<DateCount> sumByDateBetween(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    @Modifying
+    @Transactional
+    @Query("update AttendanceRollupDbModel r set r.courseId=:courseId, r.teacherId=:teacherId where r.groupId=:groupId")
+    int reassignGroup(@Param("groupId") long groupId, @Param("courseId") long courseId, @Param("teacherId") long teacherId);
+
+    @Modifying
+    @Transactional
+    @Query("update AttendanceRollupDbModel r set r.teacherId=:teacherId where r.courseId=:courseId")
+    int reassignCourse(@Param("courseId") long courseId, @Param("teacherId") long teacherId);
+
+    @Modifying
+    @Transactional
+    @Query("delete from AttendanceRollupDbModel r where r.groupId=:groupId")
+    int deleteAllByGroupId(@Param("groupId") long groupId);
+
+    @Modifying
+    @Transactional
+    @Query("delete from AttendanceRollupDbModel r where r.courseId=:courseId")
+    int deleteAllByCourseId(@Param("courseId") long courseId);
+}
@@ -0,0 +1,49 @@
+package uz.coder.davomatbackend.db;
+
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.List;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import lombok.RequiredArgsConstructor;
+import uz.coder.davomatbackend.model.TrendBucket;
+import uz.coder.davomatbackend.model.TrendGranularity;
+
+/**
+ * Trend grafigi uchun attendance_daily_rollup dan date_trunc bo'yicha guruhlangan sonlar.
+ * Natija hajmi bo'laklar x holatlar soniga teng, attendance hajmiga bog'liq emas.
+ */
+@Repository
+@RequiredArgsConstructor
+public class AttendanceTrendDatabase {
+
+    private static final String TREND_SQL = """
+            SELECT CAST(date_trunc(?, CAST(r.date AS timestamp)) AS date) AS bucket, r.status, sum(r.total) AS total
+            FROM attendance_daily_rollup r
+            WHERE r.date >= ? AND r.date < ?
+            """;
+
+    private static final String GROUP_BY = " GROUP BY 1, 2 ORDER BY 1";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * [from, toExclusive) oralig'idagi bo'laklar; teacherId null bo'lsa barcha o'qituvchilar.
+     */
+    public List<TrendBucket> findBuckets(TrendGranularity granularity, LocalDate from, LocalDate toExclusive, Long teacherId) {
+        if (teacherId == null) {
+            return jdbcTemplate.query(TREND_SQL + GROUP_BY, (rs, rowNum) -> mapBucket(rs),
+                    granularity.unit(), Date.valueOf(from), Date.valueOf(toExclusive));
+        }
+        return jdbcTemplate.query(TREND_SQL + " AND r.teacher_id = ?" + GROUP_BY, (rs, rowNum) -> mapBucket(rs),
+                granularity.unit(), Date.valueOf(from), Date.valueOf(toExclusive), teacherId);
+    }
+
+    private static TrendBucket mapBucket(ResultSet rs) throws SQLException {
+        return new TrendBucket(rs.getDate("bucket").toLocalDate(), rs.getString("status"), rs.getLong("total"));
+    }
+}
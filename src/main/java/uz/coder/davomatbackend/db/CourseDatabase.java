@@ -37,4 +37,15 @@ public interface CourseDatabase extends JpaRepository<CourseDbModel, Long> {
     where s.userId = :userId
 """)
     List<CourseDbModel> findAllByStudentId(@Param("userId") long userId);
+
+    @Query("select count(c) from CourseDbModel c where c.userId = :userId")
+    long countByUserId(@Param("userId") long userId);
+
+    @Query("""
+    select count(distinct g.courseId)
+    from StudentDbModel s
+    join GroupDbModel g on s.groupId = g.id
+    where s.userId = :userId
+""")
+    long countByStudentId(@Param("userId") long userId);
 }
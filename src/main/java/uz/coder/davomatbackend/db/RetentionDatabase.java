@@ -0,0 +1,107 @@
+package uz.coder.davomatbackend.db;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import lombok.RequiredArgsConstructor;
+import uz.coder.davomatbackend.db.model.AttendanceDbModel;
+
+/**
+ * Retention o'chirishlari: har chaqiruv eng eski yozuvlardan limit tasini bitta set-based DELETE bilan o'chiradi.
+ * Bo'laklar (vaqt, id) tartibida keyset bilan yuradi: keyingi bo'lak oldingisining oxirgi kalitidan boshlanadi,
+ * shuning uchun indeksdagi hali vacuum qilinmagan o'lik qatorlar qayta o'qilmaydi.
+ * So'rovlar PostgreSQL ga mo'ljallangan (DELETE ... RETURNING CTE ichida).
+ */
+@Repository
+@RequiredArgsConstructor
+public class RetentionDatabase {
+
+    private static final String SYSTEM_LOGS_SQL = """
+            WITH batch AS (
+                SELECT id, timestamp FROM system_logs
+                WHERE timestamp < :cutoff %s
+                ORDER BY timestamp, id
+                LIMIT :limit
+            ), deleted AS (
+                DELETE FROM system_logs s USING batch b
+                WHERE s.id = b.id AND s.timestamp = b.timestamp
+                RETURNING s.timestamp, s.id
+            )
+            SELECT count(*) OVER () AS deleted, timestamp, id FROM deleted
+            ORDER BY timestamp DESC, id DESC
+            LIMIT 1
+            """;
+
+    private static final String ATTENDANCE_SQL = """
+            WITH batch AS (
+                SELECT id FROM attendance
+                WHERE date < :cutoff %s
+                ORDER BY date, id
+                LIMIT :limit
+            )
+            DELETE FROM attendance a USING batch b
+            WHERE a.id = b.id
+            RETURNING a.id, a.student_id, a.date, a.status
+            """;
+
+    /**
+     * Keyset kaliti: o'chirilgan oxirgi yozuvning vaqti (attendance uchun kun boshi) va id si.
+     */
+    public record Position(LocalDateTime at, long id) {
+    }
+
+    /**
+     * Bitta bo'lak natijasi; hech narsa o'chirilmasa last null.
+     */
+    public record Chunk(int deleted, Position last) {
+    }
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    /**
+     * cutoff dan eski system_logs yozuvlaridan after dan keyingi limit tasini o'chiradi.
+     */
+    public Chunk deleteSystemLogs(LocalDateTime cutoff, Position after, int limit) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("cutoff", Timestamp.valueOf(cutoff))
+                .addValue("limit", limit);
+        String keyset = "";
+        if (after != null) {
+            keyset = "AND (timestamp, id) > (:afterAt, :afterId)";
+            params.addValue("afterAt", Timestamp.valueOf(after.at())).addValue("afterId", after.id());
+        }
+        List<Chunk> rows = jdbcTemplate.query(SYSTEM_LOGS_SQL.formatted(keyset), params, (rs, rowNum) -> new Chunk(
+                rs.getInt("deleted"),
+                new Position(rs.getTimestamp("timestamp").toLocalDateTime(), rs.getLong("id"))
+        ));
+        return rows.isEmpty() ? new Chunk(0, null) : rows.get(0);
+    }
+
+    /**
+     * cutoff kunidan oldingi davomat yozuvlaridan after dan keyingi limit tasini o'chiradi va o'chirilgan
+     * qatorlarni qaytaradi (rollupdan ayirish uchun). Chaqiruvchi tranzaksiya ichida bo'lishi kerak.
+     */
+    public List<AttendanceDbModel> deleteAttendance(LocalDate cutoff, Position after, int limit) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("cutoff", Date.valueOf(cutoff))
+                .addValue("limit", limit);
+        String keyset = "";
+        if (after != null) {
+            keyset = "AND (date, id) > (:afterDate, :afterId)";
+            params.addValue("afterDate", Date.valueOf(after.at().toLocalDate())).addValue("afterId", after.id());
+        }
+        return jdbcTemplate.query(ATTENDANCE_SQL.formatted(keyset), params, (rs, rowNum) -> new AttendanceDbModel(
+                rs.getLong("id"),
+                rs.getLong("student_id"),
+                rs.getDate("date").toLocalDate(),
+                rs.getString("status")
+        ));
+    }
+}
@@ -1,6 +1,9 @@
 package uz.coder.davomatbackend.db;
 
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -13,6 +16,8 @@ import org.springframework.stereotype.Repository;
 
 import jakarta.transaction.Transactional;
 import uz.coder.davomatbackend.db.model.StudentDbModel;
+import uz.coder.davomatbackend.model.DateCount;
+import uz.coder.davomatbackend.model.Student;
 
 @Repository
 public interface StudentDatabase extends JpaRepository<StudentDbModel, Long> {
@@ -40,7 +45,92 @@ public interface StudentDatabase extends JpaRepository<StudentDbModel, Long> {
 """)
     List<StudentDbModel> findAllStudentsByOwnerUserId(@Param("userId") long userId);
 
+    @Query("""
+    select count(s) from StudentDbModel s
+    join GroupDbModel g on s.groupId = g.id
+    join CourseDbModel c on g.courseId = c.id
+    where c.userId = :userId
+""")
+    long countStudentsByOwnerUserId(@Param("userId") long userId);
+
+    @Query("""
+    select new uz.coder.davomatbackend.model.DateCount(s.createdDate, count(s))
+    from StudentDbModel s
+    where s.createdDate between :from and :to
+    group by s.createdDate
+""")
+    List<DateCount> countByCreatedDateBetween(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
     @Query(value = "select s from StudentDbModel s where s.userId=:userId and s.groupId=:groupId")
     StudentDbModel findStudentsByUserIdAndGroupId(@Param("userId") Long userId,
                                                         @Param("groupId") Long groupId);
+
+    @Query("select s from StudentDbModel s where s.phoneNumber in :phoneNumbers order by s.id")
+    List<StudentDbModel> findAllByPhoneNumberIn(@Param("phoneNumbers") Collection<String> phoneNumbers);
+
+    @Query("select s.id from StudentDbModel s where s.groupId=:groupId")
+    List<Long> findIdsByGroupId(@Param("groupId") long groupId);
+
+    // Student DTO lari fullName bilan bitta so'rovda: har bir student uchun ism/familiya alohida so'ralmaydi
+
+    @Query("""
+    select new uz.coder.davomatbackend.model.Student(
+        s.id,
+        concat(coalesce(u.firstName, ''), ' ', coalesce(u.lastName, '')),
+        s.phoneNumber, s.userId, s.groupId, s.createdDate)
+    from StudentDbModel s
+    left join UserDbModel u on u.id = s.userId
+    where s.id = :id
+""")
+    Optional<Student> findStudentById(@Param("id") long id);
+
+    @Query("""
+    select new uz.coder.davomatbackend.model.Student(
+        s.id,
+        concat(coalesce(u.firstName, ''), ' ', coalesce(u.lastName, '')),
+        s.phoneNumber, s.userId, s.groupId, s.createdDate)
+    from StudentDbModel s
+    left join UserDbModel u on u.id = s.userId
+    where s.groupId = :groupId
+""")
+    List<Student> findAllStudentViewsByGroupId(@Param("groupId") long groupId);
+
+    @Query(value = """
+    select new uz.coder.davomatbackend.model.Student(
+        s.id,
+        concat(coalesce(u.firstName, ''), ' ', coalesce(u.lastName, '')),
+        s.phoneNumber, s.userId, s.groupId, s.createdDate)
+    from StudentDbModel s
+    left join UserDbModel u on u.id = s.userId
+    where s.groupId = :groupId
+""", countQuery = "select count(s) from StudentDbModel s where s.groupId = :groupId")
+    Page<Student> findAllStudentViewsByGroupId(@Param("groupId") long groupId, Pageable pageable);
+
+    @Query("""
+    select new uz.coder.davomatbackend.model.Student(
+        s.id,
+        concat(coalesce(u.firstName, ''), ' ', coalesce(u.lastName, '')),
+        s.phoneNumber, s.userId, s.groupId, s.createdDate)
+    from StudentDbModel s
+    left join UserDbModel u on u.id = s.userId
+    where s.groupId in (
+        select g.id from GroupDbModel g
+        where g.courseId in (
+            select c.id from CourseDbModel c where c.userId = :userId
+        )
+    )
+""")
+    List<Student> findAllStudentViewsByOwnerUserId(@Param("userId") long userId);
+
+    @Query("""
+    select new uz.coder.davomatbackend.model.Student(
+        s.id,
+        concat(coalesce(u.firstName, ''), ' ', coalesce(u.lastName, '')),
+        s.phoneNumber, s.userId, s.groupId, s.createdDate)
+    from StudentDbModel s
+    left join UserDbModel u on u.id = s.userId
+    where s.userId = :userId and s.groupId = :groupId
+""")
+    Optional<Student> findStudentViewByUserIdAndGroupId(@Param("userId") long userId,
+                                                        @Param("groupId") long groupId);
 }
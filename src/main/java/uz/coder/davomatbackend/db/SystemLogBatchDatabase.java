@@ -0,0 +1,51 @@
+package uz.coder.davomatbackend.db;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.List;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import lombok.RequiredArgsConstructor;
+import uz.coder.davomatbackend.db.model.SystemLogDbModel;
+
+/**
+ * system_logs jadvaliga JDBC batch yozuvi (IDENTITY id tufayli Hibernate batch qilmaydi).
+ * Satrlar ustun uzunligiga qisqartiriladi, aks holda bitta uzun qiymat butun batchni yiqitadi.
+ */
+@Repository
+@RequiredArgsConstructor
+public class SystemLogBatchDatabase {
+
+    private static final String INSERT_SQL = """
+            INSERT INTO system_logs (timestamp, level, username, action, message, ip_address, user_agent,
+                                     endpoint, method, status_code, duration, stack_trace)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public void insertAll(List<SystemLogDbModel> logs) {
+        if (logs.isEmpty()) return;
+
+        jdbcTemplate.batchUpdate(INSERT_SQL, logs, logs.size(), (ps, log) -> {
+            ps.setTimestamp(1, Timestamp.valueOf(log.getTimestamp()));
+            ps.setString(2, truncate(log.getLevel(), 20));
+            ps.setString(3, truncate(log.getUsername(), 100));
+            ps.setString(4, truncate(log.getAction() != null ? log.getAction() : "UNKNOWN", 100));
+            ps.setString(5, truncate(log.getMessage(), 500));
+            ps.setString(6, truncate(log.getIpAddress(), 100));
+            ps.setString(7, truncate(log.getUserAgent(), 200));
+            ps.setString(8, truncate(log.getEndpoint(), 100));
+            ps.setString(9, truncate(log.getMethod(), 10));
+            if (log.getStatusCode() != null) ps.setInt(10, log.getStatusCode()); else ps.setNull(10, Types.INTEGER);
+            if (log.getDuration() != null) ps.setLong(11, log.getDuration()); else ps.setNull(11, Types.BIGINT);
+            ps.setString(12, log.getStackTrace());
+        });
+    }
+
+    private static String truncate(String value, int maxLength) {
+        return value == null || value.length() <= maxLength ? value : value.substring(0, maxLength);
+    }
+}
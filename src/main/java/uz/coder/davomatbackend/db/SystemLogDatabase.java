@@ -4,6 +4,7 @@ import java.time.LocalDateTime;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
@@ -11,9 +12,16 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import uz.coder.davomatbackend.db.model.SystemLogDbModel;
+import uz.coder.davomatbackend.model.SystemLogCounts;
 
 @Repository
 public interface SystemLogDatabase extends JpaRepository<SystemLogDbModel, Long> {
+
+    // Qidiriladigan matn; PostgreSQL da pg_trgm GIN indeksi aynan shu ifoda ustida (SystemLogSearchIndexInitializer)
+    String SEARCH_TEXT = "(coalesce(message, '') || ' ' || coalesce(action, '') || ' ' || coalesce(endpoint, '') || ' ' || coalesce(stack_trace, ''))";
+
+    // Sahifa COUNT(*) siz: jami son alohida (taxminiy) olinadi
+    Slice<SystemLogDbModel> findAllBy(Pageable pageable);
     
     // Find by level
     Page<SystemLogDbModel> findByLevelOrderByTimestampDesc(String level, Pageable pageable);
@@ -34,20 +42,26 @@ public interface SystemLogDatabase extends JpaRepository<SystemLogDbModel, Long>
         java.util.List<String> levels, Pageable pageable
     );
     
-    // Search in message
-    Page<SystemLogDbModel> findByMessageContainingIgnoreCaseOrderByTimestampDesc(
-        String keyword, Pageable pageable
-    );
+    // Search in message, action, endpoint and stack trace (pattern: SystemLogQueryDatabase.containsPattern)
+    @Query(value = "SELECT * FROM system_logs WHERE " + SEARCH_TEXT + " ILIKE :pattern ORDER BY timestamp DESC, id DESC",
+           countQuery = "SELECT count(*) FROM system_logs WHERE " + SEARCH_TEXT + " ILIKE :pattern",
+           nativeQuery = true)
+    Page<SystemLogDbModel> searchByText(@Param("pattern") String pattern, Pageable pageable);
     
-    // Delete old logs (cleanup)
+    // Delete by ids in one statement (deleteAllById loads every entity first)
     @Modifying
-    @Query("DELETE FROM SystemLogDbModel s WHERE s.timestamp < :cutoffDate")
-    void deleteOldLogs(@Param("cutoffDate") LocalDateTime cutoffDate);
-    
-    // Count by level
-    long countByLevel(String level);
+    @Query("DELETE FROM SystemLogDbModel s WHERE s.id IN :ids")
+    int deleteByIds(@Param("ids") java.util.Collection<Long> ids);
     
-    // Count errors in last 24 hours
-    @Query("SELECT COUNT(s) FROM SystemLogDbModel s WHERE s.level = 'ERROR' AND s.timestamp > :since")
-    long countRecentErrors(@Param("since") LocalDateTime since);
+    // Barcha sonlar bitta o'qishda (conditional aggregation)
+    @Query("""
+           SELECT new uz.coder.davomatbackend.model.SystemLogCounts(
+               count(*),
+               count(*) FILTER (WHERE s.level = 'INFO'),
+               count(*) FILTER (WHERE s.level = 'WARN'),
+               count(*) FILTER (WHERE s.level = 'ERROR'),
+               count(*) FILTER (WHERE s.level = 'ERROR' AND s.timestamp > :since))
+           FROM SystemLogDbModel s
+           """)
+    SystemLogCounts countByLevels(@Param("since") LocalDateTime since);
 }
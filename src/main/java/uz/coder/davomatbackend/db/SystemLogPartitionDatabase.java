@@ -0,0 +1,163 @@
+package uz.coder.davomatbackend.db;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * system_logs ning PostgreSQL deklarativ partitsiyalari (timestamp bo'yicha oylik RANGE).
+ * Migratsiya, partitsiya yaratish va o'chirish chaqiruvchi tranzaksiyasi ichida bajariladi.
+ */
+@Repository
+@RequiredArgsConstructor
+public class SystemLogPartitionDatabase {
+
+    public static final String LEGACY_PARTITION = "system_logs_legacy";
+    public static final String DEFAULT_PARTITION = "system_logs_default";
+
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("yyyyMM");
+    private static final Pattern UPPER_BOUND = Pattern.compile("TO \\('([^']+)'\\)");
+
+    private static final String PARTITIONS_SQL = """
+            SELECT c.relname, pg_get_expr(c.relpartbound, c.oid) AS bound
+            FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid
+            WHERE i.inhparent = to_regclass('system_logs')
+            ORDER BY c.relname
+            """;
+
+    // Keyset sahifalash (timestamp, id) bo'yicha; filtrli ko'rinishlar uchun filtr ustuni birinchi turadi
+    private static final List<String> INDEXES = List.of(
+            "CREATE INDEX IF NOT EXISTS idx_log_timestamp_id ON system_logs (timestamp, id)",
+            "CREATE INDEX IF NOT EXISTS idx_log_level_timestamp_id ON system_logs (level, timestamp, id)",
+            "CREATE INDEX IF NOT EXISTS idx_log_user_timestamp_id ON system_logs (username, timestamp, id)",
+            "CREATE INDEX IF NOT EXISTS idx_log_action_timestamp_id ON system_logs (action, timestamp, id)"
+    );
+
+    /**
+     * Partitsiya (yoki meros jadval) nomi va yuqori chegarasi; DEFAULT va MAXVALUE uchun upperBound null.
+     */
+    public record Partition(String name, LocalDateTime upperBound) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /** 'r' - oddiy jadval, 'p' - partitsiyalangan; jadval yo'q yoki baza PostgreSQL bo'lmasa null */
+    public String findRelkind() {
+        try {
+            List<String> kinds = jdbcTemplate.queryForList(
+                    "SELECT CAST(relkind AS varchar) FROM pg_class WHERE oid = to_regclass('system_logs')", String.class);
+            return kinds.isEmpty() ? null : kinds.get(0);
+        } catch (DataAccessException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Oddiy system_logs ni partitsiyalangan jadvalga aylantiradi: eski jadval nusxalanmasdan
+     * {@value #LEGACY_PARTITION} nomi bilan [MINVALUE, legacyUpperBound) partitsiyasi sifatida ulanadi.
+     * IDENTITY o'rniga umumiy sequence ishlatiladi (PostgreSQL 17 gacha partitsiyalangan jadvalda IDENTITY yo'q).
+     * Tranzaksiya ichida chaqirilishi kerak.
+     */
+    public void migrateToPartitioned() {
+        jdbcTemplate.execute("LOCK TABLE system_logs IN ACCESS EXCLUSIVE MODE");
+        jdbcTemplate.execute("ALTER TABLE system_logs RENAME TO " + LEGACY_PARTITION);
+        // Ota jadval kaliti (id, timestamp): ATTACH paytida partitsiyada shunday indeks quriladi, eski (id) kaliti xalaqit beradi
+        List<String> primaryKeys = jdbcTemplate.queryForList(
+                "SELECT conname FROM pg_constraint WHERE conrelid = to_regclass(?) AND contype = 'p'", String.class, LEGACY_PARTITION);
+        for (String primaryKey : primaryKeys) {
+            jdbcTemplate.execute("ALTER TABLE " + LEGACY_PARTITION + " DROP CONSTRAINT " + quote(primaryKey));
+        }
+        // Indeks nomlari sxema bo'yicha yagona: ota jadval shu nomlarni oladi
+        List<String> indexes = jdbcTemplate.queryForList(
+                "SELECT indexname FROM pg_indexes WHERE tablename = ?", String.class, LEGACY_PARTITION);
+        for (String index : indexes) {
+            jdbcTemplate.execute("ALTER INDEX " + quote(index) + " RENAME TO " + quote(truncate(index + "_legacy")));
+        }
+
+        Long maxId = jdbcTemplate.queryForObject("SELECT max(id) FROM " + LEGACY_PARTITION, Long.class);
+        Timestamp maxTimestamp = jdbcTemplate.queryForObject("SELECT max(timestamp) FROM " + LEGACY_PARTITION, Timestamp.class);
+        jdbcTemplate.execute("ALTER TABLE " + LEGACY_PARTITION + " ALTER COLUMN id DROP IDENTITY IF EXISTS");
+        jdbcTemplate.execute("ALTER TABLE " + LEGACY_PARTITION + " ALTER COLUMN id DROP DEFAULT");
+        jdbcTemplate.execute("DROP SEQUENCE IF EXISTS system_logs_id_seq");
+        jdbcTemplate.execute("CREATE SEQUENCE system_logs_id_seq START WITH " + (maxId == null ? 1 : maxId + 1));
+
+        jdbcTemplate.execute("CREATE TABLE system_logs (LIKE " + LEGACY_PARTITION + " INCLUDING DEFAULTS) PARTITION BY RANGE (timestamp)");
+        jdbcTemplate.execute("ALTER TABLE system_logs ALTER COLUMN id SET DEFAULT nextval('system_logs_id_seq')");
+        jdbcTemplate.execute("ALTER SEQUENCE system_logs_id_seq OWNED BY system_logs.id");
+        jdbcTemplate.execute("ALTER TABLE system_logs ADD CONSTRAINT system_logs_pkey PRIMARY KEY (id, timestamp)");
+        createIndexes();
+        jdbcTemplate.execute("CREATE TABLE " + DEFAULT_PARTITION + " PARTITION OF system_logs DEFAULT");
+
+        if (maxTimestamp == null) {
+            jdbcTemplate.execute("DROP TABLE " + LEGACY_PARTITION);
+            return;
+        }
+        // Eski yozuvlar oxirgi yozuv oyining oxirigacha legacy da qoladi, oylik partitsiyalar undan keyin boshlanadi
+        YearMonth legacyEnd = YearMonth.from(maxTimestamp.toLocalDateTime()).plusMonths(1);
+        jdbcTemplate.execute("ALTER TABLE system_logs ATTACH PARTITION " + LEGACY_PARTITION
+                + " FOR VALUES FROM (MINVALUE) TO ('" + legacyEnd.atDay(1) + "')");
+    }
+
+    /**
+     * system_logs indekslari (oddiy jadvalda ham, partitsiyalanganda ham - ota jadvaldagi indeks barcha
+     * partitsiyalarga tarqaladi).
+     */
+    public void createIndexes() {
+        INDEXES.forEach(jdbcTemplate::execute);
+    }
+
+    public List<Partition> findPartitions() {
+        return jdbcTemplate.query(PARTITIONS_SQL, (rs, rowNum) -> {
+            Matcher matcher = UPPER_BOUND.matcher(rs.getString("bound"));
+            LocalDateTime upper = matcher.find() ? Timestamp.valueOf(matcher.group(1)).toLocalDateTime() : null;
+            return new Partition(rs.getString("relname"), upper);
+        });
+    }
+
+    /**
+     * Oy uchun partitsiya; oraliq mavjud partitsiyalar bilan kesishsa (masalan legacy ichida) PostgreSQL xato beradi.
+     * DEFAULT partitsiyada shu oyga tegishli qatorlar bo'lsa ular yangi partitsiyaga ko'chiriladi.
+     */
+    public void createMonth(YearMonth month) {
+        String name = "system_logs_p" + month.format(PARTITION_SUFFIX);
+        String from = month.atDay(1).toString();
+        String to = month.plusMonths(1).atDay(1).toString();
+        jdbcTemplate.execute("CREATE TABLE " + name + " (LIKE system_logs INCLUDING DEFAULTS)");
+        jdbcTemplate.update("WITH moved AS (DELETE FROM " + DEFAULT_PARTITION
+                + " WHERE timestamp >= CAST(? AS timestamp) AND timestamp < CAST(? AS timestamp) RETURNING *)"
+                + " INSERT INTO " + name + " SELECT * FROM moved", from, to);
+        jdbcTemplate.execute("ALTER TABLE system_logs ATTACH PARTITION " + name
+                + " FOR VALUES FROM ('" + from + "') TO ('" + to + "')");
+        // DEFAULT dan ko'chirilgan qatorlar bo'lsa reltuples darhol to'g'ri bo'lsin (TableStatsDatabase bahosi uchun)
+        jdbcTemplate.execute("ANALYZE " + name);
+    }
+
+    /**
+     * Partitsiyani uzib o'chiradi. DETACH ota jadvalni qisqa muddat bloklaydi: lock_timeout oshsa
+     * xato bilan qaytadi va keyingi ishga tushishda qayta uriniladi.
+     */
+    public void dropPartition(String name) {
+        jdbcTemplate.execute("SET LOCAL lock_timeout = '5s'");
+        jdbcTemplate.execute("ALTER TABLE system_logs DETACH PARTITION " + quote(name));
+        jdbcTemplate.execute("DROP TABLE " + quote(name));
+    }
+
+    private static String quote(String identifier) {
+        return "\"" + identifier.replace("\"", "\"\"") + "\"";
+    }
+
+    // PostgreSQL identifikatorlari 63 baytgacha
+    private static String truncate(String identifier) {
+        return identifier.length() <= 63 ? identifier : identifier.substring(0, 63);
+    }
+}
@@ -0,0 +1,113 @@
+package uz.coder.davomatbackend.db;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import lombok.RequiredArgsConstructor;
+import uz.coder.davomatbackend.db.model.SystemLogDbModel;
+import uz.coder.davomatbackend.model.SystemLogCursor;
+import uz.coder.davomatbackend.model.SystemLogFilter;
+
+/**
+ * system_logs ni keyset usulida o'qiydi: "(timestamp, id) < (:timestamp, :id)" sharti
+ * (timestamp, id) indeksida to'g'ridan-to'g'ri kerakli joydan boshlanadi, shuning uchun sahifa chuqurligi
+ * ahamiyatsiz. Faqat berilgan filtrlar WHERE ga qo'shiladi - "(:x IS NULL OR ...)" indeksni ishlatishga xalaqit beradi.
+ * Matn sharti PostgreSQL da trigram GIN indeksidan, H2 da (testlar) oddiy skanerlash bilan bajariladi.
+ */
+@Repository
+@RequiredArgsConstructor
+public class SystemLogQueryDatabase {
+
+    private static final String SELECT_SQL = """
+            SELECT id, timestamp, level, username, action, message, ip_address, user_agent,
+                   endpoint, method, status_code, duration, stack_trace
+            FROM system_logs
+            """;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    /**
+     * Eng yangisidan boshlab limit ta yozuv. cursor berilsa undan eskiroq (yoki backward bo'lsa yangiroq) yozuvlar;
+     * natija har doim timestamp, id bo'yicha kamayish tartibida.
+     */
+    public List<SystemLogDbModel> findPage(SystemLogFilter filter, SystemLogCursor cursor, int limit) {
+        MapSqlParameterSource params = new MapSqlParameterSource("limit", limit);
+        List<String> conditions = new ArrayList<>();
+        if (filter.level() != null) {
+            conditions.add("level = :level");
+            params.addValue("level", filter.level());
+        }
+        if (filter.username() != null) {
+            conditions.add("username = :username");
+            params.addValue("username", filter.username());
+        }
+        if (filter.action() != null) {
+            conditions.add("action = :action");
+            params.addValue("action", filter.action());
+        }
+        if (filter.text() != null) {
+            conditions.add(SystemLogDatabase.SEARCH_TEXT + " ILIKE :pattern");
+            params.addValue("pattern", containsPattern(filter.text()));
+        }
+        if (filter.from() != null) {
+            conditions.add("timestamp >= :from");
+            params.addValue("from", Timestamp.valueOf(filter.from()));
+        }
+        if (filter.to() != null) {
+            conditions.add("timestamp <= :to");
+            params.addValue("to", Timestamp.valueOf(filter.to()));
+        }
+        boolean backward = cursor != null && cursor.backward();
+        if (cursor != null) {
+            // Ortiqcha ko'ringan oddiy shart partitsiyalarni kesish (pruning) uchun: qator taqqoslashida u ishlamaydi
+            conditions.add(backward ? "timestamp >= :timestamp" : "timestamp <= :timestamp");
+            conditions.add(backward ? "(timestamp, id) > (:timestamp, :id)" : "(timestamp, id) < (:timestamp, :id)");
+            params.addValue("timestamp", Timestamp.valueOf(cursor.timestamp()));
+            params.addValue("id", cursor.id());
+        }
+
+        StringBuilder sql = new StringBuilder(SELECT_SQL);
+        if (!conditions.isEmpty()) {
+            sql.append("WHERE ").append(String.join(" AND ", conditions)).append('\n');
+        }
+        sql.append(backward ? "ORDER BY timestamp ASC, id ASC\n" : "ORDER BY timestamp DESC, id DESC\n");
+        sql.append("LIMIT :limit");
+
+        List<SystemLogDbModel> rows = jdbcTemplate.query(sql.toString(), params, (rs, rowNum) -> map(rs));
+        if (backward) {
+            Collections.reverse(rows);
+        }
+        return rows;
+    }
+
+    /** ILIKE uchun "%text%" naqshi; foydalanuvchi matnidagi %, _ va \ oddiy belgi sifatida qidiriladi */
+    public static String containsPattern(String text) {
+        return "%" + text.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%";
+    }
+
+    private static SystemLogDbModel map(ResultSet rs) throws SQLException {
+        SystemLogDbModel log = new SystemLogDbModel();
+        log.setId(rs.getLong("id"));
+        log.setTimestamp(rs.getTimestamp("timestamp").toLocalDateTime());
+        log.setLevel(rs.getString("level"));
+        log.setUsername(rs.getString("username"));
+        log.setAction(rs.getString("action"));
+        log.setMessage(rs.getString("message"));
+        log.setIpAddress(rs.getString("ip_address"));
+        log.setUserAgent(rs.getString("user_agent"));
+        log.setEndpoint(rs.getString("endpoint"));
+        log.setMethod(rs.getString("method"));
+        log.setStatusCode(rs.getObject("status_code", Integer.class));
+        log.setDuration(rs.getObject("duration", Long.class));
+        log.setStackTrace(rs.getString("stack_trace"));
+        return log;
+    }
+}
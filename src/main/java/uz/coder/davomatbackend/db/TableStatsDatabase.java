@@ -0,0 +1,59 @@
+package uz.coder.davomatbackend.db;
+
+import java.util.OptionalLong;
+
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * PostgreSQL planner statistikasidan jadval hajmini baholaydi (COUNT(*) siz).
+ * reltuples oxirgi VACUUM/ANALYZE dagi zichlik sifatida olinib, joriy sahifalar soniga ko'paytiriladi -
+ * planner ham shunday qiladi. Meros/partition jadvallari bolalari bilan birga yig'iladi; hech qachon ANALYZE
+ * qilinmagan, lekin bo'sh (0 bayt) bolalar - DEFAULT va oldindan yaratilgan oy partitsiyalari - 0 qator hisoblanadi.
+ */
+@Slf4j
+@Repository
+@RequiredArgsConstructor
+public class TableStatsDatabase {
+
+    private static final String ESTIMATE_SQL = """
+            WITH RECURSIVE tree AS (
+                SELECT to_regclass(CAST(? AS text)) AS relid
+                UNION ALL
+                SELECT i.inhrelid FROM pg_inherits i JOIN tree t ON i.inhparent = t.relid
+            )
+            SELECT count(c.oid) AS relations,
+                   coalesce(bool_or(c.relkind <> 'p' AND c.reltuples < 0
+                                    AND pg_relation_size(c.oid) > 0), false) AS unanalyzed,
+                   CAST(coalesce(sum(CASE
+                       WHEN c.relkind = 'p' THEN 0
+                       WHEN c.relpages > 0 THEN c.reltuples / c.relpages
+                            * (pg_relation_size(c.oid) / current_setting('block_size')::int)
+                       ELSE greatest(c.reltuples, 0) END), 0) AS bigint) AS estimate
+            FROM tree t JOIN pg_class c ON c.oid = t.relid
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Jadvaldagi qatorlar sonining bahosi. Jadval topilmasa, hali ANALYZE qilinmagan bo'lsa
+     * yoki baza PostgreSQL bo'lmasa - bo'sh.
+     */
+    public OptionalLong estimateRows(String table) {
+        try {
+            return jdbcTemplate.query(ESTIMATE_SQL, rs -> {
+                if (!rs.next() || rs.getInt("relations") == 0 || rs.getBoolean("unanalyzed")) {
+                    return OptionalLong.empty();
+                }
+                return OptionalLong.of(rs.getLong("estimate"));
+            }, table);
+        } catch (DataAccessException e) {
+            log.debug("Row estimate unavailable for {}: {}", table, e.getMessage());
+            return OptionalLong.empty();
+        }
+    }
+}
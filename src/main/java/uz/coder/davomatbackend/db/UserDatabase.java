@@ -8,9 +8,11 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import uz.coder.davomatbackend.db.model.UserDbModel;
 import uz.coder.davomatbackend.model.Balance;
+import uz.coder.davomatbackend.model.RoleCount;
 
 import java.time.Instant;
 import java.time.LocalDate;
+import java.util.List;
 
 @Repository
 public interface UserDatabase extends JpaRepository<UserDbModel, Long> {
@@ -40,4 +42,7 @@ public interface UserDatabase extends JpaRepository<UserDbModel, Long> {
 
     @Query("select u from UserDbModel u where u.email=:email")
     UserDbModel findByEmail(String email);
+
+    @Query("select new uz.coder.davomatbackend.model.RoleCount(u.role, count(u)) from UserDbModel u group by u.role")
+    List<RoleCount> countGroupByRole();
 }
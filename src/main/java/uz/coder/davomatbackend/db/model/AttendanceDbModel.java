@@ -6,7 +6,12 @@ import lombok.*;
 import java.time.LocalDate;
 
 @Entity
-@Table(name = "attendance")
+@Table(name = "attendance", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_attendance_student_date", columnNames = {"student_id", "date"})
+}, indexes = {
+        // Retention o'chirishi (date, id) tartibida keyset bilan yuradi
+        @Index(name = "idx_attendance_date_id", columnList = "date, id")
+})
 @Getter
 @Setter
 @NoArgsConstructor
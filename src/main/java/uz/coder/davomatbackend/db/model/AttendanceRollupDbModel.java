@@ -0,0 +1,48 @@
+package uz.coder.davomatbackend.db.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDate;
+
+/**
+ * Kunlik davomat yig'indisi: (sana, guruh, kurs, o'qituvchi, holat) bo'yicha yozuvlar soni.
+ * attendance bilan bir tranzaksiyada yangilanadi, statistika shu jadvaldan o'qiladi.
+ */
+@Entity
+@Table(name = "attendance_daily_rollup", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_attendance_rollup_key",
+                columnNames = {"date", "group_id", "course_id", "teacher_id", "status"})
+}, indexes = {
+        @Index(name = "idx_attendance_rollup_teacher", columnList = "teacher_id"),
+        @Index(name = "idx_attendance_rollup_course", columnList = "course_id"),
+        @Index(name = "idx_attendance_rollup_group", columnList = "group_id")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString
+public class AttendanceRollupDbModel {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private LocalDate date;
+
+    @Column(nullable = false)
+    private long groupId;
+
+    @Column(nullable = false)
+    private long courseId;
+
+    @Column(nullable = false)
+    private long teacherId;
+
+    @Column(nullable = false)
+    private String status;
+
+    @Column(nullable = false)
+    private long total;
+}
@@ -10,7 +10,9 @@ import java.time.LocalDate;
 @Getter
 @Setter
 @ToString
-@Table(name = "student")
+@Table(name = "student", indexes = {
+        @Index(name = "idx_student_phone_number", columnList = "phone_number")
+})
 @Entity
 public class StudentDbModel {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -7,7 +7,6 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
-import jakarta.persistence.Index;
 import jakarta.persistence.Table;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
@@ -15,11 +14,8 @@ import lombok.NoArgsConstructor;
 import lombok.Setter;
 
 @Entity
-@Table(name = "system_logs", indexes = {
-    @Index(name = "idx_log_level", columnList = "level"),
-    @Index(name = "idx_log_timestamp", columnList = "timestamp"),
-    @Index(name = "idx_log_user", columnList = "username")
-})
+// Indekslar SystemLogPartitionDatabase.createIndexes da: Hibernate partitsiyalangan jadval indekslarini ko'rmaydi
+@Table(name = "system_logs")
 @Getter
 @Setter
 @NoArgsConstructor
@@ -1,5 +1,6 @@
 package uz.coder.davomatbackend.jwt;
 
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -50,7 +51,9 @@ public class JwtAuthFilter extends OncePerRequestFilter {
         }
 
         String token = authHeader.substring(7);
-        String username = jwtService.extractUsername(token);
+        // Token bir marta tekshiriladi, claims pastda qayta ishlatiladi
+        Claims claims = jwtService.parseClaims(token);
+        String username = claims.getSubject();
 
         if (username != null
                 && SecurityContextHolder.getContext().getAuthentication() == null) {
@@ -59,7 +62,7 @@ public class JwtAuthFilter extends OncePerRequestFilter {
 
             User user = (User) userDetails;
 
-            if (jwtService.isTokenValid(token, userDetails, user.getLastPasswordResetAt())) {
+            if (jwtService.isTokenValid(claims, userDetails, user.getLastPasswordResetAt())) {
                 UsernamePasswordAuthenticationToken authToken =
                         new UsernamePasswordAuthenticationToken(
                                 userDetails,
@@ -4,12 +4,18 @@ import java.nio.charset.StandardCharsets;
 import java.security.Key;
 import java.time.Instant;
 import java.util.Date;
+import java.util.concurrent.TimeUnit;
 
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
@@ -17,11 +23,29 @@ import io.jsonwebtoken.security.Keys;
 @Component
 public class JwtService {
 
-    @Value("${jwt.secret:my-super-secret-key-my-super-secret-key-my-super-secret-key-change-in-production}")
-    private String secretKey;
+    private final long expirationTime; // 30 days in milliseconds
+
+    // Kalit va parser bir marta yaratiladi, ikkalasi ham thread-safe
+    private final Key signingKey;
+    private final JwtParser parser;
+
+    // Tekshirilgan token -> claims: takroriy tokenlar muddati tugaguncha imzo tekshiruvisiz o'tadi
+    private final Cache<String, Claims> verifiedTokens;
 
-    @Value("${jwt.expiration:2592000000}")
-    private long expirationTime; // 30 days in milliseconds
+    public JwtService(
+            @Value("${jwt.secret:my-super-secret-key-my-super-secret-key-my-super-secret-key-change-in-production}") String secretKey,
+            @Value("${jwt.expiration:2592000000}") long expirationTime,
+            @Value("${jwt.claims-cache.max-size:10000}") long claimsCacheSize) {
+        this.expirationTime = expirationTime;
+        this.signingKey = Keys.hmacShaKeyFor(secretKey.getBytes(StandardCharsets.UTF_8));
+        this.parser = Jwts.parserBuilder()
+                .setSigningKey(signingKey)
+                .build();
+        this.verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(claimsCacheSize)
+                .expireAfter(new UntilTokenExpiry())
+                .build();
+    }
 
     // 🔑 TOKEN YARATISH
     public String generateToken(UserDetails userDetails) {
@@ -29,49 +53,64 @@ public class JwtService {
                 .setSubject(userDetails.getUsername())
                 .setIssuedAt(new Date())
                 .setExpiration(new Date(System.currentTimeMillis() + expirationTime))
-                .signWith(getSigningKey(), SignatureAlgorithm.HS256)
+                .signWith(signingKey, SignatureAlgorithm.HS256)
                 .compact();
     }
 
     // 👤 USERNAME O'QISH
     public String extractUsername(String token) {
-        return extractAllClaims(token).getSubject();
+        return parseClaims(token).getSubject();
+    }
+
+    /**
+     * Tokenni tekshirib claims qaytaradi. Imzo bir token uchun bir marta tekshiriladi,
+     * keyingi chaqiriqlar keshdan oladi. Noto'g'ri yoki muddati o'tgan token uchun JwtException.
+     */
+    public Claims parseClaims(String token) {
+        Claims cached = verifiedTokens.getIfPresent(token);
+        if (cached != null && !isExpired(cached)) {
+            return cached;
+        }
+        Claims claims = parser.parseClaimsJws(token).getBody();
+        verifiedTokens.put(token, claims);
+        return claims;
     }
 
     // ✅ TOKEN TEKSHIRISH
     public boolean isTokenValid(String token, UserDetails userDetails, Instant lastPasswordResetAt) {
-        String username = extractUsername(token);
-
-        Date issuedAt = extractAllClaims(token).getIssuedAt();
+        return isTokenValid(parseClaims(token), userDetails, lastPasswordResetAt);
+    }
 
+    public boolean isTokenValid(Claims claims, UserDetails userDetails, Instant lastPasswordResetAt) {
         boolean tokenIssuedBeforePasswordChange =
-                issuedAt.toInstant().isBefore(lastPasswordResetAt);
+                claims.getIssuedAt().toInstant().isBefore(lastPasswordResetAt);
 
-        return username.equals(userDetails.getUsername())
-                && !isTokenExpired(token)
+        return claims.getSubject().equals(userDetails.getUsername())
+                && !isExpired(claims)
                 && !tokenIssuedBeforePasswordChange;
     }
 
     // ⏰ MUDDAT TEKSHIRISH
-    private boolean isTokenExpired(String token) {
-        return extractAllClaims(token)
-                .getExpiration()
-                .before(new Date());
+    private boolean isExpired(Claims claims) {
+        return claims.getExpiration().before(new Date());
     }
 
-    // 📦 CLAIMS
-    private Claims extractAllClaims(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
-    }
+    private static final class UntilTokenExpiry implements Expiry<String, Claims> {
+
+        @Override
+        public long expireAfterCreate(String token, Claims claims, long currentTime) {
+            long millisLeft = claims.getExpiration().getTime() - System.currentTimeMillis();
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(millisLeft, 0));
+        }
+
+        @Override
+        public long expireAfterUpdate(String token, Claims claims, long currentTime, long currentDuration) {
+            return expireAfterCreate(token, claims, currentTime);
+        }
 
-    // 🔐 SIGNING KEY
-    private Key getSigningKey() {
-        return Keys.hmacShaKeyFor(
-                secretKey.getBytes(StandardCharsets.UTF_8)
-        );
+        @Override
+        public long expireAfterRead(String token, Claims claims, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
     }
 }
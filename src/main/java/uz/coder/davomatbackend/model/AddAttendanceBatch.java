@@ -0,0 +1,17 @@
+package uz.coder.davomatbackend.model;
+
+import lombok.*;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@ToString
+public class AddAttendanceBatch {
+    private long groupId;
+    private LocalDate date;
+    private List<AttendanceMark> items;
+}
@@ -0,0 +1,29 @@
+package uz.coder.davomatbackend.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import lombok.*;
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@ToString
+public class AttendanceBatchResult {
+    public static final String CREATED = "CREATED";
+    public static final String UPDATED = "UPDATED";
+    public static final String REJECTED = "REJECTED";
+
+    private long studentId;
+    private Long attendanceId;
+    private String status;
+    private String result;
+    private String message;
+    /** Yangilangan belgining oldingi holati (rollup uchun), javobga chiqmaydi */
+    @JsonIgnore
+    private String previousStatus;
+
+    public static AttendanceBatchResult rejected(AttendanceMark mark, String message) {
+        return new AttendanceBatchResult(mark.getStudentId(), null, mark.getStatus(), REJECTED, message, null);
+    }
+}
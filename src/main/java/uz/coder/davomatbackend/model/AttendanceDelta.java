@@ -0,0 +1,17 @@
+package uz.coder.davomatbackend.model;
+
+import java.time.LocalDate;
+
+/**
+ * Bitta davomat yozuvining rollupga ta'siri: qo'shilganda +1, o'chirilganda yoki holati o'zgarganda eski holatga -1.
+ */
+public record AttendanceDelta(Long studentId, LocalDate date, String status, int delta) {
+
+    public static AttendanceDelta added(Long studentId, LocalDate date, String status) {
+        return new AttendanceDelta(studentId, date, status, 1);
+    }
+
+    public static AttendanceDelta removed(Long studentId, LocalDate date, String status) {
+        return new AttendanceDelta(studentId, date, status, -1);
+    }
+}
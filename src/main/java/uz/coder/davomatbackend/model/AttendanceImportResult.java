@@ -0,0 +1,14 @@
+package uz.coder.davomatbackend.model;
+
+import lombok.*;
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@ToString
+public class AttendanceImportResult {
+    private long rowsParsed;
+    private long inserted;
+    private long rejected;
+}
@@ -0,0 +1,6 @@
+package uz.coder.davomatbackend.model;
+
+import java.time.LocalDate;
+
+public record AttendanceKey(Long studentId, LocalDate date) {
+}
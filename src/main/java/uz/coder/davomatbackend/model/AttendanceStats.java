@@ -0,0 +1,46 @@
+package uz.coder.davomatbackend.model;
+
+import java.util.List;
+
+import lombok.*;
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@ToString
+public class AttendanceStats {
+    private long present;
+    private long absent;
+    private long late;
+    private long other;
+    private long total;
+    private double presentRate;
+    private double absentRate;
+    private double lateRate;
+    /** Kelganlar ulushi (kechikkanlar ham kelgan hisoblanadi), foizda */
+    private double attendanceRate;
+
+    public static AttendanceStats of(List<StatusCount> counts) {
+        AttendanceStats stats = new AttendanceStats();
+        for (StatusCount count : counts) {
+            switch (AttendanceStatus.of(count.getStatus())) {
+                case PRESENT -> stats.present += count.getCount();
+                case ABSENT -> stats.absent += count.getCount();
+                case LATE -> stats.late += count.getCount();
+                default -> stats.other += count.getCount();
+            }
+            stats.total += count.getCount();
+        }
+        stats.presentRate = percent(stats.present, stats.total);
+        stats.absentRate = percent(stats.absent, stats.total);
+        stats.lateRate = percent(stats.late, stats.total);
+        stats.attendanceRate = percent(stats.present + stats.late, stats.total);
+        return stats;
+    }
+
+    private static double percent(long part, long total) {
+        if (total == 0) return 0.0;
+        return Math.round(part * 1000.0 / total) / 10.0;
+    }
+}
@@ -0,0 +1,30 @@
+package uz.coder.davomatbackend.model;
+
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * attendance.status erkin matn sifatida saqlanadi ("+", "-", "Bor", "Yo'q", ...).
+ * Statistika uchun qiymatlar shu guruhlarga ajratiladi.
+ */
+public enum AttendanceStatus {
+    PRESENT(Set.of("+", "bor", "keldi", "present")),
+    ABSENT(Set.of("-", "yo'q", "yo‘q", "yoq", "kelmadi", "absent")),
+    LATE(Set.of("late", "kechikdi", "kech")),
+    OTHER(Set.of());
+
+    private final Set<String> aliases;
+
+    AttendanceStatus(Set<String> aliases) {
+        this.aliases = aliases;
+    }
+
+    public static AttendanceStatus of(String status) {
+        if (status == null) return OTHER;
+        String normalized = status.trim().toLowerCase(Locale.ROOT);
+        for (AttendanceStatus value : values()) {
+            if (value.aliases.contains(normalized)) return value;
+        }
+        return OTHER;
+    }
+}
@@ -0,0 +1,26 @@
+package uz.coder.davomatbackend.model;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import lombok.*;
+
+/**
+ * Trend grafigi: har bir bo'lak boshi (labels) uchun holatlar bo'yicha sonlar. Bo'sh bo'laklar 0 bilan to'ldiriladi.
+ */
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@ToString
+public class AttendanceTrend {
+    private String granularity;
+    private LocalDate from;
+    private LocalDate to;
+    private List<String> labels = new ArrayList<>();
+    private List<Long> present = new ArrayList<>();
+    private List<Long> absent = new ArrayList<>();
+    private List<Long> late = new ArrayList<>();
+    private List<Long> other = new ArrayList<>();
+}
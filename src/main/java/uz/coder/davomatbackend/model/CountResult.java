@@ -0,0 +1,18 @@
+package uz.coder.davomatbackend.model;
+
+import lombok.*;
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@ToString
+public class CountResult {
+    private long count;
+    /** true - planner bahosi, false - aniq COUNT(*) */
+    private boolean approximate;
+
+    public static CountResult exact(long count) {
+        return new CountResult(count, false);
+    }
+}
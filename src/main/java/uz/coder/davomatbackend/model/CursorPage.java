@@ -0,0 +1,19 @@
+package uz.coder.davomatbackend.model;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Keyset sahifasi: jami son hisoblanmaydi. nextCursor - eskiroq yozuvlar, prevCursor - yangiroq yozuvlar uchun;
+ * u tomonda yozuv bo'lmasa null.
+ */
+@Getter
+@AllArgsConstructor
+public class CursorPage<T> {
+    private List<T> content;
+    private int size;
+    private String nextCursor;
+    private String prevCursor;
+}
@@ -0,0 +1,15 @@
+package uz.coder.davomatbackend.model;
+
+import java.time.LocalDate;
+
+import lombok.*;
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@ToString
+public class DateCount {
+    private LocalDate date;
+    private long count;
+}
@@ -0,0 +1,8 @@
+package uz.coder.davomatbackend.model;
+
+/**
+ * Bitta controller metodining kechikishi (millisekund). Percentillar va max sirpanuvchi oynadan,
+ * count ilova ishga tushganidan beri.
+ */
+public record EndpointLatency(String endpoint, long count, double p50, double p95, double p99, double max) {
+}
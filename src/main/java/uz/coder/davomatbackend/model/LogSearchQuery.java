@@ -0,0 +1,10 @@
+package uz.coder.davomatbackend.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * Log arxivlari bo'yicha qidiruv: level va text ixtiyoriy (text katta-kichik harfga qaramaydi),
+ * from/to - yozuv vaqti oralig'i (ikkala chegara ham kiradi).
+ */
+public record LogSearchQuery(String level, String text, LocalDateTime from, LocalDateTime to, int limit) {
+}
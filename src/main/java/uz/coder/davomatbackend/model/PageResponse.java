@@ -16,8 +16,14 @@ public class PageResponse<T> {
     private int totalPages;
     private boolean last;
     private boolean first;
+    /** true bo'lsa totalElements/totalPages planner bahosidan olingan (aniq emas) */
+    private boolean approximate;
 
     public static <T> PageResponse<T> of(Page<T> page) {
+        return of(page, false);
+    }
+
+    public static <T> PageResponse<T> of(Page<T> page, boolean approximate) {
         return new PageResponse<>(
                 page.getContent(),
                 page.getNumber(),
@@ -25,7 +31,8 @@ public class PageResponse<T> {
                 page.getTotalElements(),
                 page.getTotalPages(),
                 page.isLast(),
-                page.isFirst()
+                page.isFirst(),
+                approximate
         );
     }
 }
@@ -0,0 +1,23 @@
+package uz.coder.davomatbackend.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * Bitta retention siyosatining holati. last* maydonlari oxirgi (yoki hozir ketayotgan) ishga tegishli;
+ * complete = false bo'lsa ish vaqt chegarasida to'xtagan va qolgani keyingi ishga qoldirilgan.
+ */
+public record RetentionStatus(
+        String policy,
+        int retentionDays,
+        boolean running,
+        LocalDateTime lastStartedAt,
+        LocalDateTime lastFinishedAt,
+        LocalDateTime lastCutoff,
+        long lastDeleted,
+        long lastChunks,
+        int lastPartitionsDropped,
+        boolean complete,
+        String lastError,
+        long totalDeleted
+) {
+}
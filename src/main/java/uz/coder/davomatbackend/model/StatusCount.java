@@ -0,0 +1,13 @@
+package uz.coder.davomatbackend.model;
+
+import lombok.*;
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@ToString
+public class StatusCount {
+    private String status;
+    private long count;
+}
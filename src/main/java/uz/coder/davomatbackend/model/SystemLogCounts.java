@@ -0,0 +1,12 @@
+package uz.coder.davomatbackend.model;
+
+/**
+ * system_logs yozuvlari soni darajalar bo'yicha; recentErrors - oxirgi 24 soatdagi ERROR lar.
+ */
+public record SystemLogCounts(long total, long info, long warn, long error, long recentErrors) {
+
+    public SystemLogCounts plus(long total, long info, long warn, long error) {
+        return new SystemLogCounts(this.total + total, this.info + info, this.warn + warn,
+                this.error + error, this.recentErrors + error);
+    }
+}
@@ -0,0 +1,31 @@
+package uz.coder.davomatbackend.model;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * (timestamp, id) kaliti va yo'nalishi: backward = true bo'lsa kalitdan yangiroq yozuvlar so'raladi.
+ * Mijozga base64url satr sifatida beriladi.
+ */
+public record SystemLogCursor(boolean backward, LocalDateTime timestamp, long id) {
+
+    public String encode() {
+        String raw = (backward ? "p" : "n") + "|" + timestamp + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static SystemLogCursor decode(String cursor) {
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|");
+            if (parts.length != 3 || !("n".equals(parts[0]) || "p".equals(parts[0]))) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            return new SystemLogCursor("p".equals(parts[0]), LocalDateTime.parse(parts[1]), Long.parseLong(parts[2]));
+        } catch (DateTimeParseException | IllegalArgumentException e) {
+            // Base64 va son xatolari ham IllegalArgumentException: mijozga bir xil xabar
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package uz.coder.davomatbackend.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * system_logs bo'yicha ixtiyoriy filtrlar: null qiymatli maydonlar so'rovga qo'shilmaydi.
+ * text - message, action, endpoint va stack trace ichidan (katta-kichik harfga qaramay) qidiriladi,
+ * from/to - timestamp oralig'i (ikkala chegara ham kiradi).
+ */
+public record SystemLogFilter(String level, String username, String action, String text,
+                              LocalDateTime from, LocalDateTime to) {
+}
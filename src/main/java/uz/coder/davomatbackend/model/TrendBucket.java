@@ -0,0 +1,6 @@
+package uz.coder.davomatbackend.model;
+
+import java.time.LocalDate;
+
+public record TrendBucket(LocalDate bucket, String status, long count) {
+}
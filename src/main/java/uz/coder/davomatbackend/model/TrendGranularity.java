@@ -0,0 +1,60 @@
+package uz.coder.davomatbackend.model;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+import java.util.Locale;
+
+/**
+ * Davomat trend grafigi bo'laklari. Hafta dushanbadan boshlanadi (PostgreSQL date_trunc('week') bilan bir xil).
+ */
+public enum TrendGranularity {
+    DAY("day"),
+    WEEK("week"),
+    MONTH("month");
+
+    private final String unit;
+
+    TrendGranularity(String unit) {
+        this.unit = unit;
+    }
+
+    /** date_trunc uchun birlik nomi */
+    public String unit() {
+        return unit;
+    }
+
+    public LocalDate truncate(LocalDate date) {
+        return switch (this) {
+            case DAY -> date;
+            case WEEK -> date.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+            case MONTH -> date.withDayOfMonth(1);
+        };
+    }
+
+    public LocalDate next(LocalDate bucket) {
+        return switch (this) {
+            case DAY -> bucket.plusDays(1);
+            case WEEK -> bucket.plusWeeks(1);
+            case MONTH -> bucket.plusMonths(1);
+        };
+    }
+
+    /** {@code to} sanasi bilan tugaydigan standart oraliq boshi: 7 kun, 12 hafta yoki 12 oy */
+    public LocalDate defaultFrom(LocalDate to) {
+        return switch (this) {
+            case DAY -> to.minusDays(6);
+            case WEEK -> truncate(to).minusWeeks(11);
+            case MONTH -> truncate(to).minusMonths(11);
+        };
+    }
+
+    public static TrendGranularity of(String value) {
+        if (value == null || value.isBlank()) return DAY;
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Granularity must be one of day, week, month");
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package uz.coder.davomatbackend.security;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Controller parametriga joriy foydalanuvchini beradi ({@link uz.coder.davomatbackend.model.User}).
+ * Odatda JwtAuthFilter SecurityContext ga qo'ygan principal ishlatiladi - qo'shimcha so'rovsiz.
+ * {@code fresh = true} bo'lsa foydalanuvchi bazadan qayta o'qiladi (masalan, rol yoki balansga
+ * tayanadigan o'zgartirishlarda). Autentifikatsiya bo'lmasa {@code null}.
+ */
+@Target(ElementType.PARAMETER)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface CurrentUser {
+
+    boolean fresh() default false;
+}
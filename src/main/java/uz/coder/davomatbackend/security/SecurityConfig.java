@@ -2,6 +2,8 @@ package uz.coder.davomatbackend.security;
 
 import java.util.List;
 
+import jakarta.servlet.DispatcherType;
+
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Lazy;
@@ -23,6 +25,7 @@ import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 import uz.coder.davomatbackend.jwt.JwtAuthFilter;
 import uz.coder.davomatbackend.jwt.JwtService;
 import uz.coder.davomatbackend.jwt.PaymentCheckFilter;
+import static uz.coder.davomatbackend.todo.Strings.ROLE_ADMIN;
 
 @Configuration
 @EnableWebSecurity
@@ -86,6 +89,9 @@ public class SecurityConfig {
 
                 // Authorization qoidalari
                 .authorizeHttpRequests(auth -> auth
+                        // StreamingResponseBody yakunidagi ASYNC dispatch: so'rov birinchi dispatchda tekshirilgan
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
+
                         // Public endpoints
                         .requestMatchers("/auth/**").permitAll()
                         .requestMatchers("/api/telegram/**").permitAll()
@@ -113,6 +119,10 @@ public class SecurityConfig {
                                 "/*.svg"
                         ).permitAll()
                         
+                        // Actuator: health ochiq, metrikalar faqat admin uchun
+                        .requestMatchers("/actuator/health").permitAll()
+                        .requestMatchers("/actuator/**").hasAuthority(ROLE_ADMIN)
+
                         // API endpoints require authentication
                         .requestMatchers("/api/**").authenticated()
                         
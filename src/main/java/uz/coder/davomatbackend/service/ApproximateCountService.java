@@ -0,0 +1,38 @@
+package uz.coder.davomatbackend.service;
+
+import java.util.OptionalLong;
+import java.util.function.LongSupplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import uz.coder.davomatbackend.db.TableStatsDatabase;
+import uz.coder.davomatbackend.model.CountResult;
+
+/**
+ * Katta jadvallar uchun tezkor sanash: baho {@code app.counts.approximate-threshold} dan katta bo'lsa
+ * planner bahosi qaytadi, aks holda (yoki baho yo'q bo'lsa, yoki aniq son so'ralsa) oddiy COUNT(*).
+ * Kichik jadvallarda aniq son arzon, shuning uchun ular doim aniq.
+ */
+@Service
+public class ApproximateCountService {
+
+    private final TableStatsDatabase tableStatsDatabase;
+    private final long threshold;
+
+    public ApproximateCountService(TableStatsDatabase tableStatsDatabase,
+                                   @Value("${app.counts.approximate-threshold:100000}") long threshold) {
+        this.tableStatsDatabase = tableStatsDatabase;
+        this.threshold = threshold;
+    }
+
+    public CountResult count(String table, LongSupplier exactCount, boolean exact) {
+        if (!exact) {
+            OptionalLong estimate = tableStatsDatabase.estimateRows(table);
+            if (estimate.isPresent() && estimate.getAsLong() >= threshold) {
+                return new CountResult(estimate.getAsLong(), true);
+            }
+        }
+        return CountResult.exact(exactCount.getAsLong());
+    }
+}
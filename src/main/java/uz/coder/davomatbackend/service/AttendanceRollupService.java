@@ -0,0 +1,166 @@
+package uz.coder.davomatbackend.service;
+
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import lombok.extern.slf4j.Slf4j;
+import uz.coder.davomatbackend.db.AttendanceDatabase;
+import uz.coder.davomatbackend.db.AttendanceRollupBatchDatabase;
+import uz.coder.davomatbackend.db.AttendanceRollupBatchDatabase.Correction;
+import uz.coder.davomatbackend.db.AttendanceRollupDatabase;
+import uz.coder.davomatbackend.db.CourseDatabase;
+import uz.coder.davomatbackend.db.model.CourseDbModel;
+import uz.coder.davomatbackend.model.AttendanceDelta;
+
+/**
+ * attendance_daily_rollup ni yuritadi. on* metodlari chaqiruvchining tranzaksiyasi ichida ishlaydi,
+ * shuning uchun rollup xom davomat bilan birga commit yoki rollback bo'ladi.
+ * {@link #rebuild()} rollupni xom ma'lumotdan oyma-oy, parallel qayta hisoblaydi.
+ */
+@Slf4j
+@Service
+public class AttendanceRollupService {
+
+    private final AttendanceRollupDatabase rollupDatabase;
+    private final AttendanceRollupBatchDatabase rollupBatchDatabase;
+    private final AttendanceDatabase attendanceDatabase;
+    private final CourseDatabase courseDatabase;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate snapshotTemplate;
+    private final StatisticsCache statisticsCache;
+    private final AsyncTaskExecutor rebuildExecutor;
+    private final boolean buildOnStartup;
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+
+    public AttendanceRollupService(AttendanceRollupDatabase rollupDatabase,
+                                   AttendanceRollupBatchDatabase rollupBatchDatabase,
+                                   AttendanceDatabase attendanceDatabase,
+                                   CourseDatabase courseDatabase,
+                                   TransactionTemplate transactionTemplate,
+                                   StatisticsCache statisticsCache,
+                                   @Qualifier("rollupRebuildExecutor") AsyncTaskExecutor rebuildExecutor,
+                                   @Value("${app.attendance-rollup.build-on-startup:true}") boolean buildOnStartup) {
+        this.rollupDatabase = rollupDatabase;
+        this.rollupBatchDatabase = rollupBatchDatabase;
+        this.attendanceDatabase = attendanceDatabase;
+        this.courseDatabase = courseDatabase;
+        this.transactionTemplate = transactionTemplate;
+        this.snapshotTemplate = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        this.snapshotTemplate.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        this.snapshotTemplate.setReadOnly(true);
+        this.statisticsCache = statisticsCache;
+        this.rebuildExecutor = rebuildExecutor;
+        this.buildOnStartup = buildOnStartup;
+    }
+
+    public void apply(List<AttendanceDelta> deltas) {
+        List<AttendanceDelta> effective = deltas.stream().filter(delta -> delta.delta() != 0).toList();
+        if (!effective.isEmpty()) {
+            rollupBatchDatabase.applyDeltas(effective);
+        }
+    }
+
+    /** O'quvchining davomati joriy guruhi bo'yicha rollupdan ayiriladi (guruh almashishi yoki o'chirishdan oldin) */
+    public void onStudentDetached(long studentId) {
+        rollupBatchDatabase.applyStudent(studentId, -1);
+    }
+
+    /** O'quvchining davomati joriy guruhi bo'yicha rollupga qo'shiladi (guruh almashgandan keyin) */
+    public void onStudentAttached(long studentId) {
+        rollupBatchDatabase.applyStudent(studentId, 1);
+    }
+
+    /**
+     * Guruh boshqa kursga o'tganda uning qatorlari yangi kurs va o'qituvchiga ko'chadi.
+     * Kurs topilmasa guruh statistikada hisoblanmaydi, xuddi xom so'rovlardagi join kabi.
+     */
+    public void onGroupChanged(long groupId, long courseId) {
+        courseDatabase.findById(courseId).map(CourseDbModel::getUserId).ifPresentOrElse(
+                teacherId -> rollupDatabase.reassignGroup(groupId, courseId, teacherId),
+                () -> rollupDatabase.deleteAllByGroupId(groupId));
+    }
+
+    public void onGroupDeleted(long groupId) {
+        rollupDatabase.deleteAllByGroupId(groupId);
+    }
+
+    public void onCourseChanged(long courseId, long teacherId) {
+        rollupDatabase.reassignCourse(courseId, teacherId);
+    }
+
+    public void onCourseDeleted(long courseId) {
+        rollupDatabase.deleteAllByCourseId(courseId);
+    }
+
+    /**
+     * Rollupni xom davomatdan qayta hisoblaydi: har bir oy parallel, jadvallarni qulflamasdan.
+     * Oy uchun tuzatishlar (xom son - rollup soni) bitta REPEATABLE READ snapshotidan o'qiladi va keyin
+     * delta sifatida qo'shiladi, shuning uchun shu orada commit bo'lgan yozuvlarning deltalari yo'qolmaydi.
+     */
+    public Map<String, Object> rebuild() {
+        if (!rebuilding.compareAndSet(false, true)) {
+            throw new IllegalStateException("Rollup rebuild is already running");
+        }
+        try {
+            long started = System.currentTimeMillis();
+            List<YearMonth> months = rollupBatchDatabase.findMonths();
+            List<CompletableFuture<Integer>> futures = new ArrayList<>(months.size());
+            for (YearMonth month : months) {
+                futures.add(CompletableFuture.supplyAsync(() -> rebuildMonth(month), rebuildExecutor));
+            }
+            CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).join();
+
+            statisticsCache.clear();
+
+            long corrections = futures.stream().mapToLong(CompletableFuture::join).sum();
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("months", months.size());
+            result.put("corrections", corrections);
+            result.put("durationMs", System.currentTimeMillis() - started);
+            log.info("Attendance rollup rebuilt: {}", result);
+            return result;
+        } finally {
+            rebuilding.set(false);
+        }
+    }
+
+    private int rebuildMonth(YearMonth month) {
+        List<Correction> corrections =
+                snapshotTemplate.execute(status -> rollupBatchDatabase.findMonthCorrections(month));
+        if (corrections == null) return 0;
+        transactionTemplate.executeWithoutResult(status -> rollupBatchDatabase.applyMonthCorrections(month, corrections));
+        return corrections.size();
+    }
+
+    /**
+     * Rollup jadvali yangi yaratilgan (bo'sh), lekin davomat bor bo'lsa, uni fonda bir marta to'ldiradi.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    void buildIfEmpty() {
+        if (!buildOnStartup || rollupDatabase.count() > 0 || attendanceDatabase.count() == 0) return;
+        // rebuild() oylarni rebuildExecutor ga beradi va kutadi, shuning uchun o'zi alohida thread da
+        Thread thread = new Thread(() -> {
+            try {
+                rebuild();
+            } catch (Exception e) {
+                log.error("Initial attendance rollup build failed", e);
+            }
+        }, "rollup-initial-build");
+        thread.setDaemon(true);
+        thread.start();
+    }
+}
@@ -2,23 +2,36 @@ package uz.coder.davomatbackend.service;
 
 import lombok.extern.slf4j.Slf4j;
 import org.apache.poi.ss.usermodel.*;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
 import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
 import uz.coder.davomatbackend.db.*;
 import uz.coder.davomatbackend.db.model.AttendanceDbModel;
 import uz.coder.davomatbackend.db.model.CourseDbModel;
 import uz.coder.davomatbackend.db.model.GroupDbModel;
 import uz.coder.davomatbackend.db.model.StudentDbModel;
+import uz.coder.davomatbackend.model.AddAttendanceBatch;
 import uz.coder.davomatbackend.model.Attendance;
+import uz.coder.davomatbackend.model.AttendanceBatchResult;
+import uz.coder.davomatbackend.model.AttendanceDelta;
+import uz.coder.davomatbackend.model.AttendanceImportResult;
+import uz.coder.davomatbackend.model.AttendanceKey;
+import uz.coder.davomatbackend.model.AttendanceMark;
+import uz.coder.davomatbackend.model.User;
 import uz.coder.davomatbackend.todo.Strings;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.LocalDate;
+import java.time.YearMonth;
 import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
@@ -35,77 +48,164 @@ public class AttendanceService {
     private final GroupDatabase groupDatabase;
     private final UserDatabase userDatabase;
     private final CourseDatabase courseDatabase;
+    private final AttendanceBatchDatabase attendanceBatchDatabase;
+    private final AttendanceRollupService attendanceRollupService;
+    private final TransactionTemplate transactionTemplate;
+
+    /** Streaming importda bitta tranzaksiyada yoziladigan qatorlar soni */
+    private static final int IMPORT_CHUNK_ROWS = 500;
+
+    /** Streaming exportda xotirada saqlanadigan qatorlar oynasi */
+    private static final int EXPORT_ROW_WINDOW = 100;
+    /** №, F.I.Sh, telefon, kurs, guruh ustunlari kengligi (1/256 belgi birligida) */
+    private static final int[] EXPORT_COLUMN_WIDTHS = {6 * 256, 30 * 256, 16 * 256, 20 * 256, 20 * 256};
+    private static final int EXPORT_DATE_COLUMN_WIDTH = 12 * 256;
 
     @Autowired
     public AttendanceService(AttendanceDatabase attendanceDatabase,
                              StudentDatabase studentDatabase,
                              GroupDatabase groupDatabase,
                              UserDatabase userDatabase,
-                             CourseDatabase courseDatabase) {
+                             CourseDatabase courseDatabase,
+                             AttendanceBatchDatabase attendanceBatchDatabase,
+                             AttendanceRollupService attendanceRollupService,
+                             TransactionTemplate transactionTemplate) {
         this.attendanceDatabase = attendanceDatabase;
         this.studentDatabase = studentDatabase;
         this.groupDatabase = groupDatabase;
         this.userDatabase = userDatabase;
         this.courseDatabase = courseDatabase;
+        this.attendanceBatchDatabase = attendanceBatchDatabase;
+        this.attendanceRollupService = attendanceRollupService;
+        this.transactionTemplate = transactionTemplate;
     }
 
     public Attendance save(Attendance attendance) {
-        Optional<AttendanceDbModel> existingOpt =
-                attendanceDatabase.findByStudentIdAndDate(attendance.getStudentId(), attendance.getDate());
-
-        if (existingOpt.isPresent()) {
-            AttendanceDbModel existing = existingOpt.get();
-            existing.setStatus(attendance.getStatus());
-            AttendanceDbModel updated = attendanceDatabase.save(existing);
-            return mapToDto(updated);
-        } else {
-            AttendanceDbModel saved = attendanceDatabase.save(new AttendanceDbModel(
-                    attendance.getStudentId(), attendance.getDate(), attendance.getStatus()
-            ));
-            return mapToDto(saved);
+        return transactionTemplate.execute(status -> {
+            Optional<AttendanceDbModel> existingOpt =
+                    attendanceDatabase.findByStudentIdAndDateForUpdate(attendance.getStudentId(), attendance.getDate());
+
+            if (existingOpt.isPresent()) {
+                AttendanceDbModel existing = existingOpt.get();
+                String previousStatus = existing.getStatus();
+                existing.setStatus(attendance.getStatus());
+                AttendanceDbModel updated = attendanceDatabase.save(existing);
+                if (!Objects.equals(previousStatus, updated.getStatus())) {
+                    attendanceRollupService.apply(List.of(
+                            AttendanceDelta.removed(updated.getStudentId(), updated.getDate(), previousStatus),
+                            AttendanceDelta.added(updated.getStudentId(), updated.getDate(), updated.getStatus())));
+                }
+                return mapToDto(updated);
+            } else {
+                AttendanceDbModel saved = attendanceDatabase.save(new AttendanceDbModel(
+                        attendance.getStudentId(), attendance.getDate(), attendance.getStatus()
+                ));
+                attendanceRollupService.apply(List.of(
+                        AttendanceDelta.added(saved.getStudentId(), saved.getDate(), saved.getStatus())));
+                return mapToDto(saved);
+            }
+        });
+    }
+
+    /**
+     * Guruh davomatini admin yoki guruh kursining egasi (o'qituvchi) belgilashi mumkin.
+     */
+    public boolean canMarkGroup(User user, long groupId) {
+        if (ROLE_ADMIN.equals(user.getRole())) {
+            return true;
         }
+        return groupDatabase.findById(groupId)
+                .flatMap(group -> courseDatabase.findById(group.getCourseId()))
+                .map(course -> course.getUserId() == user.getId())
+                .orElse(false);
     }
 
+    /**
+     * Guruhning bir kunlik davomatini bitta upsert so'rovi bilan yozadi.
+     * Natija so'rovdagi tartibda, har bir belgi uchun alohida qaytariladi: guruhga tegishli bo'lmagan yoki
+     * holati bo'sh o'quvchilar REJECTED bo'ladi. Ro'yxatda takrorlangan o'quvchi bo'lsa IllegalArgumentException.
+     */
+    public List<AttendanceBatchResult> saveBatch(AddAttendanceBatch batch) {
+        if (batch.getDate() == null) {
+            throw new IllegalArgumentException("Date is required");
+        }
+        List<AttendanceMark> items = batch.getItems() == null ? List.of() : batch.getItems();
+        Set<Long> seen = new HashSet<>();
+        for (AttendanceMark mark : items) {
+            if (!seen.add(mark.getStudentId())) {
+                throw new IllegalArgumentException("Duplicate student in request: " + mark.getStudentId());
+            }
+        }
+        Set<Long> groupStudentIds = new HashSet<>(studentDatabase.findIdsByGroupId(batch.getGroupId()));
+
+        AttendanceBatchResult[] results = new AttendanceBatchResult[items.size()];
+        List<AttendanceMark> toWrite = new ArrayList<>();
+        for (int i = 0; i < items.size(); i++) {
+            AttendanceMark mark = items.get(i);
+            if (!groupStudentIds.contains(mark.getStudentId())) {
+                results[i] = AttendanceBatchResult.rejected(mark, "Student is not in group " + batch.getGroupId());
+            } else if (mark.getStatus() == null || mark.getStatus().isBlank()) {
+                results[i] = AttendanceBatchResult.rejected(mark, "Status is required");
+            } else {
+                toWrite.add(new AttendanceMark(mark.getStudentId(), mark.getStatus().trim()));
+            }
+        }
+
+        List<AttendanceBatchResult> written = transactionTemplate.execute(status -> {
+            List<AttendanceBatchResult> upserted = attendanceBatchDatabase.upsertAll(batch.getDate(), toWrite);
+            attendanceRollupService.apply(rollupDeltas(batch.getDate(), upserted));
+            return upserted;
+        });
+        Map<Long, AttendanceBatchResult> writtenByStudent = new HashMap<>();
+        if (written != null) {
+            written.forEach(result -> writtenByStudent.put(result.getStudentId(), result));
+        }
+        for (int i = 0; i < results.length; i++) {
+            if (results[i] == null) {
+                results[i] = writtenByStudent.get(items.get(i).getStudentId());
+            }
+        }
+        return Arrays.asList(results);
+    }
+
+    /**
+     * Set-based import: telefon raqamlari bitta so'rovda, mavjud (studentId, sana) juftliklari
+     * sarlavhadagi sana oralig'i bo'yicha bitta so'rovda olinadi, farq xotirada hisoblanadi
+     * va yangi yozuvlar JDBC batch bilan yoziladi.
+     */
     public boolean saveAllByExcel(MultipartFile file) {
         try (Workbook workbook = new XSSFWorkbook(file.getInputStream())) {
             Sheet sheet = workbook.getSheetAt(0);
             Row header = sheet.getRow(0);
 
-            List<AttendanceDbModel> saveList = new ArrayList<>();
+            List<String> headerCells = new ArrayList<>();
+            for (int j = 0; j < header.getLastCellNum(); j++) {
+                headerCells.add(getCellStringValue(header.getCell(j)));
+            }
+            Map<Integer, LocalDate> dateColumns = parseDateColumns(headerCells);
 
+            List<ImportRow> rows = new ArrayList<>();
             for (int i = 1; i <= sheet.getLastRowNum(); i++) {
                 Row row = sheet.getRow(i);
                 if (row == null) continue;
 
-                String phone = getCellStringValue(row.getCell(2));
-                StudentDbModel student = studentDatabase.findAll().stream()
-                        .filter(s -> s.getPhoneNumber().equals(phone))
-                        .findFirst()
-                        .orElseThrow(() -> new IllegalArgumentException(THERE_IS_NO_SUCH_AN_ATTENDANCE));
-
-                for (int j = 5; j < header.getLastCellNum(); j++) {
-                    String dateString = getCellStringValue(header.getCell(j));
-                    if (dateString.isEmpty()) continue;
-
-                    LocalDate date;
-                    try {
-                        // Sana formatini parse qilish
-                        date = LocalDate.parse(dateString, DateTimeFormatter.ofPattern("yyyy-MM-dd"));
-                    } catch (Exception e) {
-                        log.warn("Invalid date format in header: {}", dateString);
-                        continue;
-                    }
-
-                    String value = getCellStringValue(row.getCell(j)).trim();
-                    if (value.isEmpty()) continue;
+                Map<LocalDate, String> statuses = new HashMap<>();
+                dateColumns.forEach((column, date) -> {
+                    String value = getCellStringValue(row.getCell(column)).trim();
+                    if (!value.isEmpty()) statuses.put(date, value);
+                });
+                rows.add(new ImportRow(getCellStringValue(row.getCell(2)), statuses));
+            }
 
-                    if (attendanceDatabase.findByStudentIdAndDate(student.getId(), date).isEmpty()) {
-                        saveList.add(new AttendanceDbModel(student.getId(), date, value));
-                    }
+            Map<String, Long> studentIds = findStudentIdsByPhone(rows);
+            for (ImportRow row : rows) {
+                if (!studentIds.containsKey(row.phone())) {
+                    throw new IllegalArgumentException(THERE_IS_NO_SUCH_AN_ATTENDANCE);
                 }
             }
 
-            attendanceDatabase.saveAll(saveList);
+            List<AttendanceDbModel> saveList = findNewRecords(rows, studentIds, dateColumns.values());
+            transactionTemplate.executeWithoutResult(status -> insertWithRollup(saveList));
             return true;
 
         } catch (IOException e) {
@@ -114,6 +214,160 @@ public class AttendanceService {
         }
     }
 
+    /**
+     * Katta fayllar uchun streaming import: varaq SAX orqali qatorma-qator o'qiladi va
+     * har {@value #IMPORT_CHUNK_ROWS} qator alohida tranzaksiyada batch bilan yoziladi,
+     * shuning uchun xotira sarfi fayl hajmiga bog'liq emas.
+     * Telefon raqami topilmagan qatorlar butun importni to'xtatmaydi, rad etilganlar sifatida sanaladi.
+     */
+    public AttendanceImportResult saveAllByExcelStreaming(MultipartFile file) throws IOException {
+        Path tempFile = Files.createTempFile("attendance-import-", ".xlsx");
+        try {
+            file.transferTo(tempFile);
+            StreamingImport streamingImport = new StreamingImport();
+            AttendanceExcelStreamReader.read(tempFile.toFile(), streamingImport);
+            streamingImport.flush();
+            return streamingImport.result;
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+    }
+
+    private record ImportRow(String phone, Map<LocalDate, String> statuses) {
+    }
+
+    private class StreamingImport implements AttendanceExcelStreamReader.RowHandler {
+
+        private final AttendanceImportResult result = new AttendanceImportResult();
+        private final List<ImportRow> chunk = new ArrayList<>(IMPORT_CHUNK_ROWS);
+        private Map<Integer, LocalDate> dateColumns = Map.of();
+
+        @Override
+        public void row(int rowNum, List<String> cells) {
+            if (rowNum == 0) {
+                dateColumns = parseDateColumns(cells);
+                return;
+            }
+
+            result.setRowsParsed(result.getRowsParsed() + 1);
+            String phone = cells.size() > 2 ? cells.get(2) : "";
+            if (phone.isEmpty()) {
+                result.setRejected(result.getRejected() + 1);
+                return;
+            }
+
+            Map<LocalDate, String> statuses = new HashMap<>();
+            dateColumns.forEach((column, date) -> {
+                String value = column < cells.size() ? cells.get(column) : "";
+                if (!value.isEmpty()) statuses.put(date, value);
+            });
+            chunk.add(new ImportRow(phone, statuses));
+
+            if (chunk.size() >= IMPORT_CHUNK_ROWS) {
+                flush();
+            }
+        }
+
+        void flush() {
+            if (chunk.isEmpty()) return;
+
+            Map<String, Long> studentIds = findStudentIdsByPhone(chunk);
+            long unknown = chunk.stream().filter(row -> !studentIds.containsKey(row.phone())).count();
+            result.setRejected(result.getRejected() + unknown);
+
+            List<AttendanceDbModel> toInsert = findNewRecords(chunk, studentIds, dateColumns.values());
+            Integer inserted = transactionTemplate.execute(status -> insertWithRollup(toInsert));
+            result.setInserted(result.getInserted() + (inserted == null ? 0 : inserted));
+            chunk.clear();
+        }
+    }
+
+    /**
+     * Yangi yozuvlarni qo'shadi va haqiqatan qo'shilganlarini rollupga yozadi. Tranzaksiya ichida chaqiriladi.
+     */
+    private int insertWithRollup(List<AttendanceDbModel> records) {
+        List<AttendanceDbModel> inserted = attendanceBatchDatabase.insertAll(records);
+        attendanceRollupService.apply(inserted.stream()
+                .map(record -> AttendanceDelta.added(record.getStudentId(), record.getDate(), record.getStatus()))
+                .toList());
+        return inserted.size();
+    }
+
+    /**
+     * Upsert natijasidan rollup deltalari: yangi belgi +1, holati o'zgargan belgi eski holatga -1 va yangisiga +1.
+     */
+    static List<AttendanceDelta> rollupDeltas(LocalDate date, List<AttendanceBatchResult> results) {
+        List<AttendanceDelta> deltas = new ArrayList<>();
+        for (AttendanceBatchResult result : results) {
+            String previousStatus = result.getPreviousStatus();
+            if (Objects.equals(previousStatus, result.getStatus())) continue;
+            if (previousStatus != null) {
+                deltas.add(AttendanceDelta.removed(result.getStudentId(), date, previousStatus));
+            }
+            deltas.add(AttendanceDelta.added(result.getStudentId(), date, result.getStatus()));
+        }
+        return deltas;
+    }
+
+    /**
+     * Sarlavhadagi 5-ustundan boshlab sanalarni o'qiydi: ustun indeksi -> sana.
+     */
+    private Map<Integer, LocalDate> parseDateColumns(List<String> headerCells) {
+        Map<Integer, LocalDate> dateColumns = new LinkedHashMap<>();
+        for (int j = 5; j < headerCells.size(); j++) {
+            String dateString = headerCells.get(j);
+            if (dateString.isEmpty()) continue;
+            try {
+                // Sana formatini parse qilish
+                dateColumns.put(j, LocalDate.parse(dateString, DateTimeFormatter.ofPattern("yyyy-MM-dd")));
+            } catch (Exception e) {
+                log.warn("Invalid date format in header: {}", dateString);
+            }
+        }
+        return dateColumns;
+    }
+
+    /**
+     * Barcha telefon raqamlarini bitta so'rovda o'quvchi id ga aylantiradi.
+     * Bir raqam bir nechta guruhda bo'lsa, birinchi (eng kichik id li) o'quvchi olinadi.
+     */
+    private Map<String, Long> findStudentIdsByPhone(List<ImportRow> rows) {
+        Set<String> phones = rows.stream().map(ImportRow::phone).collect(Collectors.toSet());
+        Map<String, Long> studentIds = new HashMap<>();
+        if (phones.isEmpty()) return studentIds;
+        for (StudentDbModel student : studentDatabase.findAllByPhoneNumberIn(phones)) {
+            studentIds.putIfAbsent(student.getPhoneNumber(), student.getId());
+        }
+        return studentIds;
+    }
+
+    /**
+     * Bazada hali yo'q (studentId, sana) yozuvlarini qaytaradi. Mavjud juftliklar sarlavhadagi
+     * sana oralig'i bo'yicha bitta so'rovda olinadi; telefoni topilmagan qatorlar tashlab ketiladi.
+     */
+    private List<AttendanceDbModel> findNewRecords(List<ImportRow> rows, Map<String, Long> studentIds,
+                                                   Collection<LocalDate> dates) {
+        List<AttendanceDbModel> records = new ArrayList<>();
+        if (dates.isEmpty() || studentIds.isEmpty()) return records;
+
+        LocalDate from = Collections.min(dates);
+        LocalDate to = Collections.max(dates);
+        Set<AttendanceKey> existing = new HashSet<>(
+                attendanceDatabase.findKeysByStudentIdsAndDateBetween(new HashSet<>(studentIds.values()), from, to));
+
+        for (ImportRow row : rows) {
+            Long studentId = studentIds.get(row.phone());
+            if (studentId == null) continue;
+            row.statuses().forEach((date, status) -> {
+                // existing ga qo'shish bir fayl ichidagi takroriy qatorlarni ham chetlab o'tadi
+                if (existing.add(new AttendanceKey(studentId, date))) {
+                    records.add(new AttendanceDbModel(studentId, date, status));
+                }
+            });
+        }
+        return records;
+    }
+
     /**
      * Universal metod: barcha cell turlarini stringga aylantiradi.
      * Sana bo'lsa, "yyyy-MM-dd" formatida qaytaradi.
@@ -164,13 +418,58 @@ public class AttendanceService {
 
     // ------------------- Excel export by month -------------------
     public byte[] exportToExcelByMonth(long userId, Long courseId, Long groupId, int year, int month) throws IOException {
+        try (Workbook workbook = new XSSFWorkbook()) {
+            int columnCount = fillMonthSheet(workbook, userId, courseId, groupId, year, month);
+
+            Sheet sheet = workbook.getSheetAt(0);
+            for (int i = 0; i < columnCount; i++) {
+                sheet.autoSizeColumn(i);
+            }
+
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            workbook.write(out);
+            return out.toByteArray();
+        }
+    }
+
+    /**
+     * Oylik hisobotni SXSSF orqali to'g'ridan-to'g'ri {@code out} ga yozadi.
+     * Xotirada faqat oxirgi {@value #EXPORT_ROW_WINDOW} ta qator turadi, qolganlari vaqtinchalik faylga tushadi.
+     * autoSizeColumn barcha qatorlarni talab qilgani uchun ustun kengliklari oldindan belgilanadi.
+     */
+    public void exportToExcelByMonth(long userId, Long courseId, Long groupId, int year, int month,
+                                     OutputStream out) throws IOException {
+        // close() vaqtinchalik fayllarni ham o'chiradi
+        try (SXSSFWorkbook workbook = new SXSSFWorkbook(EXPORT_ROW_WINDOW)) {
+            workbook.setCompressTempFiles(true);
+            int columnCount = fillMonthSheet(workbook, userId, courseId, groupId, year, month);
+
+            // Sarlavha qatori oynadan chiqib diskka yozilgan bo'lishi mumkin, shuning uchun getRow(0) ishlatilmaydi
+            Sheet sheet = workbook.getSheetAt(0);
+            for (int i = 0; i < columnCount; i++) {
+                sheet.setColumnWidth(i, i < EXPORT_COLUMN_WIDTHS.length ? EXPORT_COLUMN_WIDTHS[i] : EXPORT_DATE_COLUMN_WIDTH);
+            }
+
+            workbook.write(out);
+            out.flush();
+        }
+    }
+
+    /** Varaqni to'ldiradi va ustunlar sonini qaytaradi */
+    private int fillMonthSheet(Workbook workbook, long userId, Long courseId, Long groupId,
+                               int year, int month) {
 
         List<StudentDbModel> students = studentDatabase.findAllStudentsByOwnerUserId(userId);
 
+        // Guruh, kurs va ism bir martada olinadi, har bir student uchun alohida findById qilinmaydi
+        Map<Long, GroupDbModel> groups = new HashMap<>();
+        groupDatabase.findAllById(students.stream().map(StudentDbModel::getGroupId).distinct().toList())
+                .forEach(g -> groups.put(g.getId(), g));
+
         if (courseId != null) {
             students = students.stream()
                     .filter(s -> {
-                        GroupDbModel g = groupDatabase.findById(s.getGroupId()).orElse(null);
+                        GroupDbModel g = groups.get(s.getGroupId());
                         return g != null && g.getCourseId() == courseId;
                     })
                     .toList();
@@ -181,77 +480,67 @@ public class AttendanceService {
                     .toList();
         }
 
-        Map<Long, String> studentNames = new HashMap<>();
-        for (StudentDbModel student : students) {
-            userDatabase.findById(student.getUserId())
-                    .ifPresent(user -> studentNames.put(
-                            student.getId(),
-                            user.getFirstName() + " " + user.getLastName()
-                    ));
+        Map<Long, CourseDbModel> courses = new HashMap<>();
+        courseDatabase.findAllById(groups.values().stream().map(GroupDbModel::getCourseId).distinct().toList())
+                .forEach(c -> courses.put(c.getId(), c));
+
+        Map<Long, String> userNames = new HashMap<>();
+        userDatabase.findAllById(students.stream().map(StudentDbModel::getUserId).distinct().toList())
+                .forEach(user -> userNames.put(user.getId(), user.getFirstName() + " " + user.getLastName()));
+
+        YearMonth period = YearMonth.of(year, month);
+        List<AttendanceDbModel> attendanceList = attendanceDatabase.findAllByTeacherAndOptionalCourseAndGroupAndDateBetween(
+                userId, courseId, groupId, period.atDay(1), period.atEndOfMonth());
+
+        // studentId -> (sana -> status), bitta o'tishda; takror bo'lsa birinchisi qoladi
+        Map<Long, Map<LocalDate, String>> attendanceByStudent = new HashMap<>();
+        Set<LocalDate> targetDates = new TreeSet<>();
+        for (AttendanceDbModel a : attendanceList) {
+            attendanceByStudent.computeIfAbsent(a.getStudentId(), id -> new HashMap<>())
+                    .putIfAbsent(a.getDate(), a.getStatus());
+            targetDates.add(a.getDate());
         }
 
-        List<AttendanceDbModel> attendanceList =
-                attendanceDatabase.findAllByTeacherAndOptionalCourseAndGroup(userId, courseId, groupId);
+        Sheet sheet = workbook.createSheet("Attendance");
 
-        Set<LocalDate> targetDates = attendanceList.stream()
-                .map(AttendanceDbModel::getDate)
-                .filter(date -> date.getYear() == year && date.getMonthValue() == month)
-                .collect(Collectors.toCollection(TreeSet::new));
+        Row header = sheet.createRow(0);
+        header.createCell(0).setCellValue(Strings.NUMBER);
+        header.createCell(1).setCellValue(Strings.FULL_NAME);
+        header.createCell(2).setCellValue(Strings.PHONE);
+        header.createCell(3).setCellValue(Strings.COURSE);
+        header.createCell(4).setCellValue(Strings.GROUP);
 
-        try (Workbook workbook = new XSSFWorkbook()) {
-            Sheet sheet = workbook.createSheet("Attendance");
+        int cellIndex = 5;
+        for (LocalDate date : targetDates) {
+            header.createCell(cellIndex++).setCellValue(date.toString());
+        }
 
-            Row header = sheet.createRow(0);
-            header.createCell(0).setCellValue(Strings.NUMBER);
-            header.createCell(1).setCellValue(Strings.FULL_NAME);
-            header.createCell(2).setCellValue(Strings.PHONE);
-            header.createCell(3).setCellValue(Strings.COURSE);
-            header.createCell(4).setCellValue(Strings.GROUP);
+        int rowNum = 1;
+        for (StudentDbModel student : students) {
+            Row row = sheet.createRow(rowNum++);
+            row.createCell(0).setCellValue(rowNum - 1);
+            row.createCell(1).setCellValue(userNames.getOrDefault(student.getUserId(), ""));
+            row.createCell(2).setCellValue(student.getPhoneNumber());
 
-            int cellIndex = 5;
-            for (LocalDate date : targetDates) {
-                header.createCell(cellIndex++).setCellValue(date.toString());
-            }
+            GroupDbModel group = groups.get(student.getGroupId());
+            if (group == null) throw new IllegalArgumentException(Strings.THERE_IS_NO_SUCH_A_GROUP);
 
-            int rowNum = 1;
-            for (StudentDbModel student : students) {
-                Row row = sheet.createRow(rowNum++);
-                row.createCell(0).setCellValue(rowNum - 1);
-                row.createCell(1).setCellValue(studentNames.getOrDefault(student.getId(), ""));
-                row.createCell(2).setCellValue(student.getPhoneNumber());
-
-                GroupDbModel group = groupDatabase.findById(student.getGroupId())
-                        .orElseThrow(() -> new IllegalArgumentException(Strings.THERE_IS_NO_SUCH_A_GROUP));
-
-                CourseDbModel course = courseDatabase.findById(group.getCourseId())
-                        .orElseThrow(() -> new IllegalArgumentException(Strings.THERE_IS_NO_SUCH_A_COURSE));
-
-                row.createCell(3).setCellValue(course.getTitle());
-                row.createCell(4).setCellValue(group.getTitle());
-
-                Map<LocalDate, String> attMap = attendanceList.stream()
-                        .filter(a -> a.getStudentId().equals(student.getId()))
-                        .collect(Collectors.toMap(
-                                AttendanceDbModel::getDate,
-                                AttendanceDbModel::getStatus,
-                                (a, b) -> a
-                        ));
-
-                int colIndex = 5;
-                for (LocalDate date : targetDates) {
-                    String status = attMap.get(date);
-                    row.createCell(colIndex++).setCellValue(status != null ? status : "");
-                }
-            }
+            CourseDbModel course = courses.get(group.getCourseId());
+            if (course == null) throw new IllegalArgumentException(Strings.THERE_IS_NO_SUCH_A_COURSE);
 
-            for (int i = 0; i < header.getLastCellNum(); i++) {
-                sheet.autoSizeColumn(i);
-            }
+            row.createCell(3).setCellValue(course.getTitle());
+            row.createCell(4).setCellValue(group.getTitle());
 
-            ByteArrayOutputStream out = new ByteArrayOutputStream();
-            workbook.write(out);
-            return out.toByteArray();
+            Map<LocalDate, String> attMap = attendanceByStudent.getOrDefault(student.getId(), Map.of());
+
+            int colIndex = 5;
+            for (LocalDate date : targetDates) {
+                String status = attMap.get(date);
+                row.createCell(colIndex++).setCellValue(status != null ? status : "");
+            }
         }
+
+        return header.getLastCellNum();
     }
 
     public List<Attendance> getAllByStudentId(long studentId) {
@@ -266,21 +555,33 @@ public class AttendanceService {
     }
 
     public Attendance update(Attendance updated) {
-        AttendanceDbModel model = attendanceDatabase.findById(updated.getId())
-                .orElseThrow(() -> new IllegalArgumentException(THERE_IS_NO_SUCH_AN_ATTENDANCE));
-
-        model.setDate(updated.getDate());
-        model.setStudentId(updated.getStudentId());
-        model.setStatus(updated.getStatus());
-
-        AttendanceDbModel saved = attendanceDatabase.save(model);
-        return mapToDto(saved);
+        return transactionTemplate.execute(status -> {
+            AttendanceDbModel model = attendanceDatabase.findByIdForUpdate(updated.getId())
+                    .orElseThrow(() -> new IllegalArgumentException(THERE_IS_NO_SUCH_AN_ATTENDANCE));
+            AttendanceDelta previous = AttendanceDelta.removed(model.getStudentId(), model.getDate(), model.getStatus());
+
+            model.setDate(updated.getDate());
+            model.setStudentId(updated.getStudentId());
+            model.setStatus(updated.getStatus());
+
+            AttendanceDbModel saved = attendanceDatabase.saveAndFlush(model);
+            attendanceRollupService.apply(List.of(previous,
+                    AttendanceDelta.added(saved.getStudentId(), saved.getDate(), saved.getStatus())));
+            return mapToDto(saved);
+        });
     }
 
     public boolean delete(long id) {
-        if (!attendanceDatabase.existsById(id)) return false;
-        attendanceDatabase.deleteById(id);
-        return true;
+        Boolean deleted = transactionTemplate.execute(status -> {
+            Optional<AttendanceDbModel> model = attendanceDatabase.findByIdForUpdate(id);
+            if (model.isEmpty()) return false;
+            AttendanceDbModel attendance = model.get();
+            attendanceDatabase.delete(attendance);
+            attendanceRollupService.apply(List.of(
+                    AttendanceDelta.removed(attendance.getStudentId(), attendance.getDate(), attendance.getStatus())));
+            return true;
+        });
+        return Boolean.TRUE.equals(deleted);
     }
 
     private Attendance mapToDto(AttendanceDbModel dbModel) {
@@ -4,6 +4,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import uz.coder.davomatbackend.db.CourseDatabase;
 import uz.coder.davomatbackend.db.model.CourseDbModel;
 import uz.coder.davomatbackend.model.Course;
@@ -14,17 +15,21 @@ import static uz.coder.davomatbackend.todo.Strings.*;
 @Service
 public class CourseService {
     private final CourseDatabase database;
+    private final AttendanceRollupService attendanceRollupService;
 
     @Autowired
-    public CourseService(CourseDatabase database) {
+    public CourseService(CourseDatabase database, AttendanceRollupService attendanceRollupService) {
         this.database = database;
+        this.attendanceRollupService = attendanceRollupService;
     }
     public Course save(Course course) {
         CourseDbModel save = database.save(new CourseDbModel(course.getTitle(), course.getDescription(), course.getUserId()));
         return new Course(save.getId(), save.getTitle(), save.getDescription(), save.getUserId());
     }
+    @Transactional
     public Course edit(Course course) {
         database.update(course.getId(), course.getTitle(), course.getDescription(), course.getUserId());
+        attendanceRollupService.onCourseChanged(course.getId(), course.getUserId());
         CourseDbModel save = database.findById(course.getId()).orElseThrow(()->new IllegalArgumentException(THERE_IS_NO_SUCH_A_COURSE));
         return new Course(save.getId(), save.getTitle(), save.getDescription(), save.getUserId());
     }
@@ -32,9 +37,11 @@ public class CourseService {
         CourseDbModel course = database.findById(id).orElseThrow(()->new IllegalArgumentException(THERE_IS_NO_SUCH_A_COURSE));
         return new Course(course.getId(), course.getTitle(), course.getDescription(), course.getUserId());
     }
+    @Transactional
     public int deleteById(long id) {
         if (database.existsById(id)){
             database.deleteById(id);
+            attendanceRollupService.onCourseDeleted(id);
             return 1;
         }else {
             return 0;
@@ -0,0 +1,226 @@
+package uz.coder.davomatbackend.service;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Service;
+
+import uz.coder.davomatbackend.db.AttendanceRollupDatabase;
+import uz.coder.davomatbackend.db.CourseDatabase;
+import uz.coder.davomatbackend.db.StudentDatabase;
+import uz.coder.davomatbackend.db.UserDatabase;
+import uz.coder.davomatbackend.model.AttendanceStats;
+import uz.coder.davomatbackend.model.CountResult;
+import uz.coder.davomatbackend.model.DateCount;
+import uz.coder.davomatbackend.model.User;
+import static uz.coder.davomatbackend.todo.Strings.ROLE_ADMIN;
+import static uz.coder.davomatbackend.todo.Strings.ROLE_TEACHER;
+
+/**
+ * Dashboard va faollik kartochkalari. Bir-biriga bog'liq bo'lmagan bo'limlar cheklangan
+ * statisticsExecutor da parallel hisoblanadi, bir doiradagi bir vaqtdagi so'rovlar
+ * {@link SingleFlight} orqali bitta yuklashga birlashadi. Javobdagi "meta" har bir bo'lim
+ * qancha vaqt olganini va so'rov boshqa so'rovning natijasini olganini (shared) ko'rsatadi.
+ */
+@Service
+public class DashboardService {
+
+    private final StatisticsService statisticsService;
+    private final UserDatabase userDatabase;
+    private final CourseDatabase courseDatabase;
+    private final StudentDatabase studentDatabase;
+    private final AttendanceRollupDatabase attendanceRollupDatabase;
+    private final ApproximateCountService approximateCountService;
+    private final Executor executor;
+    private final SingleFlight<String, Map<String, Object>> flights = new SingleFlight<>();
+
+    public DashboardService(StatisticsService statisticsService,
+                            UserDatabase userDatabase,
+                            CourseDatabase courseDatabase,
+                            StudentDatabase studentDatabase,
+                            AttendanceRollupDatabase attendanceRollupDatabase,
+                            ApproximateCountService approximateCountService,
+                            @Qualifier("statisticsExecutor") Executor executor) {
+        this.statisticsService = statisticsService;
+        this.userDatabase = userDatabase;
+        this.courseDatabase = courseDatabase;
+        this.studentDatabase = studentDatabase;
+        this.attendanceRollupDatabase = attendanceRollupDatabase;
+        this.approximateCountService = approximateCountService;
+        this.executor = executor;
+    }
+
+    /**
+     * Admin jami sonlari katta jadvallarda planner bahosidan olinadi; {@code exact} = true da aniq COUNT(*).
+     * Taxminiy qiymatlar nomi meta.approximate da ko'rsatiladi.
+     */
+    public Map<String, Object> getDashboard(User user, boolean exact) {
+        String scope;
+        if (ROLE_ADMIN.equals(user.getRole())) scope = "admin";
+        else if (ROLE_TEACHER.equals(user.getRole())) scope = "teacher:" + user.getId();
+        else scope = "student:" + user.getId();
+        String key = "dashboard:" + scope + (exact ? ":exact" : "");
+        return await(flights.run(key, () -> loadDashboard(user, exact)));
+    }
+
+    /**
+     * Bugungi faollik va haftalik o'sish (oxirgi 7 kun oldingi 7 kunga nisbatan).
+     * users va course jadvallarida yaratilgan sana yo'q, shuning uchun ular bo'yicha qiymatlar null.
+     */
+    public Map<String, Object> getRecentActivity() {
+        return await(flights.run("activity", this::loadActivity));
+    }
+
+    private CompletableFuture<Map<String, Object>> loadDashboard(User user, boolean exact) {
+        Sections sections = new Sections();
+        CompletableFuture<AttendanceStats> attendance =
+                sections.run("attendance", () -> statisticsService.getAttendanceStats(user));
+        Map<String, CompletableFuture<CountResult>> counts = new LinkedHashMap<>();
+
+        if (ROLE_ADMIN.equals(user.getRole())) {
+            counts.put("totalUsers", sections.run("users",
+                    () -> approximateCountService.count("users", userDatabase::count, exact)));
+            counts.put("totalCourses", sections.run("courses",
+                    () -> approximateCountService.count("course", courseDatabase::count, exact)));
+            counts.put("totalStudents", sections.run("students",
+                    () -> approximateCountService.count("student", studentDatabase::count, exact)));
+        } else if (ROLE_TEACHER.equals(user.getRole())) {
+            counts.put("myCourses", sections.run("courses",
+                    () -> CountResult.exact(courseDatabase.countByUserId(user.getId()))));
+            counts.put("myStudents", sections.run("students",
+                    () -> CountResult.exact(studentDatabase.countStudentsByOwnerUserId(user.getId()))));
+        } else {
+            counts.put("myCourses", sections.run("courses",
+                    () -> CountResult.exact(courseDatabase.countByStudentId(user.getId()))));
+        }
+
+        return sections.all().thenApply(ignored -> {
+            Map<String, Object> stats = new LinkedHashMap<>();
+            List<String> approximate = new ArrayList<>();
+            counts.forEach((name, future) -> {
+                CountResult count = future.join();
+                stats.put(name, count.getCount());
+                if (count.isApproximate()) approximate.add(name);
+            });
+            AttendanceStats attendanceStats = attendance.join();
+            if (ROLE_ADMIN.equals(user.getRole())) {
+                stats.put("totalAttendance", attendanceStats.getTotal());
+            } else if (!ROLE_TEACHER.equals(user.getRole())) {
+                stats.put("myAttendance", attendanceStats.getTotal());
+            }
+            stats.put("attendanceRate", attendanceStats.getAttendanceRate());
+            stats.put("attendance", attendanceStats);
+            Map<String, Object> meta = sections.meta();
+            meta.put("approximate", approximate);
+            stats.put("meta", meta);
+            return stats;
+        });
+    }
+
+    private CompletableFuture<Map<String, Object>> loadActivity() {
+        LocalDate today = LocalDate.now();
+        LocalDate from = today.minusDays(13);
+        Sections sections = new Sections();
+        CompletableFuture<List<DateCount>> attendance =
+                sections.run("attendance", () -> attendanceRollupDatabase.sumByDateBetween(from, today));
+        CompletableFuture<List<DateCount>> students =
+                sections.run("students", () -> studentDatabase.countByCreatedDateBetween(from, today));
+
+        return sections.all().thenApply(ignored -> {
+            Map<String, Object> activity = new LinkedHashMap<>();
+            activity.put("newUsersToday", null);
+            activity.put("newCoursesToday", null);
+            activity.put("newStudentsToday", countOn(students.join(), today));
+            activity.put("attendanceToday", countOn(attendance.join(), today));
+            activity.put("userGrowth", null);
+            activity.put("courseGrowth", null);
+            activity.put("studentGrowth", weeklyGrowth(students.join(), today));
+            activity.put("attendanceGrowth", weeklyGrowth(attendance.join(), today));
+            activity.put("meta", sections.meta());
+            return activity;
+        });
+    }
+
+    private static long countOn(List<DateCount> counts, LocalDate date) {
+        return counts.stream().filter(count -> date.equals(count.getDate())).mapToLong(DateCount::getCount).sum();
+    }
+
+    /** Oxirgi 7 kun oldingi 7 kunga nisbatan foizda; oldingi hafta bo'sh bo'lsa null */
+    private static Double weeklyGrowth(List<DateCount> counts, LocalDate today) {
+        LocalDate weekStart = today.minusDays(6);
+        long current = 0;
+        long previous = 0;
+        for (DateCount count : counts) {
+            if (count.getDate().isBefore(weekStart)) previous += count.getCount();
+            else current += count.getCount();
+        }
+        if (previous == 0) return null;
+        return Math.round((current - previous) * 1000.0 / previous) / 10.0;
+    }
+
+    /**
+     * Yuklash natijasini kutadi. Natija xaritasi birlashgan so'rovlar orasida umumiy, shuning uchun
+     * har bir chaqiruvchiga nusxa qaytadi va unga shu chaqiruvchining "shared" belgisi qo'shiladi.
+     */
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> await(SingleFlight.Flight<Map<String, Object>> flight) {
+        Map<String, Object> result;
+        try {
+            result = flight.result().join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) throw cause;
+            throw e;
+        }
+        Map<String, Object> copy = new LinkedHashMap<>(result);
+        Map<String, Object> meta = new LinkedHashMap<>((Map<String, Object>) result.get("meta"));
+        meta.put("shared", flight.shared());
+        copy.put("meta", meta);
+        return copy;
+    }
+
+    /**
+     * Bitta yuklashning bo'limlari: har biri executor da alohida ishlaydi va davomiyligi millisekundda yoziladi.
+     */
+    private final class Sections {
+
+        private final long started = System.nanoTime();
+        private final Map<String, Long> latencies = new ConcurrentHashMap<>();
+        private final List<CompletableFuture<?>> futures = new ArrayList<>();
+
+        <T> CompletableFuture<T> run(String name, Supplier<T> query) {
+            CompletableFuture<T> future = CompletableFuture.supplyAsync(() -> {
+                long sectionStarted = System.nanoTime();
+                try {
+                    return query.get();
+                } finally {
+                    latencies.put(name, (System.nanoTime() - sectionStarted) / 1_000_000);
+                }
+            }, executor);
+            futures.add(future);
+            return future;
+        }
+
+        CompletableFuture<Void> all() {
+            return CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new));
+        }
+
+        Map<String, Object> meta() {
+            Map<String, Object> meta = new LinkedHashMap<>();
+            meta.put("sectionsMs", new TreeMap<>(latencies));
+            meta.put("totalMs", (System.nanoTime() - started) / 1_000_000);
+            meta.put("generatedAt", Instant.now());
+            return meta;
+        }
+    }
+}
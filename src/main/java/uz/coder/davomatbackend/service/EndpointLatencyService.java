@@ -0,0 +1,85 @@
+package uz.coder.davomatbackend.service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import uz.coder.davomatbackend.model.EndpointLatency;
+
+/**
+ * Controller metodlari kechikishi: har metod uchun bitta Micrometer Timer ({@value #METRIC}, endpoint tegi).
+ * Timer ichida HdrHistogram yozuvchisi bloklamaydi; percentillar {@code window} uzunlikdagi sirpanuvchi oynadan,
+ * oyna {@code buffer-length} qadamda suriladi. Actuator da /actuator/metrics/{@value #METRIC} orqali ham ko'rinadi.
+ */
+@Component
+public class EndpointLatencyService {
+
+    public static final String METRIC = "app.endpoint.latency";
+
+    private static final double[] PERCENTILES = {0.5, 0.95, 0.99};
+
+    private final MeterRegistry meterRegistry;
+    private final Duration window;
+    private final int bufferLength;
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+
+    public EndpointLatencyService(MeterRegistry meterRegistry,
+                                  @Value("${app.metrics.endpoint-latency.window:5m}") Duration window,
+                                  @Value("${app.metrics.endpoint-latency.buffer-length:5}") int bufferLength) {
+        this.meterRegistry = meterRegistry;
+        this.window = window;
+        this.bufferLength = bufferLength;
+    }
+
+    public void record(String endpoint, long nanos) {
+        Timer timer = timers.get(endpoint);
+        if (timer == null) {
+            timer = timers.computeIfAbsent(endpoint, this::register);
+        }
+        timer.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Har endpoint uchun oynadagi p50/p95/p99/max, eng sekin p99 birinchi.
+     */
+    public List<EndpointLatency> getLatencies() {
+        List<EndpointLatency> latencies = new ArrayList<>(timers.size());
+        timers.forEach((endpoint, timer) -> {
+            HistogramSnapshot snapshot = timer.takeSnapshot();
+            double[] values = new double[PERCENTILES.length];
+            for (ValueAtPercentile value : snapshot.percentileValues()) {
+                for (int i = 0; i < PERCENTILES.length; i++) {
+                    if (value.percentile() == PERCENTILES[i]) {
+                        values[i] = value.value(TimeUnit.MILLISECONDS);
+                    }
+                }
+            }
+            latencies.add(new EndpointLatency(endpoint, snapshot.count(),
+                    values[0], values[1], values[2], snapshot.max(TimeUnit.MILLISECONDS)));
+        });
+        latencies.sort(Comparator.comparingDouble(EndpointLatency::p99).reversed());
+        return latencies;
+    }
+
+    private Timer register(String endpoint) {
+        return Timer.builder(METRIC)
+                .description("Controller method latency")
+                .tag("endpoint", endpoint)
+                .publishPercentiles(PERCENTILES)
+                .percentilePrecision(2)
+                .distributionStatisticExpiry(window)
+                .distributionStatisticBufferLength(bufferLength)
+                .register(meterRegistry);
+    }
+}
@@ -4,6 +4,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import uz.coder.davomatbackend.db.GroupDatabase;
 import uz.coder.davomatbackend.db.model.GroupDbModel;
 import uz.coder.davomatbackend.model.Group;
@@ -14,17 +15,21 @@ import static uz.coder.davomatbackend.todo.Strings.THERE_IS_NO_SUCH_A_GROUP;
 @Service
 public class GroupService {
     private final GroupDatabase database;
+    private final AttendanceRollupService attendanceRollupService;
 
     @Autowired
-    public GroupService(GroupDatabase database) {
+    public GroupService(GroupDatabase database, AttendanceRollupService attendanceRollupService) {
         this.database = database;
+        this.attendanceRollupService = attendanceRollupService;
     }
     public Group save(Group group) {
         GroupDbModel save = database.save(new GroupDbModel(group.getTitle(), group.getCourseId()));
         return new Group(save.getId(), save.getTitle(), save.getCourseId());
     }
+    @Transactional
     public Group edit(Group group) {
         database.update(group.getId(), group.getTitle(), group.getCourseId());
+        attendanceRollupService.onGroupChanged(group.getId(), group.getCourseId());
         GroupDbModel save = database.findById(group.getId()).orElseThrow(()->new IllegalArgumentException(THERE_IS_NO_SUCH_A_GROUP));
         return new Group(save.getId(), save.getTitle(), save.getCourseId());
     }
@@ -32,9 +37,11 @@ public class GroupService {
         GroupDbModel group = database.findById(id).orElseThrow(()->new IllegalArgumentException(THERE_IS_NO_SUCH_A_GROUP));
         return new Group(group.getId(), group.getTitle(), group.getCourseId());
     }
+    @Transactional
     public int deleteById(long id) {
         if (database.existsById(id)){
             database.deleteById(id);
+            attendanceRollupService.onGroupDeleted(id);
             return 1;
         }else {
             return 0;
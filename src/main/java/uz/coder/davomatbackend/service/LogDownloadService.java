@@ -0,0 +1,164 @@
+package uz.coder.davomatbackend.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Log fayllarini xom holda yuboradi. Tomcat sendfile ni qo'llasa fayl yozishni connector ga topshiradi
+ * (FileChannel.transferTo, heap ishlatilmaydi), aks holda transferTo javob kanaliga yoziladi.
+ * Bitta "Range: bytes=..." oralig'i va Accept-Encoding: gzip (Range bo'lmaganda) qo'llab-quvvatlanadi.
+ */
+@Service
+public class LogDownloadService {
+
+    private static final String LOG_DIR = "logs";
+    // Faqat logback yozadigan fayllar: faol fayl va rotatsiya qilingan arxivlar
+    private static final Pattern LOG_FILE = Pattern.compile("(davomat-app|error|security)(\\.[0-9.-]+)?\\.log(\\.gz)?|(davomat-app|error|security)\\.log\\.[0-9.-]+\\.gz");
+    private static final Pattern RANGE = Pattern.compile("bytes=(\\d{0,18})-(\\d{0,18})");
+    static final long[] UNSATISFIABLE = new long[0];
+
+    // org.apache.catalina.Globals dagi sendfile atributlari
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    public List<Map<String, Object>> listFiles() throws IOException {
+        List<Map<String, Object>> files = new ArrayList<>();
+        Path dir = Paths.get(LOG_DIR);
+        if (!Files.isDirectory(dir)) return files;
+        try (Stream<Path> paths = Files.list(dir)) {
+            for (Path path : paths.sorted(Comparator.comparing(Path::getFileName)).toList()) {
+                if (!LOG_FILE.matcher(path.getFileName().toString()).matches()) continue;
+                Map<String, Object> file = new LinkedHashMap<>();
+                file.put("name", path.getFileName().toString());
+                file.put("size", Files.size(path));
+                file.put("lastModified", Files.getLastModifiedTime(path).toInstant());
+                files.add(file);
+            }
+        }
+        return files;
+    }
+
+    /**
+     * Faqat logs/ ichidagi log fayllari nomi bo'yicha topiladi; boshqa nom yoki yo'l IllegalArgumentException beradi.
+     */
+    public Path resolve(String name) {
+        if (name == null || !LOG_FILE.matcher(name).matches()) {
+            throw new IllegalArgumentException("Unknown log file: " + name);
+        }
+        Path path = Paths.get(LOG_DIR, name);
+        if (!Files.isRegularFile(path)) {
+            throw new IllegalArgumentException("Log file not found: " + name);
+        }
+        return path;
+    }
+
+    public void send(Path file, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        // Faol fayl o'sib boradi: so'rov boshidagi o'lcham yuboriladi
+        long size = Files.size(file);
+        String name = file.getFileName().toString();
+        boolean archive = name.endsWith(".gz");
+
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + name + "\"");
+        response.setDateHeader(HttpHeaders.LAST_MODIFIED, Files.getLastModifiedTime(file).toMillis());
+        response.setContentType(archive ? "application/gzip" : "text/plain;charset=UTF-8");
+
+        long start = 0;
+        long end = size - 1;
+        long[] range = parseRange(request.getHeader(HttpHeaders.RANGE), size);
+        if (range == UNSATISFIABLE) {
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + size);
+            response.setStatus(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE.value());
+            return;
+        }
+        if (range != null) {
+            start = range[0];
+            end = range[1];
+            response.setStatus(HttpStatus.PARTIAL_CONTENT.value());
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + size);
+        }
+        long length = Math.max(0, end - start + 1);
+
+        if (range == null && !archive && acceptsGzip(request)) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+            response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+            try (GZIPOutputStream gzip = new GZIPOutputStream(response.getOutputStream(), 64 * 1024)) {
+                transfer(file, start, length, gzip);
+            }
+            return;
+        }
+
+        response.setContentLengthLong(length);
+        if (length > 0 && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            request.setAttribute(SENDFILE_FILENAME, file.toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, start + length);
+            return;
+        }
+        transfer(file, start, length, response.getOutputStream());
+    }
+
+    /**
+     * Bitta "bytes=a-b", "bytes=a-" yoki "bytes=-n" oralig'i. Sarlavha yo'q yoki bir nechta oraliq bo'lsa null
+     * (butun fayl), fayl tashqarisidagi oraliq uchun UNSATISFIABLE.
+     */
+    static long[] parseRange(String header, long size) {
+        if (header == null) return null;
+        Matcher matcher = RANGE.matcher(header.trim());
+        if (!matcher.matches() || (matcher.group(1).isEmpty() && matcher.group(2).isEmpty())) return null;
+
+        long start;
+        long end = size - 1;
+        if (matcher.group(1).isEmpty()) {
+            start = Math.max(0, size - Long.parseLong(matcher.group(2)));
+        } else {
+            start = Long.parseLong(matcher.group(1));
+            if (!matcher.group(2).isEmpty()) end = Math.min(end, Long.parseLong(matcher.group(2)));
+        }
+        return start >= size || start > end ? UNSATISFIABLE : new long[]{start, end};
+    }
+
+    private static boolean acceptsGzip(HttpServletRequest request) {
+        String accept = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        return accept != null && accept.toLowerCase().contains("gzip");
+    }
+
+    private static void transfer(Path file, long start, long length, OutputStream out) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            WritableByteChannel target = Channels.newChannel(out);
+            long position = start;
+            long remaining = length;
+            while (remaining > 0) {
+                long written = channel.transferTo(position, remaining, target);
+                if (written <= 0) break;
+                position += written;
+                remaining -= written;
+            }
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package uz.coder.davomatbackend.service;
+
+import java.io.IOException;
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * Bitta log fayli uchun siyrak qator indeksi: har daraja (va "ALL") bo'yicha yozuvlar soni hamda har
+ * {@value #CHECKPOINT_INTERVAL}-yozuv boshlanadigan bayt offseti. Indeks fayl boshidan hisoblanadi, shuning uchun
+ * faylga yangi qatorlar qo'shilganda o'zgarmaydi va faqat qo'shilgan baytlar o'qiladi. Fayl almashtirilsa
+ * (rotatsiya - boshqa fileKey), qisqarsa yoki boshidagi baytlar o'zgarsa (tozalangandan keyin indeksdan
+ * kattaroq bo'lib qayta yozilgan) indeks boshidan quriladi.
+ */
+final class LogLineIndex {
+
+    static final int CHECKPOINT_INTERVAL = 1000;
+    static final String ALL = "ALL";
+
+    // Fayl boshidagi shuncha bayt indeks bilan birga saqlanadi va har refresh da solishtiriladi
+    static final int FINGERPRINT_SIZE = 256;
+
+    /** Teskari o'qishni shu offsetdan boshlab, birinchi {@code skip} ta mos yozuvni tashlab yuborish kerak */
+    record Position(long offset, long skip) {
+    }
+
+    private static final class Counter {
+        long count;
+        final List<Long> checkpoints = new ArrayList<>();
+    }
+
+    /** Qator -> daraja, yozuv boshi bo'lmagan (davom) qatorlar uchun null */
+    private final Function<String, String> levelOf;
+    private final Map<String, Counter> counters = new HashMap<>();
+    private Object fileKey;
+    private long indexedSize;
+    private byte[] fingerprint = new byte[0];
+
+    LogLineIndex(Function<String, String> levelOf) {
+        this.levelOf = levelOf;
+    }
+
+    /**
+     * Eng yangisidan hisoblaganda {@code offset}-o'rindagi yozuvga eng yaqin nazorat nuqtasini qaytaradi.
+     * Bunday yozuv bo'lmasa null.
+     */
+    synchronized Position locate(Path file, String key, long offset) throws IOException {
+        refresh(file);
+        Counter counter = counters.get(key);
+        long total = counter == null ? 0 : counter.count;
+        if (offset >= total) return null;
+
+        long ordinal = total - 1 - offset;
+        int checkpoint = (int) (ordinal / CHECKPOINT_INTERVAL) + 1;
+        if (checkpoint < counter.checkpoints.size()) {
+            long checkpointOrdinal = (long) checkpoint * CHECKPOINT_INTERVAL;
+            return new Position(counter.checkpoints.get(checkpoint), checkpointOrdinal - 1 - ordinal);
+        }
+        return new Position(indexedSize, offset);
+    }
+
+    private void refresh(Path file) throws IOException {
+        BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+        if (!Objects.equals(attributes.fileKey(), fileKey) || attributes.size() < indexedSize
+                || !Arrays.equals(fingerprint, readHead(file, fingerprint.length))) {
+            counters.clear();
+            indexedSize = 0;
+            fingerprint = new byte[0];
+            fileKey = attributes.fileKey();
+        }
+        if (attributes.size() > indexedSize) {
+            extend(file, attributes.size());
+            if (fingerprint.length < FINGERPRINT_SIZE && indexedSize > fingerprint.length) {
+                fingerprint = readHead(file, (int) Math.min(FINGERPRINT_SIZE, indexedSize));
+            }
+        }
+    }
+
+    /** Fayl boshidagi {@code length} bayt; fayl qisqaroq bo'lsa borini qaytaradi */
+    private static byte[] readHead(Path file, int length) throws IOException {
+        if (length == 0) return new byte[0];
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocate(length);
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, buffer.position()) < 0) break;
+            }
+            return Arrays.copyOf(buffer.array(), buffer.position());
+        }
+    }
+
+    /** indexedSize dan size gacha bo'lgan to'liq ('\n' bilan tugagan) qatorlarni indeksga qo'shadi */
+    private void extend(Path file, long size) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocate(ReverseLineReader.BLOCK_SIZE);
+            ByteArrayOutputStream line = new ByteArrayOutputStream(256);
+            long position = indexedSize;
+            long lineStart = indexedSize;
+            while (position < size) {
+                buffer.clear();
+                buffer.limit((int) Math.min(buffer.capacity(), size - position));
+                int read = channel.read(buffer, position);
+                if (read <= 0) break;
+                byte[] bytes = buffer.array();
+                int from = 0;
+                for (int i = 0; i < read; i++) {
+                    if (bytes[i] != '\n') continue;
+                    line.write(bytes, from, i - from);
+                    accept(lineStart, line.toString(StandardCharsets.UTF_8));
+                    line.reset();
+                    from = i + 1;
+                    lineStart = position + from;
+                }
+                line.write(bytes, from, read - from);
+                position += read;
+            }
+            indexedSize = lineStart;
+        }
+    }
+
+    private void accept(long offset, String line) {
+        String level = levelOf.apply(line);
+        if (level == null) return;
+        count(ALL, offset);
+        count(level, offset);
+    }
+
+    private void count(String key, long offset) {
+        Counter counter = counters.computeIfAbsent(key, k -> new Counter());
+        if (counter.count % CHECKPOINT_INTERVAL == 0) {
+            counter.checkpoints.add(offset);
+        }
+        counter.count++;
+    }
+}
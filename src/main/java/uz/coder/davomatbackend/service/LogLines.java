@@ -0,0 +1,83 @@
+package uz.coder.davomatbackend.service;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * logback-spring.xml dagi "%d{yyyy-MM-dd HH:mm:ss} [%thread] %-5level %logger{36} - %msg%n" qatorlarini tahlil qiladi.
+ */
+final class LogLines {
+
+    private static final Set<String> LEVELS = Set.of("ERROR", "WARN", "INFO", "DEBUG", "TRACE");
+
+    private LogLines() {
+    }
+
+    /** Yozuv boshi bo'lsa uning darajasi, aks holda null */
+    static String levelOf(String line) {
+        return isEntryStart(line) ? parseLevel(line) : null;
+    }
+
+    // Har yozuv "yyyy-MM-dd HH:mm:ss " bilan boshlanadi (logback-spring.xml dagi pattern)
+    static boolean isEntryStart(String line) {
+        if (line.length() < 20) return false;
+        for (int i = 0; i < 19; i++) {
+            char c = line.charAt(i);
+            boolean ok = switch (i) {
+                case 4, 7 -> c == '-';
+                case 10 -> c == ' ';
+                case 13, 16 -> c == ':';
+                default -> c >= '0' && c <= '9';
+            };
+            if (!ok) return false;
+        }
+        return line.charAt(19) == ' ';
+    }
+
+    private static String parseLevel(String line) {
+        // Pattern: timestamp [thread] LEVEL logger - message
+        int threadEnd = line.indexOf("] ", 20);
+        if (threadEnd > 0) {
+            int from = threadEnd + 2;
+            int to = line.indexOf(' ', from);
+            String token = (to > 0 ? line.substring(from, to) : line.substring(from)).trim();
+            if (LEVELS.contains(token)) return token;
+        }
+        if (line.contains("ERROR")) return "ERROR";
+        if (line.contains("WARN")) return "WARN";
+        if (line.contains("DEBUG")) return "DEBUG";
+        return "INFO";
+    }
+
+    static Map<String, String> parse(String line) {
+        try {
+            // Expected format: 2026-02-27 00:31:56 [thread] LEVEL logger - message
+            if (!isEntryStart(line)) {
+                return null;
+            }
+
+            Map<String, String> entry = new HashMap<>();
+            
+            // Extract timestamp
+            String timestamp = line.substring(0, 19);
+            entry.put("timestamp", timestamp);
+
+            // Extract level
+            entry.put("level", parseLevel(line));
+
+            // Extract message (everything after the logger name)
+            int messageStart = line.indexOf(" - ");
+            if (messageStart > 0) {
+                String message = line.substring(messageStart + 3);
+                entry.put("message", message);
+            } else {
+                entry.put("message", line.substring(20));
+            }
+
+            return entry;
+        } catch (Exception e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,231 @@
+package uz.coder.davomatbackend.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+
+import org.springframework.stereotype.Service;
+
+import uz.coder.davomatbackend.model.LogSearchQuery;
+
+/**
+ * Faol log fayli va uning rotatsiya qilingan arxivlarini (logs/davomat-app.2026-02-27.log, ....log.gz)
+ * eng yangisidan boshlab bitta oqim sifatida qidiradi. Vaqt oralig'iga to'g'ri kelmaydigan segmentlar nomidagi
+ * sanadan aniqlanib umuman ochilmaydi, topilgan yozuvlar darhol iste'molchiga beriladi.
+ */
+@Service
+public class LogSearchService {
+
+    public static final int MAX_LIMIT = 10_000;
+
+    private static final String LOG_DIR = "logs";
+    private static final Map<String, String> TYPES = Map.of("all", "davomat-app", "error", "error", "security", "security");
+    private static final DateTimeFormatter TIMESTAMP = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    public interface EntryConsumer {
+        void accept(Map<String, String> entry) throws IOException;
+    }
+
+    /** Arxiv segmenti: day - fayl nomidagi sana (faol fayl uchun null), part - o'lcham bo'yicha bo'lak raqami */
+    private record Segment(Path path, LocalDate day, int part, boolean gzip) {
+    }
+
+    /**
+     * type: all (davomat-app), error yoki security. Topilgan yozuvlar soni qaytariladi.
+     */
+    public int search(String type, LogSearchQuery query, EntryConsumer consumer) throws IOException {
+        String baseName = baseName(type);
+        String level = query.level() == null || "all".equalsIgnoreCase(query.level())
+                ? null : query.level().toUpperCase(Locale.ROOT);
+        String text = query.text() == null || query.text().isBlank() ? null : query.text().toLowerCase(Locale.ROOT);
+        String fromKey = query.from() == null ? null : query.from().format(TIMESTAMP);
+        String toKey = query.to() == null ? null : query.to().format(TIMESTAMP);
+        Search search = new Search(level, text, fromKey, toKey, Math.min(Math.max(query.limit(), 1), MAX_LIMIT), consumer);
+
+        for (Segment segment : segments(baseName)) {
+            if (search.remaining() == 0) break;
+            if (segment.day() != null) {
+                // Arxivda faqat shu kunning yozuvlari bo'ladi
+                if (query.to() != null && segment.day().isAfter(query.to().toLocalDate())) continue;
+                if (query.from() != null && segment.day().isBefore(query.from().toLocalDate())) break;
+            }
+            boolean older = segment.gzip() ? scanForward(segment, search) : scanReverse(segment, search);
+            if (!older) break;
+        }
+        return search.emitted;
+    }
+
+    public boolean supports(String type) {
+        return type == null || TYPES.containsKey(type.toLowerCase(Locale.ROOT));
+    }
+
+    private static String baseName(String type) {
+        String baseName = TYPES.get(type == null ? "all" : type.toLowerCase(Locale.ROOT));
+        if (baseName == null) {
+            throw new IllegalArgumentException("Unknown log type: " + type);
+        }
+        return baseName;
+    }
+
+    /** Faol fayl birinchi, keyin arxivlar sana (va bo'lak raqami) bo'yicha kamayish tartibida */
+    private static List<Segment> segments(String baseName) throws IOException {
+        Path dir = Paths.get(LOG_DIR);
+        List<Segment> archives = new ArrayList<>();
+        if (Files.isDirectory(dir)) {
+            // logback-spring.xml: name.yyyy-MM-dd.log; Spring Boot default: name.log.yyyy-MM-dd.N.gz
+            Pattern pattern = Pattern.compile(Pattern.quote(baseName)
+                    + "(?:\\.log)?\\.(\\d{4}-\\d{2}-\\d{2})(?:\\.(\\d+))?(?:\\.log)?(\\.gz)?");
+            try (Stream<Path> files = Files.list(dir)) {
+                files.forEach(file -> {
+                    Matcher matcher = pattern.matcher(file.getFileName().toString());
+                    if (matcher.matches()) {
+                        archives.add(new Segment(file, LocalDate.parse(matcher.group(1)),
+                                matcher.group(2) == null ? 0 : Integer.parseInt(matcher.group(2)),
+                                matcher.group(3) != null));
+                    }
+                });
+            }
+        }
+        archives.sort(Comparator.comparing(Segment::day).thenComparingInt(Segment::part).reversed());
+
+        List<Segment> segments = new ArrayList<>();
+        Path active = dir.resolve(baseName + ".log");
+        if (Files.exists(active)) {
+            segments.add(new Segment(active, null, 0, false));
+        }
+        segments.addAll(archives);
+        return segments;
+    }
+
+    /**
+     * Siqilmagan faylni oxiridan o'qiydi. Yozuvlar from dan eskiroq bo'lib qolsa false (keyingi segmentlar ham eski).
+     */
+    private static boolean scanReverse(Segment segment, Search search) throws IOException {
+        try (ReverseLineReader reader = new ReverseLineReader(segment.path(), Long.MAX_VALUE)) {
+            List<String> continuation = new ArrayList<>();
+            String line;
+            while (search.remaining() > 0 && (line = reader.readLine()) != null) {
+                if (line.isEmpty()) continue;
+                Map<String, String> entry = LogLines.parse(line);
+                if (entry == null) {
+                    continuation.add(line);
+                    continue;
+                }
+                if (search.before(entry)) return false;
+                if (!continuation.isEmpty()) {
+                    Collections.reverse(continuation);
+                    entry.put("details", String.join("\n", continuation));
+                    continuation.clear();
+                }
+                if (!search.after(entry) && search.matches(entry)) {
+                    search.emit(entry, segment);
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * .gz arxivni oldinga qarab ochib o'qiydi (gzip teskari o'qilmaydi). Xotirada faqat oxirgi
+     * {@code remaining} ta mos yozuv saqlanadi, so'ng ular eng yangisidan boshlab beriladi.
+     */
+    private static boolean scanForward(Segment segment, Search search) throws IOException {
+        Deque<Map<String, String>> newest = new ArrayDeque<>();
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(segment.path()), 64 * 1024);
+             BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), 64 * 1024)) {
+            Map<String, String> entry = null;
+            StringBuilder details = new StringBuilder();
+            String line;
+            while (true) {
+                line = reader.readLine();
+                Map<String, String> next = line == null ? null : LogLines.parse(line);
+                if (line != null && next == null) {
+                    if (entry != null) details.append(details.isEmpty() ? "" : "\n").append(line);
+                    continue;
+                }
+                if (entry != null) {
+                    if (!details.isEmpty()) entry.put("details", details.toString());
+                    if (!search.before(entry) && search.matches(entry)) {
+                        newest.addLast(entry);
+                        if (newest.size() > search.remaining()) newest.removeFirst();
+                    }
+                }
+                details.setLength(0);
+                entry = next;
+                if (entry == null || search.after(entry)) break;
+            }
+        }
+        for (Iterator<Map<String, String>> it = newest.descendingIterator(); it.hasNext(); ) {
+            search.emit(it.next(), segment);
+        }
+        return true;
+    }
+
+    private static final class Search {
+
+        private final String level;
+        private final String text;
+        private final String fromKey;
+        private final String toKey;
+        private final int limit;
+        private final EntryConsumer consumer;
+        private int emitted;
+
+        private Search(String level, String text, String fromKey, String toKey, int limit, EntryConsumer consumer) {
+            this.level = level;
+            this.text = text;
+            this.fromKey = fromKey;
+            this.toKey = toKey;
+            this.limit = limit;
+            this.consumer = consumer;
+        }
+
+        int remaining() {
+            return limit - emitted;
+        }
+
+        // "yyyy-MM-dd HH:mm:ss" satrlari leksikografik tartibda vaqt bo'yicha ham tartiblangan
+        boolean before(Map<String, String> entry) {
+            return fromKey != null && entry.get("timestamp").compareTo(fromKey) < 0;
+        }
+
+        boolean after(Map<String, String> entry) {
+            return toKey != null && entry.get("timestamp").compareTo(toKey) > 0;
+        }
+
+        boolean matches(Map<String, String> entry) {
+            if (level != null && !level.equals(entry.get("level"))) return false;
+            if (text == null) return true;
+            if (entry.get("message").toLowerCase(Locale.ROOT).contains(text)) return true;
+            String details = entry.get("details");
+            return details != null && details.toLowerCase(Locale.ROOT).contains(text);
+        }
+
+        void emit(Map<String, String> entry, Segment segment) throws IOException {
+            if (remaining() == 0) return;
+            entry.put("file", segment.path().getFileName().toString());
+            consumer.accept(entry);
+            emitted++;
+        }
+    }
+}
@@ -5,14 +5,12 @@ import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 
-import java.io.BufferedReader;
-import java.io.File;
-import java.io.FileReader;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Service
 public class LogService {
@@ -20,6 +18,9 @@ public class LogService {
     private static final Logger logger = LoggerFactory.getLogger(LogService.class);
     private static final String LOG_DIR = "logs";
 
+    // Fayl yo'li -> siyrak qator indeksi (faqat chuqur sahifalar uchun quriladi)
+    private final Map<Path, LogLineIndex> indexes = new ConcurrentHashMap<>();
+
     public List<Map<String, String>> getRecentLogs(Pageable pageable, String level) {
         return readLogFile("davomat-app.log", pageable, level);
     }
@@ -32,47 +33,58 @@ public class LogService {
         return readLogFile("error.log", pageable, "all");
     }
 
+    /**
+     * Faylni oxiridan bloklab o'qiydi va faqat so'ralgan sahifa uchun kerakli qatorlarni dekodlaydi.
+     * Chuqur sahifalar ({@link LogLineIndex#CHECKPOINT_INTERVAL} dan uzoq) siyrak indeksdagi eng yaqin
+     * nazorat nuqtasidan boshlanadi. Yozuv boshi bo'lmagan qatorlar (stack trace) "details" ga qo'shiladi.
+     */
     private List<Map<String, String>> readLogFile(String filename, Pageable pageable, String levelFilter) {
         List<Map<String, String>> logs = new ArrayList<>();
-        File logFile = new File(LOG_DIR, filename);
+        Path logPath = Paths.get(LOG_DIR, filename);
 
-        if (!logFile.exists()) {
+        if (!Files.exists(logPath)) {
             logger.warn("Log file not found: {}", filename);
             return logs;
         }
 
-        try (BufferedReader reader = new BufferedReader(new FileReader(logFile))) {
-            List<String> lines = new ArrayList<>();
-            String line;
-            
-            // Read all lines
-            while ((line = reader.readLine()) != null) {
-                lines.add(line);
+        String key = "all".equalsIgnoreCase(levelFilter) ? LogLineIndex.ALL : levelFilter.toUpperCase(Locale.ROOT);
+        try {
+            long startOffset = Long.MAX_VALUE;
+            long skip = pageable.getOffset();
+            if (skip >= LogLineIndex.CHECKPOINT_INTERVAL) {
+                LogLineIndex index = indexes.computeIfAbsent(logPath.toAbsolutePath(), p -> new LogLineIndex(LogLines::levelOf));
+                LogLineIndex.Position position = index.locate(logPath, key, skip);
+                if (position == null) {
+                    return logs;
+                }
+                startOffset = position.offset();
+                skip = position.skip();
             }
 
-            // Reverse to show newest first
-            Collections.reverse(lines);
-
-            // Parse and filter logs
-            List<Map<String, String>> allLogs = new ArrayList<>();
-            for (String logLine : lines) {
-                Map<String, String> logEntry = parseLogLine(logLine);
-                if (logEntry != null) {
-                    if ("all".equalsIgnoreCase(levelFilter) || 
-                        levelFilter.equalsIgnoreCase(logEntry.get("level"))) {
-                        allLogs.add(logEntry);
+            try (ReverseLineReader reader = new ReverseLineReader(logPath, startOffset)) {
+                List<String> continuation = new ArrayList<>();
+                String line;
+                while (logs.size() < pageable.getPageSize() && (line = reader.readLine()) != null) {
+                    if (line.isEmpty()) continue;
+                    Map<String, String> logEntry = LogLines.parse(line);
+                    if (logEntry == null) {
+                        continuation.add(line);
+                        continue;
+                    }
+                    if (LogLineIndex.ALL.equals(key) || key.equals(logEntry.get("level"))) {
+                        if (skip > 0) {
+                            skip--;
+                        } else {
+                            if (!continuation.isEmpty()) {
+                                Collections.reverse(continuation);
+                                logEntry.put("details", String.join("\n", continuation));
+                            }
+                            logs.add(logEntry);
+                        }
                     }
+                    continuation.clear();
                 }
             }
-
-            // Apply pagination
-            int start = (int) pageable.getOffset();
-            int end = Math.min(start + pageable.getPageSize(), allLogs.size());
-            
-            if (start < allLogs.size()) {
-                logs = allLogs.subList(start, end);
-            }
-
         } catch (IOException e) {
             logger.error("Error reading log file: {}", filename, e);
         }
@@ -80,41 +92,6 @@ public class LogService {
         return logs;
     }
 
-    private Map<String, String> parseLogLine(String line) {
-        try {
-            // Expected format: 2026-02-27 00:31:56 [thread] LEVEL logger - message
-            if (line.length() < 20) {
-                return null;
-            }
-
-            Map<String, String> entry = new HashMap<>();
-            
-            // Extract timestamp
-            String timestamp = line.substring(0, 19);
-            entry.put("timestamp", timestamp);
-
-            // Extract level
-            String level = "INFO";
-            if (line.contains("ERROR")) level = "ERROR";
-            else if (line.contains("WARN")) level = "WARN";
-            else if (line.contains("DEBUG")) level = "DEBUG";
-            entry.put("level", level);
-
-            // Extract message (everything after the logger name)
-            int messageStart = line.indexOf(" - ");
-            if (messageStart > 0) {
-                String message = line.substring(messageStart + 3);
-                entry.put("message", message);
-            } else {
-                entry.put("message", line.substring(20));
-            }
-
-            return entry;
-        } catch (Exception e) {
-            return null;
-        }
-    }
-
     public boolean clearLogs(String type) {
         try {
             String filename;
@@ -135,6 +112,7 @@ public class LogService {
             Path logPath = Paths.get(LOG_DIR, filename);
             if (Files.exists(logPath)) {
                 Files.write(logPath, new byte[0]);
+                indexes.remove(logPath.toAbsolutePath());
                 logger.info("Cleared log file: {}", filename);
                 return true;
             }
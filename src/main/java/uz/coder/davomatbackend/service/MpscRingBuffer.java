@@ -0,0 +1,73 @@
+package uz.coder.davomatbackend.service;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Chegaralangan, lock-free halqa bufer: ko'p yozuvchi, bitta o'quvchi.
+ * Har bir katak o'z ketma-ketlik raqamiga ega (D. Vyukov sxemasi): yozuvchi katakni CAS bilan band qiladi,
+ * qiymatni qo'yib raqamni oshiradi, o'quvchi faqat e'lon qilingan kataklarni oladi.
+ * Bufer to'lsa {@link #offer} kutmasdan {@code false} qaytaradi.
+ */
+final class MpscRingBuffer<E> {
+
+    private final int mask;
+    private final AtomicReferenceArray<E> slots;
+    private final AtomicLongArray sequences;
+    private final AtomicLong tail = new AtomicLong();
+    private final AtomicLong head = new AtomicLong();
+
+    MpscRingBuffer(int capacity) {
+        // Sig'im 2 ning darajasiga yaxlitlanadi: indeks = pos & mask
+        int size = capacity <= 2 ? 2 : Integer.highestOneBit(capacity - 1) << 1;
+        this.mask = size - 1;
+        this.slots = new AtomicReferenceArray<>(size);
+        this.sequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    boolean offer(E element) {
+        long pos = tail.get();
+        int index;
+        while (true) {
+            index = (int) (pos & mask);
+            long diff = sequences.get(index) - pos;
+            if (diff == 0) {
+                if (tail.compareAndSet(pos, pos + 1)) break;
+                pos = tail.get();
+            } else if (diff < 0) {
+                return false;
+            } else {
+                pos = tail.get();
+            }
+        }
+        slots.lazySet(index, element);
+        sequences.set(index, pos + 1);
+        return true;
+    }
+
+    /** Faqat bitta o'quvchi thread chaqiradi */
+    E poll() {
+        long pos = head.get();
+        int index = (int) (pos & mask);
+        if (sequences.get(index) != pos + 1) {
+            return null;
+        }
+        E element = slots.get(index);
+        slots.lazySet(index, null);
+        sequences.set(index, pos + mask + 1);
+        head.lazySet(pos + 1);
+        return element;
+    }
+
+    int size() {
+        return (int) Math.max(0, tail.get() - head.get());
+    }
+
+    int capacity() {
+        return mask + 1;
+    }
+}
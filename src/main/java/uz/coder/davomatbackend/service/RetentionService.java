@@ -0,0 +1,292 @@
+package uz.coder.davomatbackend.service;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import uz.coder.davomatbackend.db.RetentionDatabase;
+import uz.coder.davomatbackend.db.RetentionDatabase.Chunk;
+import uz.coder.davomatbackend.db.RetentionDatabase.Position;
+import uz.coder.davomatbackend.db.model.AttendanceDbModel;
+import uz.coder.davomatbackend.model.AttendanceDelta;
+import uz.coder.davomatbackend.model.RetentionStatus;
+
+/**
+ * Eskirgan yozuvlarni fonda, kichik bo'laklarda o'chiradi. Har bo'lak alohida qisqa tranzaksiya
+ * ({@code chunk-size} qator), bo'laklar orasida {@code pause} kutiladi, bitta ish {@code max-run-time} dan
+ * oshsa qolgani keyingi ishga qoldiriladi - shu tariqa qulflar va WAL jonli so'rovlarga xalaqit bermaydi.
+ * system_logs partitsiyalangan bo'lsa avval butunlay eskirgan oylar partitsiyasi bilan o'chiriladi.
+ * Bir vaqtda faqat bitta ish bajariladi. Qo'lda boshlangan ishlar retentionExecutor da fonda ketadi,
+ * natijasi {@link #getStatus()} da ko'rinadi.
+ */
+@Slf4j
+@Service
+public class RetentionService {
+
+    public static final String SYSTEM_LOGS = "system-logs";
+    public static final String ATTENDANCE = "attendance";
+
+    private final RetentionDatabase retentionDatabase;
+    private final SystemLogPartitionService systemLogPartitionService;
+    private final AttendanceRollupService attendanceRollupService;
+    private final SystemLogStatistics systemLogStatistics;
+    private final TransactionTemplate transactionTemplate;
+    private final AsyncTaskExecutor retentionExecutor;
+    private final MeterRegistry meterRegistry;
+    private final boolean enabled;
+    private final int chunkSize;
+    private final Duration pause;
+    private final Duration maxRunTime;
+    private final Map<String, PolicyState> policies = new LinkedHashMap<>();
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    public RetentionService(RetentionDatabase retentionDatabase,
+                            SystemLogPartitionService systemLogPartitionService,
+                            AttendanceRollupService attendanceRollupService,
+                            SystemLogStatistics systemLogStatistics,
+                            TransactionTemplate transactionTemplate,
+                            @Qualifier("retentionExecutor") AsyncTaskExecutor retentionExecutor,
+                            MeterRegistry meterRegistry,
+                            @Value("${app.retention.enabled:true}") boolean enabled,
+                            @Value("${app.retention.chunk-size:5000}") int chunkSize,
+                            @Value("${app.retention.pause:200ms}") Duration pause,
+                            @Value("${app.retention.max-run-time:30m}") Duration maxRunTime,
+                            @Value("${app.retention.system-logs.days:90}") int systemLogDays,
+                            @Value("${app.retention.attendance.days:0}") int attendanceDays) {
+        this.retentionDatabase = retentionDatabase;
+        this.systemLogPartitionService = systemLogPartitionService;
+        this.attendanceRollupService = attendanceRollupService;
+        this.systemLogStatistics = systemLogStatistics;
+        this.transactionTemplate = transactionTemplate;
+        this.retentionExecutor = retentionExecutor;
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.chunkSize = chunkSize;
+        this.pause = pause;
+        this.maxRunTime = maxRunTime;
+        policies.put(SYSTEM_LOGS, new PolicyState(SYSTEM_LOGS, systemLogDays));
+        policies.put(ATTENDANCE, new PolicyState(ATTENDANCE, attendanceDays));
+
+        Gauge.builder("retention.running", running, flag -> flag.get() ? 1 : 0).register(meterRegistry);
+        for (PolicyState state : policies.values()) {
+            FunctionCounter.builder("retention.deleted", state.totalDeleted, AtomicLong::get)
+                    .tag("policy", state.policy).register(meterRegistry);
+        }
+    }
+
+    /**
+     * Kunlik ish: muddati (days) musbat bo'lgan barcha siyosatlar. Oldingi ish hali tugamagan bo'lsa o'tkazib yuboriladi.
+     */
+    @Scheduled(cron = "${app.retention.cron:0 30 3 * * *}")
+    public void runScheduled() {
+        if (!enabled) return;
+        try {
+            runAll();
+        } catch (IllegalStateException e) {
+            log.info("Scheduled retention skipped: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Barcha yoqilgan siyosatlarni ketma-ket bajaradi. Boshqa ish ketayotgan bo'lsa IllegalStateException.
+     */
+    public List<RetentionStatus> runAll() {
+        acquire();
+        try {
+            for (PolicyState state : policies.values()) {
+                if (state.retentionDays <= 0) continue;
+                LocalDateTime cutoff = LocalDate.now().minusDays(state.retentionDays).atStartOfDay();
+                state.start(cutoff);
+                if (SYSTEM_LOGS.equals(state.policy)) {
+                    purgeSystemLogs(state, cutoff);
+                } else {
+                    purgeAttendance(state, cutoff.toLocalDate());
+                }
+            }
+        } finally {
+            running.set(false);
+        }
+        return getStatus();
+    }
+
+    /**
+     * cutoff dan eski system_logs yozuvlarini fonda (bo'laklab) o'chirishni boshlaydi va boshlang'ich holatni
+     * qaytaradi; natija {@link #getStatus()} da. Boshqa ish ketayotgan bo'lsa IllegalStateException.
+     */
+    public RetentionStatus startSystemLogPurge(LocalDateTime cutoff) {
+        acquire();
+        PolicyState state = policies.get(SYSTEM_LOGS);
+        state.start(cutoff);
+        try {
+            retentionExecutor.execute(() -> {
+                try {
+                    purgeSystemLogs(state, cutoff);
+                } catch (RuntimeException e) {
+                    log.warn("Retention {} failed", SYSTEM_LOGS, e);
+                    state.finish(false, NestedExceptionUtils.getMostSpecificCause(e).getMessage());
+                } finally {
+                    running.set(false);
+                }
+            });
+        } catch (RuntimeException e) {
+            state.finish(false, "Could not start: " + e.getMessage());
+            running.set(false);
+            throw new IllegalStateException("Retention could not be started", e);
+        }
+        return state.snapshot();
+    }
+
+    public List<RetentionStatus> getStatus() {
+        List<RetentionStatus> statuses = new ArrayList<>(policies.size());
+        for (PolicyState state : policies.values()) {
+            statuses.add(state.snapshot());
+        }
+        return statuses;
+    }
+
+    private void acquire() {
+        if (!running.compareAndSet(false, true)) {
+            throw new IllegalStateException("Retention is already running");
+        }
+    }
+
+    private void purgeSystemLogs(PolicyState state, LocalDateTime cutoff) {
+        try {
+            state.partitionsDropped = systemLogPartitionService.dropPartitionsOlderThan(cutoff);
+        } catch (DataAccessException e) {
+            log.warn("Could not drop expired system_logs partitions: {}", e.getMostSpecificCause().getMessage());
+        }
+        deleteInChunks(state, after -> retentionDatabase.deleteSystemLogs(cutoff, after, chunkSize));
+        if (state.deleted > 0 || state.partitionsDropped > 0) {
+            systemLogStatistics.invalidate();
+        }
+    }
+
+    private void purgeAttendance(PolicyState state, LocalDate cutoff) {
+        deleteInChunks(state, after -> {
+            List<AttendanceDbModel> deleted = retentionDatabase.deleteAttendance(cutoff, after, chunkSize);
+            // Rollup xom davomat bilan bir tranzaksiyada kamayadi
+            attendanceRollupService.apply(deleted.stream()
+                    .map(row -> AttendanceDelta.removed(row.getStudentId(), row.getDate(), row.getStatus()))
+                    .toList());
+            Position last = deleted.stream()
+                    .map(row -> new Position(row.getDate().atStartOfDay(), row.getId()))
+                    .max(Comparator.comparing(Position::at).thenComparingLong(Position::id))
+                    .orElse(null);
+            return new Chunk(deleted.size(), last);
+        });
+    }
+
+    private void deleteInChunks(PolicyState state, ChunkDeleter deleter) {
+        Timer chunkTimer = Timer.builder("retention.chunk.duration").tag("policy", state.policy).register(meterRegistry);
+        long deadline = System.nanoTime() + maxRunTime.toNanos();
+        Position after = null;
+        try {
+            while (true) {
+                Position from = after;
+                Chunk chunk = chunkTimer.record(() -> transactionTemplate.execute(status -> deleter.delete(from)));
+                state.chunkDeleted(chunk.deleted());
+                if (chunk.deleted() < chunkSize) {
+                    state.finish(true, null);
+                    break;
+                }
+                after = chunk.last();
+                if (System.nanoTime() > deadline) {
+                    log.info("Retention {} stopped after {} (time budget), rest is left for the next run",
+                            state.policy, maxRunTime);
+                    state.finish(false, null);
+                    break;
+                }
+                Thread.sleep(pause.toMillis());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            state.finish(false, "Interrupted");
+        } catch (RuntimeException e) {
+            String message = NestedExceptionUtils.getMostSpecificCause(e).getMessage();
+            log.warn("Retention {} failed: {}", state.policy, message);
+            state.finish(false, message);
+        }
+        log.info("Retention {}: deleted {} rows in {} chunks, {} partitions dropped (cutoff {})",
+                state.policy, state.deleted, state.chunks, state.partitionsDropped, state.cutoff);
+    }
+
+    @FunctionalInterface
+    private interface ChunkDeleter {
+        Chunk delete(Position after);
+    }
+
+    /**
+     * Siyosat holati: faqat ishni bajarayotgan thread yozadi, status so'rovlari o'qiydi.
+     */
+    private static final class PolicyState {
+        private final String policy;
+        private final int retentionDays;
+        private final AtomicLong totalDeleted = new AtomicLong();
+        private volatile boolean active;
+        private volatile LocalDateTime startedAt;
+        private volatile LocalDateTime finishedAt;
+        private volatile LocalDateTime cutoff;
+        private volatile long deleted;
+        private volatile long chunks;
+        private volatile int partitionsDropped;
+        private volatile boolean complete;
+        private volatile String error;
+
+        private PolicyState(String policy, int retentionDays) {
+            this.policy = policy;
+            this.retentionDays = retentionDays;
+        }
+
+        private void start(LocalDateTime cutoff) {
+            this.cutoff = cutoff;
+            startedAt = LocalDateTime.now();
+            finishedAt = null;
+            deleted = 0;
+            chunks = 0;
+            partitionsDropped = 0;
+            complete = false;
+            error = null;
+            active = true;
+        }
+
+        private void chunkDeleted(int rows) {
+            deleted += rows;
+            chunks++;
+            totalDeleted.addAndGet(rows);
+        }
+
+        private void finish(boolean complete, String error) {
+            this.complete = complete;
+            this.error = error;
+            finishedAt = LocalDateTime.now();
+            active = false;
+        }
+
+        private RetentionStatus snapshot() {
+            return new RetentionStatus(policy, retentionDays, active, startedAt, finishedAt, cutoff,
+                    deleted, chunks, partitionsDropped, complete, error, totalDeleted.get());
+        }
+    }
+}
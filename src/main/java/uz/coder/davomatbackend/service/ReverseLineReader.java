@@ -0,0 +1,99 @@
+package uz.coder.davomatbackend.service;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Faylni berilgan offsetdan boshiga qarab, {@value #BLOCK_SIZE} baytlik bloklar bilan o'qiydi va qatorlarni
+ * teskari tartibda (eng yangisi birinchi) qaytaradi. Faqat kerakli bloklar o'qiladi va dekodlanadi.
+ * UTF-8 da '\n' bayti ko'p baytli belgi ichida uchramaydi, shuning uchun qatorlar bayt darajasida ajratiladi.
+ */
+final class ReverseLineReader implements Closeable {
+
+    static final int BLOCK_SIZE = 64 * 1024;
+
+    private static final byte[] EMPTY = new byte[0];
+
+    private final FileChannel channel;
+    private byte[] block = EMPTY;
+    /** block[0] ning fayldagi offseti */
+    private long blockStart;
+    /** block ichida hali qaytarilmagan qismning oxiri (exclusive) */
+    private int cursor;
+    /** Keyingi (fayl oxiriga yaqin) bloklardan qolgan, hali tugamagan qator dumi */
+    private byte[] carry = EMPTY;
+    private boolean done;
+
+    ReverseLineReader(Path file, long endOffset) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.READ);
+        this.blockStart = Math.max(0, Math.min(endOffset, channel.size()));
+    }
+
+    /**
+     * Navbatdagi qator ('\n' va '\r' siz) yoki fayl boshiga yetilgan bo'lsa null.
+     * endOffset '\n' dan keyin tursa, birinchi qator bo'sh satr bo'ladi.
+     */
+    String readLine() throws IOException {
+        if (done) return null;
+        while (true) {
+            for (int i = cursor - 1; i >= 0; i--) {
+                if (block[i] == '\n') {
+                    String line = decode(i + 1, cursor);
+                    cursor = i;
+                    return line;
+                }
+            }
+            if (blockStart == 0) {
+                done = true;
+                return decode(0, cursor);
+            }
+            carry = concat(block, cursor, carry);
+            loadPreviousBlock();
+        }
+    }
+
+    private void loadPreviousBlock() throws IOException {
+        long start = Math.max(0, blockStart - BLOCK_SIZE);
+        int length = (int) (blockStart - start);
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, start + buffer.position()) < 0) break;
+        }
+        block = buffer.array();
+        cursor = buffer.position();
+        blockStart = start;
+    }
+
+    private String decode(int from, int to) {
+        byte[] bytes = carry.length == 0 ? null : concat(block, from, to, carry);
+        carry = EMPTY;
+        if (bytes == null) {
+            if (to > from && block[to - 1] == '\r') to--;
+            return new String(block, from, to - from, StandardCharsets.UTF_8);
+        }
+        int length = bytes.length;
+        if (length > 0 && bytes[length - 1] == '\r') length--;
+        return new String(bytes, 0, length, StandardCharsets.UTF_8);
+    }
+
+    private static byte[] concat(byte[] head, int headLength, byte[] tail) {
+        return concat(head, 0, headLength, tail);
+    }
+
+    private static byte[] concat(byte[] head, int from, int to, byte[] tail) {
+        byte[] result = new byte[(to - from) + tail.length];
+        System.arraycopy(head, from, result, 0, to - from);
+        System.arraycopy(tail, 0, result, to - from, tail.length);
+        return result;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
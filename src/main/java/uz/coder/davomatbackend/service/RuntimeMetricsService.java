@@ -0,0 +1,154 @@
+package uz.coder.davomatbackend.service;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.socket.config.WebSocketMessageBrokerStats;
+import org.springframework.web.socket.messaging.SubProtocolWebSocketHandler;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Measurement;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * /api/statistics/performance uchun runtime ko'rsatkichlari. Qiymatlar MeterRegistry dan o'qiladi, shuning uchun
+ * Actuator (/actuator/metrics) bilan bir xil: hikaricp.*, tomcat.threads.*, executor.* (AsyncConfig poollari va
+ * STOMP kanallari), jvm.gc.*. Bu yerda faqat Spring Boot bermaydiganlari ro'yxatdan o'tkaziladi:
+ * websocket.sessions va jvm.gc.allocation.rate.
+ */
+@Service
+public class RuntimeMetricsService {
+
+    // AsyncConfig poollari
+    private static final List<String> EXECUTORS = List.of("taskExecutor", "streamingTaskExecutor",
+            "rollupRebuildExecutor", "statisticsExecutor", "retentionExecutor");
+
+    // jvm.gc.memory.allocated faqat GC da o'sadi, shuning uchun tezlik bir necha namuna oralig'ida olinadi
+    private static final int ALLOCATION_SAMPLES = 5;
+
+    private final MeterRegistry meterRegistry;
+    private final WebSocketMessageBrokerStats webSocketStats;
+    private final Deque<long[]> allocationSamples = new ArrayDeque<>();
+
+    public RuntimeMetricsService(MeterRegistry meterRegistry, WebSocketMessageBrokerStats webSocketStats) {
+        this.meterRegistry = meterRegistry;
+        this.webSocketStats = webSocketStats;
+
+        Gauge.builder("websocket.sessions", this, RuntimeMetricsService::webSocketSessions)
+                .description("Open WebSocket and SockJS sessions")
+                .register(meterRegistry);
+        Gauge.builder("jvm.gc.allocation.rate", this, RuntimeMetricsService::allocationRate)
+                .description("Heap allocation rate over the last minute")
+                .baseUnit("bytes/s")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedRate = 15000)
+    void sampleAllocation() {
+        long[] sample = {System.nanoTime(), (long) sum("jvm.gc.memory.allocated")};
+        synchronized (allocationSamples) {
+            allocationSamples.addLast(sample);
+            if (allocationSamples.size() > ALLOCATION_SAMPLES) {
+                allocationSamples.removeFirst();
+            }
+        }
+    }
+
+    public Map<String, Object> getRuntimeMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("activeConnections", (long) sum("hikaricp.connections.active"));
+
+        Map<String, Object> database = new LinkedHashMap<>();
+        database.put("active", (long) sum("hikaricp.connections.active"));
+        database.put("idle", (long) sum("hikaricp.connections.idle"));
+        database.put("pending", (long) sum("hikaricp.connections.pending"));
+        database.put("max", (long) sum("hikaricp.connections.max"));
+        metrics.put("database", database);
+
+        Map<String, Object> tomcat = new LinkedHashMap<>();
+        tomcat.put("busyThreads", (long) sum("tomcat.threads.busy"));
+        tomcat.put("currentThreads", (long) sum("tomcat.threads.current"));
+        tomcat.put("maxThreads", (long) sum("tomcat.threads.config.max"));
+        metrics.put("tomcat", tomcat);
+
+        Map<String, Object> executors = new LinkedHashMap<>();
+        for (String name : EXECUTORS) {
+            executors.put(name, executor(name));
+        }
+        metrics.put("executors", executors);
+
+        Map<String, Object> webSocket = new LinkedHashMap<>();
+        webSocket.put("sessions", (long) webSocketSessions());
+        webSocket.put("inboundQueued", (long) sum("executor.queued", "name", "clientInboundChannelExecutor"));
+        webSocket.put("outboundQueued", (long) sum("executor.queued", "name", "clientOutboundChannelExecutor"));
+        webSocket.put("brokerQueued", (long) sum("executor.queued", "name", "brokerChannelExecutor"));
+        metrics.put("websocket", webSocket);
+
+        long pauseCount = 0;
+        double pauseTotal = 0;
+        double pauseMax = 0;
+        for (Timer timer : meterRegistry.find("jvm.gc.pause").timers()) {
+            pauseCount += timer.count();
+            pauseTotal += timer.totalTime(TimeUnit.MILLISECONDS);
+            pauseMax = Math.max(pauseMax, timer.max(TimeUnit.MILLISECONDS));
+        }
+        Map<String, Object> gc = new LinkedHashMap<>();
+        gc.put("pauseCount", pauseCount);
+        gc.put("pauseTotalMs", Math.round(pauseTotal));
+        gc.put("pauseMaxMs", Math.round(pauseMax));
+        gc.put("allocatedMB", (long) sum("jvm.gc.memory.allocated") / (1024 * 1024));
+        gc.put("allocationRateMBPerSec", Math.round(allocationRate() / (1024 * 1024) * 10) / 10.0);
+        metrics.put("gc", gc);
+        return metrics;
+    }
+
+    private Map<String, Object> executor(String name) {
+        Map<String, Object> executor = new LinkedHashMap<>();
+        executor.put("active", (long) sum("executor.active", "name", name));
+        executor.put("poolSize", (long) sum("executor.pool.size", "name", name));
+        executor.put("queued", (long) sum("executor.queued", "name", name));
+        executor.put("queueRemaining", (long) sum("executor.queue.remaining", "name", name));
+        executor.put("rejected", (long) sum("executor.rejected", "name", name));
+        return executor;
+    }
+
+    private double webSocketSessions() {
+        SubProtocolWebSocketHandler.Stats stats = webSocketStats.getWebSocketSessionStats();
+        if (stats == null) return 0;
+        return stats.getWebSocketSessions() + stats.getHttpStreamingSessions() + stats.getHttpPollingSessions();
+    }
+
+    private double allocationRate() {
+        long[] first;
+        long[] last;
+        synchronized (allocationSamples) {
+            if (allocationSamples.size() < 2) return 0;
+            first = allocationSamples.getFirst();
+            last = allocationSamples.getLast();
+        }
+        double seconds = (last[0] - first[0]) / 1e9;
+        return seconds > 0 ? (last[1] - first[1]) / seconds : 0;
+    }
+
+    // Nom (va teglar) bo'yicha barcha metrikalarning birinchi o'lchovi yig'indisi; metrika bo'lmasa 0
+    private double sum(String name, String... tags) {
+        double total = 0;
+        for (Meter meter : meterRegistry.find(name).tags(tags).meters()) {
+            for (Measurement measurement : meter.measure()) {
+                if (!Double.isNaN(measurement.getValue())) {
+                    total += measurement.getValue();
+                }
+                break;
+            }
+        }
+        return total;
+    }
+}
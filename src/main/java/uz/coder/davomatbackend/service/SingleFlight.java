@@ -0,0 +1,42 @@
+package uz.coder.davomatbackend.service;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Bir kalit bo'yicha bir vaqtda kelgan so'rovlarni bitta yuklashga birlashtiradi: birinchi chaqiruvchi
+ * yuklashni boshlaydi, u tugaguncha kelganlar xuddi shu natijani kutadi. Natija saqlanmaydi -
+ * yuklash tugagach keyingi chaqiruv yangisini boshlaydi.
+ */
+final class SingleFlight<K, V> {
+
+    record Flight<V>(CompletableFuture<V> result, boolean shared) {
+    }
+
+    private final ConcurrentHashMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+
+    Flight<V> run(K key, Supplier<CompletableFuture<V>> loader) {
+        CompletableFuture<V> created = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, created);
+        if (existing != null) {
+            return new Flight<>(existing, true);
+        }
+
+        try {
+            loader.get().whenComplete((value, error) -> {
+                inFlight.remove(key, created);
+                if (error != null) created.completeExceptionally(error);
+                else created.complete(value);
+            });
+        } catch (RuntimeException e) {
+            inFlight.remove(key, created);
+            created.completeExceptionally(e);
+        }
+        return new Flight<>(created, false);
+    }
+
+    int size() {
+        return inFlight.size();
+    }
+}
@@ -0,0 +1,44 @@
+package uz.coder.davomatbackend.service;
+
+import java.time.Duration;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Dashboard grafiklari uchun qisqa TTL li kesh, kalit - doira (admin, o'qituvchi id si) va so'rov parametrlari.
+ * Bir kalit uchun bir vaqtda kelgan so'rovlardan faqat bittasi bazaga boradi, qolganlari uning natijasini kutadi.
+ * Qiymatlar o'zgarmas deb hisoblanadi - chaqiruvchilar ularni o'zgartirmasligi kerak.
+ */
+@Component
+public class StatisticsCache {
+
+    private final Cache<String, Object> cache;
+
+    public StatisticsCache(MeterRegistry meterRegistry,
+                           @Value("${app.statistics.cache-max-size:1000}") long maxSize,
+                           @Value("${app.statistics.cache-ttl:30s}") Duration ttl) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "statistics");
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T get(String key, Supplier<T> loader) {
+        return (T) cache.get(key, k -> loader.get());
+    }
+
+    public void clear() {
+        cache.invalidateAll();
+    }
+}
@@ -0,0 +1,141 @@
+package uz.coder.davomatbackend.service;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.stereotype.Service;
+
+import lombok.RequiredArgsConstructor;
+import uz.coder.davomatbackend.db.AttendanceDatabase;
+import uz.coder.davomatbackend.db.AttendanceRollupDatabase;
+import uz.coder.davomatbackend.db.AttendanceTrendDatabase;
+import uz.coder.davomatbackend.db.UserDatabase;
+import uz.coder.davomatbackend.model.AttendanceStats;
+import uz.coder.davomatbackend.model.AttendanceStatus;
+import uz.coder.davomatbackend.model.AttendanceTrend;
+import uz.coder.davomatbackend.model.RoleCount;
+import uz.coder.davomatbackend.model.StatusCount;
+import uz.coder.davomatbackend.model.TrendBucket;
+import uz.coder.davomatbackend.model.TrendGranularity;
+import uz.coder.davomatbackend.model.User;
+import static uz.coder.davomatbackend.todo.Strings.ROLE_ADMIN;
+import static uz.coder.davomatbackend.todo.Strings.ROLE_STUDENT;
+import static uz.coder.davomatbackend.todo.Strings.ROLE_TEACHER;
+
+/**
+ * Davomat statistikasi va grafiklari foydalanuvchi doirasida: admin - hammasi, o'qituvchi - o'z kurslari,
+ * o'quvchi - o'z davomati. Admin va o'qituvchi davomati kunlik rollupdan olinadi, shuning uchun
+ * so'rov narxi attendance hajmiga bog'liq emas; o'quvchi o'z yozuvlarini (student_id indeksi) sanaydi.
+ */
+@Service
+@RequiredArgsConstructor
+public class StatisticsService {
+
+    private final UserDatabase userDatabase;
+    private final AttendanceDatabase attendanceDatabase;
+    private final AttendanceRollupDatabase attendanceRollupDatabase;
+    private final AttendanceTrendDatabase attendanceTrendDatabase;
+    private final StatisticsCache statisticsCache;
+
+    /** Trend grafigidagi bo'laklar soni chegarasi (kunlik grafik uchun bir yil) */
+    private static final int MAX_TREND_BUCKETS = 366;
+
+    public AttendanceStats getAttendanceStats(User user) {
+        List<StatusCount> counts;
+        if (ROLE_ADMIN.equals(user.getRole())) {
+            counts = attendanceRollupDatabase.countGroupByStatus();
+        } else if (ROLE_TEACHER.equals(user.getRole())) {
+            counts = attendanceRollupDatabase.countGroupByStatusForTeacher(user.getId());
+        } else {
+            counts = attendanceDatabase.countGroupByStatusForStudentUser(user.getId());
+        }
+        return AttendanceStats.of(counts);
+    }
+
+    /**
+     * Davomat trendi: admin - hammasi, o'qituvchi - o'z kurslari. {@code to} kiritilgan kun ham hisobga olinadi.
+     */
+    public AttendanceTrend getAttendanceTrend(User user, String granularityValue, LocalDate from, LocalDate to) {
+        TrendGranularity granularity = TrendGranularity.of(granularityValue);
+        LocalDate end = to == null ? LocalDate.now() : to;
+        LocalDate start = from == null ? granularity.defaultFrom(end) : from;
+        if (start.isAfter(end)) {
+            throw new IllegalArgumentException("from must not be after to");
+        }
+        long buckets = bucketCount(granularity, start, end);
+        if (buckets > MAX_TREND_BUCKETS) {
+            throw new IllegalArgumentException("Range too large: at most " + MAX_TREND_BUCKETS + " " + granularity.unit() + "s");
+        }
+
+        Long teacherId = ROLE_ADMIN.equals(user.getRole()) ? null : user.getId();
+        String key = "trend:" + (teacherId == null ? "all" : "teacher:" + teacherId)
+                + ":" + granularity.unit() + ":" + start + ":" + end;
+        return statisticsCache.get(key, () -> loadTrend(granularity, start, end, teacherId));
+    }
+
+    private AttendanceTrend loadTrend(TrendGranularity granularity, LocalDate start, LocalDate end, Long teacherId) {
+        AttendanceTrend trend = new AttendanceTrend();
+        trend.setGranularity(granularity.unit());
+        trend.setFrom(start);
+        trend.setTo(end);
+
+        Map<LocalDate, Integer> index = new HashMap<>();
+        for (LocalDate bucket = granularity.truncate(start); !bucket.isAfter(end); bucket = granularity.next(bucket)) {
+            index.put(bucket, trend.getLabels().size());
+            trend.getLabels().add(bucket.toString());
+            trend.getPresent().add(0L);
+            trend.getAbsent().add(0L);
+            trend.getLate().add(0L);
+            trend.getOther().add(0L);
+        }
+
+        List<TrendBucket> rows = attendanceTrendDatabase.findBuckets(granularity, start, end.plusDays(1), teacherId);
+        for (TrendBucket row : rows) {
+            Integer i = index.get(row.bucket());
+            if (i == null) continue;
+            List<Long> series = switch (AttendanceStatus.of(row.status())) {
+                case PRESENT -> trend.getPresent();
+                case ABSENT -> trend.getAbsent();
+                case LATE -> trend.getLate();
+                default -> trend.getOther();
+            };
+            series.set(i, series.get(i) + row.count());
+        }
+        return trend;
+    }
+
+    private static long bucketCount(TrendGranularity granularity, LocalDate start, LocalDate end) {
+        LocalDate first = granularity.truncate(start);
+        LocalDate last = granularity.truncate(end);
+        return switch (granularity) {
+            case DAY -> ChronoUnit.DAYS.between(first, last) + 1;
+            case WEEK -> ChronoUnit.WEEKS.between(first, last) + 1;
+            case MONTH -> ChronoUnit.MONTHS.between(first, last) + 1;
+        };
+    }
+
+    /**
+     * Foydalanuvchilarning rollar bo'yicha taqsimoti, bitta GROUP BY role so'rovi bilan.
+     */
+    public Map<String, Object> getUserDistribution() {
+        return statisticsCache.get("user-distribution", () -> {
+            Map<String, Long> byRole = new HashMap<>();
+            for (RoleCount count : userDatabase.countGroupByRole()) {
+                byRole.put(count.getRole(), count.getCount());
+            }
+
+            Map<String, Object> chartData = new LinkedHashMap<>();
+            chartData.put("labels", List.of("Admins", "Teachers", "Students"));
+            chartData.put("values", List.of(
+                    byRole.getOrDefault(ROLE_ADMIN, 0L),
+                    byRole.getOrDefault(ROLE_TEACHER, 0L),
+                    byRole.getOrDefault(ROLE_STUDENT, 0L)));
+            chartData.put("colors", List.of("#667eea", "#48bb78", "#ed8936"));
+            return chartData;
+        });
+    }
+}
@@ -7,6 +7,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 import uz.coder.davomatbackend.db.*;
 import uz.coder.davomatbackend.db.model.*;
@@ -33,43 +34,45 @@ public class StudentService {
     private final GroupDatabase groupDatabase;
     private final CourseDatabase courseDatabase;
     private final TelegramUserDatabase telegramUserDatabase;
+    private final AttendanceRollupService attendanceRollupService;
 
     @Autowired
-    public StudentService(StudentDatabase database, UserDatabase userDatabase, GroupDatabase groupDatabase, CourseDatabase courseDatabase, TelegramUserDatabase telegramUserDatabase) {
+    public StudentService(StudentDatabase database, UserDatabase userDatabase, GroupDatabase groupDatabase, CourseDatabase courseDatabase, TelegramUserDatabase telegramUserDatabase, AttendanceRollupService attendanceRollupService) {
         this.database = database;
         this.userDatabase = userDatabase;
         this.groupDatabase = groupDatabase;
         this.courseDatabase = courseDatabase;
         this.telegramUserDatabase = telegramUserDatabase;
+        this.attendanceRollupService = attendanceRollupService;
     }
 
     public Student save(Student student) {
         StudentDbModel save = database.save(new StudentDbModel(student.getPhoneNumber(), student.getUserId(), student.getGroupId(), LocalDate.now()));
-        String firstNameById = userDatabase.findFirstNameById(student.getUserId());
-        String lastNameById = userDatabase.findLastNameById(student.getUserId());
-        String fullName = firstNameById + " " + lastNameById;
-        return new Student(save.getId(), fullName, save.getPhoneNumber(), save.getUserId(), save.getGroupId(), save.getCreatedDate());
+        return findById(save.getId());
     }
 
+    /**
+     * Guruh almashsa o'quvchining davomati rollupda eski guruhdan yangisiga ko'chiriladi.
+     */
+    @Transactional
     public Student edit(Student student) {
+        boolean groupChanged = database.findById(student.getId())
+                .map(existing -> existing.getGroupId() != student.getGroupId())
+                .orElse(false);
+        if (groupChanged) attendanceRollupService.onStudentDetached(student.getId());
         database.update(student.getId(), student.getPhoneNumber(), student.getUserId(), student.getGroupId());
-        StudentDbModel model = database.findById(student.getId()).orElseThrow(()->new IllegalArgumentException(THERE_IS_NO_SUCH_A_PERSON));
-        String firstNameById = userDatabase.findFirstNameById(student.getUserId());
-        String lastNameById = userDatabase.findLastNameById(student.getUserId());
-        String fullName = firstNameById + " " + lastNameById;
-        return new Student(model.getId(), fullName, model.getPhoneNumber(), model.getUserId(), model.getGroupId(), model.getCreatedDate());
+        if (groupChanged) attendanceRollupService.onStudentAttached(student.getId());
+        return findById(student.getId());
     }
 
     public Student findById(long id) {
-        StudentDbModel student = database.findById(id).orElseThrow(()->new IllegalArgumentException(THERE_IS_NO_SUCH_A_PERSON));
-        String firstNameById = userDatabase.findFirstNameById(student.getUserId());
-        String lastNameById = userDatabase.findLastNameById(student.getUserId());
-        String fullName = firstNameById + " " + lastNameById;
-        return new Student(student.getId(), fullName, student.getPhoneNumber(), student.getUserId(), student.getGroupId(), student.getCreatedDate());
+        return database.findStudentById(id).orElseThrow(()->new IllegalArgumentException(THERE_IS_NO_SUCH_A_PERSON));
     }
 
+    @Transactional
     public int deleteById(long id) {
         if (database.existsById(id)){
+            attendanceRollupService.onStudentDetached(id);
             database.deleteById(id);
             return 1;
         }else {
@@ -78,18 +81,11 @@ public class StudentService {
     }
 
     public List<Student> findAllStudentByGroupId(long groupId) {
-        List<StudentDbModel> allByUserId = database.findAllByGroupId(groupId);
-        return getStudents(allByUserId);
+        return database.findAllStudentViewsByGroupId(groupId);
     }
 
     public Page<Student> findAllStudentByGroupIdPaginated(long groupId, Pageable pageable) {
-        Page<StudentDbModel> studentPage = database.findAllByGroupId(groupId, pageable);
-        return studentPage.map(item -> {
-            String firstNameById = userDatabase.findFirstNameById(item.getUserId());
-            String lastNameById = userDatabase.findLastNameById(item.getUserId());
-            String fullName = firstNameById + " " + lastNameById;
-            return new Student(item.getId(), fullName, item.getPhoneNumber(), item.getUserId(), item.getGroupId(), item.getCreatedDate());
-        });
+        return database.findAllStudentViewsByGroupId(groupId, pageable);
     }
     public boolean saveAllByExcel(MultipartFile file, long userId) {
         try (InputStream inputStream = file.getInputStream();
@@ -210,17 +206,7 @@ public class StudentService {
     }
 
     public List<Student> getStudentsByUserId(long userId) {
-        List<StudentDbModel> students = database.findAllStudentsByOwnerUserId(userId);
-        return getStudents(students);
-    }
-
-    private List<Student> getStudents(List<StudentDbModel> students) {
-        return students.stream().map(item -> {
-            String firstNameById = userDatabase.findFirstNameById(item.getUserId());
-            String lastNameById = userDatabase.findLastNameById(item.getUserId());
-            String fullName = firstNameById + " " + lastNameById;
-            return new Student(item.getId(), fullName, item.getPhoneNumber(), item.getUserId(), item.getGroupId(), item.getCreatedDate());
-        }).collect(Collectors.toList());
+        return database.findAllStudentViewsByOwnerUserId(userId);
     }
 
     public List<StudentCourseGroup> getCourseAndGroupByUserId(long userId) {
@@ -298,11 +284,8 @@ public class StudentService {
         }else {
             Balance balance = userDatabase.getUserBalanceById(userId);
             if (balance.getLimit().isAfter(LocalDate.now()) || balance.getLimit().isEqual(LocalDate.now())) {
-                String firstName = userDatabase.findFirstNameById(userId);
-                String lastName = userDatabase.findLastNameById(userId);
-                String fullName = firstName+" "+lastName;
-                StudentDbModel model = database.findStudentsByUserIdAndGroupId(userId, groupId);
-                return new Student(model.getId(), fullName, model.getPhoneNumber(), model.getUserId(), model.getGroupId(), model.getCreatedDate());
+                return database.findStudentViewByUserIdAndGroupId(userId, groupId)
+                        .orElseThrow(() -> new IllegalArgumentException(THERE_IS_NO_SUCH_A_PERSON));
             }else {
                 throw new IllegalArgumentException(YOUR_BALANCE_IS_EMPTY);
             }
@@ -0,0 +1,116 @@
+package uz.coder.davomatbackend.service;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Objects;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import lombok.extern.slf4j.Slf4j;
+import uz.coder.davomatbackend.db.SystemLogPartitionDatabase;
+import uz.coder.davomatbackend.db.SystemLogPartitionDatabase.Partition;
+
+/**
+ * system_logs ni oylik partitsiyalarda saqlaydi (faqat PostgreSQL). Ishga tushganda oddiy jadval bir marta
+ * partitsiyalanganga aylantiriladi va indekslar yaratiladi, har kuni joriy va keyingi {@code months-ahead}
+ * oy partitsiyalari tayyorlanadi.
+ * Eskirgan yozuvlar DELETE o'rniga butun partitsiyani uzib o'chirish bilan tozalanadi.
+ */
+@Slf4j
+@Service
+public class SystemLogPartitionService {
+
+    private final SystemLogPartitionDatabase partitionDatabase;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final int monthsAhead;
+
+    public SystemLogPartitionService(SystemLogPartitionDatabase partitionDatabase,
+                                     TransactionTemplate transactionTemplate,
+                                     @Value("${app.system-log.partitioning.enabled:true}") boolean enabled,
+                                     @Value("${app.system-log.partitioning.months-ahead:2}") int monthsAhead) {
+        this.partitionDatabase = partitionDatabase;
+        this.transactionTemplate = transactionTemplate;
+        this.enabled = enabled;
+        this.monthsAhead = monthsAhead;
+    }
+
+    // Qidiruv indeksi (SystemLogSearchIndexInitializer) partitsiyalangan jadvalda yaratilishi uchun birinchi
+    @Order(0)
+    @EventListener(ApplicationReadyEvent.class)
+    void initialize() {
+        String relkind = partitionDatabase.findRelkind();
+        // PostgreSQL emas (H2 testlar) yoki jadval hali yo'q
+        if (relkind == null) return;
+        if (enabled && "r".equals(relkind)) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> partitionDatabase.migrateToPartitioned());
+                log.info("system_logs converted to a partitioned table");
+            } catch (DataAccessException e) {
+                // Migratsiya bitta tranzaksiyada: xato bo'lsa jadval avvalgi holicha qoladi
+                log.error("system_logs partitioning migration failed: {}", e.getMostSpecificCause().getMessage());
+            }
+        }
+        partitionDatabase.createIndexes();
+        ensurePartitions();
+    }
+
+    public boolean isPartitioned() {
+        return "p".equals(partitionDatabase.findRelkind());
+    }
+
+    /**
+     * Joriy oydan boshlab months-ahead oy oldinga partitsiyalar borligini ta'minlaydi.
+     */
+    @Scheduled(cron = "${app.system-log.partitioning.cron:0 10 0 * * *}")
+    public void ensurePartitions() {
+        if (!enabled || !isPartitioned()) return;
+        LocalDateTime coveredUntil = partitionDatabase.findPartitions().stream()
+                .map(Partition::upperBound)
+                .filter(Objects::nonNull)
+                .max(LocalDateTime::compareTo)
+                .orElse(LocalDateTime.MIN);
+
+        YearMonth last = YearMonth.now().plusMonths(monthsAhead);
+        for (YearMonth month = YearMonth.now(); !month.isAfter(last); month = month.plusMonths(1)) {
+            if (month.atDay(1).atStartOfDay().isBefore(coveredUntil)) continue;
+            YearMonth target = month;
+            try {
+                transactionTemplate.executeWithoutResult(status -> partitionDatabase.createMonth(target));
+                log.info("Created system_logs partition for {}", target);
+            } catch (DataAccessException e) {
+                log.warn("Could not create system_logs partition for {}: {}", target, e.getMostSpecificCause().getMessage());
+            }
+        }
+    }
+
+    /**
+     * Yuqori chegarasi cutoff dan oshmaydigan (ya'ni butunlay eskirgan) partitsiyalarni o'chiradi.
+     * Uzib bo'lmaganlari (lock_timeout) keyingi safar qayta uriniladi. O'chirilganlar soni qaytariladi.
+     */
+    public int dropPartitionsOlderThan(LocalDateTime cutoff) {
+        if (!enabled || !isPartitioned()) return 0;
+        List<Partition> expired = partitionDatabase.findPartitions().stream()
+                .filter(partition -> partition.upperBound() != null && !partition.upperBound().isAfter(cutoff))
+                .toList();
+        int dropped = 0;
+        for (Partition partition : expired) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> partitionDatabase.dropPartition(partition.name()));
+                dropped++;
+                log.info("Dropped system_logs partition {} (upper bound {})", partition.name(), partition.upperBound());
+            } catch (DataAccessException e) {
+                log.warn("Could not drop system_logs partition {}: {}", partition.name(), e.getMostSpecificCause().getMessage());
+            }
+        }
+        return dropped;
+    }
+}
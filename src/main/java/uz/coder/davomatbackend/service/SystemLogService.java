@@ -3,8 +3,9 @@ package uz.coder.davomatbackend.service;
 import java.time.LocalDateTime;
 
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
-import org.springframework.scheduling.annotation.Async;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -12,7 +13,15 @@ import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import uz.coder.davomatbackend.db.SystemLogDatabase;
+import uz.coder.davomatbackend.db.SystemLogQueryDatabase;
 import uz.coder.davomatbackend.db.model.SystemLogDbModel;
+import uz.coder.davomatbackend.model.CountResult;
+import uz.coder.davomatbackend.model.CursorPage;
+import uz.coder.davomatbackend.model.PageResponse;
+import uz.coder.davomatbackend.model.RetentionStatus;
+import uz.coder.davomatbackend.model.SystemLogCounts;
+import uz.coder.davomatbackend.model.SystemLogCursor;
+import uz.coder.davomatbackend.model.SystemLogFilter;
 
 @Service
 @RequiredArgsConstructor
@@ -20,11 +29,18 @@ import uz.coder.davomatbackend.db.model.SystemLogDbModel;
 public class SystemLogService {
     
     private final SystemLogDatabase systemLogDatabase;
+    private final SystemLogQueryDatabase systemLogQueryDatabase;
+    private final SystemLogWriter systemLogWriter;
+    private final ApproximateCountService approximateCountService;
+    private final RetentionService retentionService;
+    private final SystemLogStatistics systemLogStatistics;
+
+    private static final String SYSTEM_LOGS_TABLE = "system_logs";
+    private static final int DELETE_BATCH_SIZE = 1000;
     
     /**
-     * Log an action asynchronously (non-blocking)
+     * Log an action (non-blocking, written in batches by SystemLogWriter)
      */
-    @Async
     public void logAction(String level, String username, String action, String message) {
         try {
             SystemLogDbModel logEntry = new SystemLogDbModel(
@@ -34,16 +50,16 @@ public class SystemLogService {
                 action,
                 message
             );
-            systemLogDatabase.save(logEntry);
+            systemLogWriter.submit(logEntry);
         } catch (Exception e) {
-            log.error("Failed to save system log: {}", e.getMessage());
+            log.error("Failed to queue system log: {}", e.getMessage());
         }
     }
     
     /**
-     * Log with full details including HTTP request info
+     * Log with full details including HTTP request info.
+     * Request fields are read on the calling thread, before the request is recycled.
      */
-    @Async
     public void logRequest(String level, String username, String action, String message,
                           HttpServletRequest request, Integer statusCode, Long duration) {
         try {
@@ -60,16 +76,15 @@ public class SystemLogService {
             logEntry.setStatusCode(statusCode);
             logEntry.setDuration(duration);
             
-            systemLogDatabase.save(logEntry);
+            systemLogWriter.submit(logEntry);
         } catch (Exception e) {
-            log.error("Failed to save system log: {}", e.getMessage());
+            log.error("Failed to queue system log: {}", e.getMessage());
         }
     }
     
     /**
      * Log an error with stack trace
      */
-    @Async
     public void logError(String username, String action, String message, Exception exception) {
         try {
             SystemLogDbModel logEntry = new SystemLogDbModel();
@@ -80,17 +95,58 @@ public class SystemLogService {
             logEntry.setMessage(message);
             logEntry.setStackTrace(getStackTrace(exception));
             
-            systemLogDatabase.save(logEntry);
+            systemLogWriter.submit(logEntry);
         } catch (Exception e) {
-            log.error("Failed to save error log: {}", e.getMessage());
+            log.error("Failed to queue error log: {}", e.getMessage());
         }
     }
     
     /**
-     * Get all logs with pagination
+     * Get all logs with pagination. Katta jadvalda jami son planner bahosidan olinadi ({@code exact} = false);
+     * oxirgi sahifada jami son har doim aniq.
      */
-    public Page<SystemLogDbModel> getAllLogs(Pageable pageable) {
-        return systemLogDatabase.findAll(pageable);
+    public PageResponse<SystemLogDbModel> getAllLogs(Pageable pageable, boolean exact) {
+        if (exact) {
+            return PageResponse.of(systemLogDatabase.findAll(pageable));
+        }
+        Slice<SystemLogDbModel> slice = systemLogDatabase.findAllBy(pageable);
+        long seen = pageable.getOffset() + slice.getNumberOfElements();
+        if (!slice.hasNext()) {
+            return PageResponse.of(new PageImpl<>(slice.getContent(), pageable, seen));
+        }
+        CountResult total = approximateCountService.count(SYSTEM_LOGS_TABLE, systemLogDatabase::count, false);
+        long totalElements = Math.max(total.getCount(), seen + 1);
+        return PageResponse.of(new PageImpl<>(slice.getContent(), pageable, totalElements), total.isApproximate());
+    }
+    
+    /**
+     * Keyset sahifa: (timestamp, id) bo'yicha, COUNT(*) siz. cursor bo'sh bo'lsa eng yangi yozuvlardan boshlanadi;
+     * noto'g'ri cursor IllegalArgumentException beradi.
+     */
+    public CursorPage<SystemLogDbModel> getLogsByCursor(SystemLogFilter filter, String cursor, int size) {
+        SystemLogCursor position = cursor == null || cursor.isBlank() ? null : SystemLogCursor.decode(cursor);
+        boolean backward = position != null && position.backward();
+
+        // Bitta ortiqcha qator: shu yo'nalishda yana yozuv bor-yo'qligini bildiradi
+        java.util.List<SystemLogDbModel> rows = systemLogQueryDatabase.findPage(filter, position, size + 1);
+        boolean more = rows.size() > size;
+        if (more) {
+            rows = backward ? rows.subList(1, rows.size()) : rows.subList(0, size);
+        }
+        if (rows.isEmpty()) {
+            return new CursorPage<>(rows, size, null, null);
+        }
+
+        SystemLogDbModel first = rows.get(0);
+        SystemLogDbModel last = rows.get(rows.size() - 1);
+        boolean hasOlder = backward || more;
+        boolean hasNewer = backward ? more : position != null;
+        return new CursorPage<>(
+            rows,
+            size,
+            hasOlder ? new SystemLogCursor(false, last.getTimestamp(), last.getId()).encode() : null,
+            hasNewer ? new SystemLogCursor(true, first.getTimestamp(), first.getId()).encode() : null
+        );
     }
     
     /**
@@ -115,10 +171,10 @@ public class SystemLogService {
     }
     
     /**
-     * Search logs by keyword
+     * Search logs by keyword (message, action, endpoint, stack trace; trigram-indexed on PostgreSQL)
      */
     public Page<SystemLogDbModel> searchLogs(String keyword, Pageable pageable) {
-        return systemLogDatabase.findByMessageContainingIgnoreCaseOrderByTimestampDesc(keyword, pageable);
+        return systemLogDatabase.searchByText(SystemLogQueryDatabase.containsPattern(keyword), pageable);
     }
     
     /**
@@ -138,13 +194,13 @@ public class SystemLogService {
     }
     
     /**
-     * Clean up old logs (older than specified days)
+     * Clean up old logs (older than specified days). O'chirish RetentionService orqali fonda boshlanadi: eskirgan
+     * partitsiyalar butunlay, qolgani kichik bo'laklarda. Boshqa retention ishi ketayotgan bo'lsa IllegalStateException.
      */
-    @Transactional
-    public void cleanupOldLogs(int daysToKeep) {
-        LocalDateTime cutoffDate = LocalDateTime.now().minusDays(daysToKeep);
-        systemLogDatabase.deleteOldLogs(cutoffDate);
-        log.info("Cleaned up logs older than {} days", daysToKeep);
+    public RetentionStatus cleanupOldLogs(int daysToKeep) {
+        RetentionStatus status = retentionService.startSystemLogPurge(LocalDateTime.now().minusDays(daysToKeep));
+        log.info("Started cleanup of logs older than {} days", daysToKeep);
+        return status;
     }
     
     /**
@@ -152,42 +208,58 @@ public class SystemLogService {
      */
     @Transactional
     public void deleteLog(Long id) {
-        systemLogDatabase.deleteById(id);
+        systemLogDatabase.deleteByIds(java.util.List.of(id));
+        systemLogStatistics.invalidate();
         log.info("Deleted log with ID: {}", id);
     }
     
     /**
-     * Delete multiple logs by IDs
+     * Delete multiple logs by IDs (har {@value #DELETE_BATCH_SIZE} tasi bitta DELETE ... IN bilan)
      */
     @Transactional
-    public void deleteLogs(java.util.List<Long> ids) {
-        systemLogDatabase.deleteAllById(ids);
-        log.info("Deleted {} logs", ids.size());
+    public int deleteLogs(java.util.List<Long> ids) {
+        int deleted = 0;
+        for (int from = 0; from < ids.size(); from += DELETE_BATCH_SIZE) {
+            deleted += systemLogDatabase.deleteByIds(ids.subList(from, Math.min(from + DELETE_BATCH_SIZE, ids.size())));
+        }
+        systemLogStatistics.invalidate();
+        log.info("Deleted {} logs", deleted);
+        return deleted;
     }
     
     /**
-     * Delete all logs
+     * Delete all logs written so far, in retention chunks in the background (entitylar xotiraga yuklanmaydi)
      */
-    @Transactional
-    public void deleteAllLogs() {
-        long count = systemLogDatabase.count();
-        systemLogDatabase.deleteAll();
-        log.info("Deleted all {} logs", count);
+    public RetentionStatus deleteAllLogs() {
+        RetentionStatus status = retentionService.startSystemLogPurge(LocalDateTime.now());
+        log.info("Started deleting all logs");
+        return status;
     }
     
     /**
-     * Get log statistics
+     * Get log statistics. Odatda xotiradagi hisoblagichlardan (bazaga so'rovsiz); {@code exact} = true bo'lsa
+     * bitta conditional aggregation so'rovi bilan qayta hisoblanadi.
      */
-    public java.util.Map<String, Long> getLogStatistics() {
+    public java.util.Map<String, Object> getLogStatistics(boolean exact) {
+        SystemLogCounts counts = exact ? systemLogStatistics.reconcile() : systemLogStatistics.current();
         return java.util.Map.of(
-            "total", systemLogDatabase.count(),
-            "info", systemLogDatabase.countByLevel("INFO"),
-            "warn", systemLogDatabase.countByLevel("WARN"),
-            "error", systemLogDatabase.countByLevel("ERROR"),
-            "recentErrors", systemLogDatabase.countRecentErrors(LocalDateTime.now().minusHours(24))
+            "total", counts.total(),
+            "approximate", !exact,
+            "info", counts.info(),
+            "warn", counts.warn(),
+            "error", counts.error(),
+            "recentErrors", counts.recentErrors(),
+            "reconciledAt", systemLogStatistics.getReconciledAt()
         );
     }
     
+    /**
+     * Buffered writer counters (accepted, flushed, dropped, sampled, failed, buffered, capacity)
+     */
+    public java.util.Map<String, Long> getWriterStatistics() {
+        return systemLogWriter.getStatistics();
+    }
+    
     // Helper methods
     
     private String getClientIp(HttpServletRequest request) {
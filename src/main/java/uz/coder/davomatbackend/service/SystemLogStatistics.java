@@ -0,0 +1,115 @@
+package uz.coder.davomatbackend.service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import lombok.extern.slf4j.Slf4j;
+import uz.coder.davomatbackend.db.SystemLogDatabase;
+import uz.coder.davomatbackend.db.model.SystemLogDbModel;
+import uz.coder.davomatbackend.model.SystemLogCounts;
+
+/**
+ * system_logs sonlarini xotirada yuritadi: bazadagi oxirgi hisob (baseline) ustiga SystemLogWriter
+ * yozib bo'lgan yozuvlar qo'shib boriladi, shuning uchun statistika so'rovi bazaga tushmaydi.
+ * Hisoblagichlar hech qachon nolga qaytarilmaydi: baseline o'zi hisoblangan paytdagi hisoblagich qiymatlarini
+ * saqlaydi va bitta volatile maydon orqali almashtiriladi, shuning uchun o'quvchi qayta hisoblash bilan bir vaqtda
+ * ham mos juftlikni ko'radi. O'chirishlar baseline ni bekor qiladi, u davriy ravishda bitta so'rov bilan qayta hisoblanadi.
+ * Sonlar taxminiy: qayta hisoblash paytida yozilganlar bir marta ikki hisoblanishi mumkin,
+ * recentErrors dan 24 soatdan eskirganlar faqat navbatdagi qayta hisoblashda chiqadi.
+ */
+@Slf4j
+@Component
+public class SystemLogStatistics {
+
+    private final SystemLogDatabase systemLogDatabase;
+
+    // Ilova ishga tushgandan beri yozilganlar
+    private final LongAdder info = new LongAdder();
+    private final LongAdder warn = new LongAdder();
+    private final LongAdder error = new LongAdder();
+    private final LongAdder other = new LongAdder();
+
+    private volatile Baseline baseline;
+    private volatile LocalDateTime reconciledAt;
+
+    public SystemLogStatistics(SystemLogDatabase systemLogDatabase) {
+        this.systemLogDatabase = systemLogDatabase;
+    }
+
+    /** SystemLogWriter muvaffaqiyatli yozgan batch uchun chaqiradi. */
+    public void recordWritten(List<SystemLogDbModel> entries) {
+        for (SystemLogDbModel entry : entries) {
+            String level = entry.getLevel();
+            if ("INFO".equals(level)) {
+                info.increment();
+            } else if ("WARN".equals(level)) {
+                warn.increment();
+            } else if ("ERROR".equals(level)) {
+                error.increment();
+            } else {
+                other.increment();
+            }
+        }
+    }
+
+    /** Yozuvlar o'chirilgandan keyin: navbatdagi so'rov sonlarni bazadan qayta oladi. */
+    public void invalidate() {
+        baseline = null;
+    }
+
+    public SystemLogCounts current() {
+        Baseline current = baseline;
+        if (current == null) {
+            current = refresh();
+        }
+        long infoCount = info.sum() - current.info();
+        long warnCount = warn.sum() - current.warn();
+        long errorCount = error.sum() - current.error();
+        long otherCount = other.sum() - current.other();
+        return current.counts().plus(infoCount + warnCount + errorCount + otherCount, infoCount, warnCount, errorCount);
+    }
+
+    public LocalDateTime getReconciledAt() {
+        return reconciledAt;
+    }
+
+    /**
+     * Sonlarni bitta conditional aggregation so'rovi bilan bazadan qayta oladi.
+     */
+    public SystemLogCounts reconcile() {
+        return refresh().counts();
+    }
+
+    private synchronized Baseline refresh() {
+        // So'rovdan oldin: so'rov davomida yozilganlar ikki hisoblanishi mumkin, lekin yo'qolmaydi
+        long infoAt = info.sum();
+        long warnAt = warn.sum();
+        long errorAt = error.sum();
+        long otherAt = other.sum();
+        LocalDateTime now = LocalDateTime.now();
+        SystemLogCounts counts = systemLogDatabase.countByLevels(now.minusHours(24));
+        Baseline refreshed = new Baseline(counts, infoAt, warnAt, errorAt, otherAt);
+        baseline = refreshed;
+        reconciledAt = now;
+        return refreshed;
+    }
+
+    @Scheduled(fixedDelayString = "${app.system-log.statistics.reconcile-interval-ms:600000}",
+               initialDelayString = "${app.system-log.statistics.reconcile-interval-ms:600000}")
+    void scheduledReconcile() {
+        try {
+            reconcile();
+        } catch (DataAccessException e) {
+            log.warn("Could not reconcile system log statistics: {}", e.getMostSpecificCause().getMessage());
+        }
+    }
+
+    /** Bazadagi sonlar va ular hisoblangan paytdagi hisoblagich qiymatlari */
+    private record Baseline(SystemLogCounts counts, long info, long warn, long error, long other) {
+    }
+}
@@ -0,0 +1,181 @@
+package uz.coder.davomatbackend.service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import uz.coder.davomatbackend.db.SystemLogBatchDatabase;
+import uz.coder.davomatbackend.db.model.SystemLogDbModel;
+
+/**
+ * System loglarni halqa buferga yig'ib, bitta fon thread orqali JDBC batch bilan yozadi.
+ * So'rov thread i faqat {@link #submit} qiladi - tranzaksiya ham, INSERT ham kutilmaydi.
+ * Batch hajmi yoki vaqt oralig'i to'lganda flush qilinadi. Bufer yuqori belgidan oshsa INFO
+ * yozuvlaridan faqat har N-chisi olinadi, to'lsa yozuv tashlab yuboriladi; WARN/ERROR sampling qilinmaydi.
+ */
+@Slf4j
+@Component
+public class SystemLogWriter {
+
+    private static final long SHUTDOWN_DRAIN_NANOS = TimeUnit.SECONDS.toNanos(5);
+
+    private final SystemLogBatchDatabase systemLogBatchDatabase;
+    private final SystemLogStatistics systemLogStatistics;
+    private final MpscRingBuffer<SystemLogDbModel> buffer;
+    private final int batchSize;
+    private final long flushIntervalNanos;
+    private final int highWaterMark;
+    private final int infoSampleRate;
+
+    private final LongAdder accepted = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder sampledOut = new LongAdder();
+    private final LongAdder flushed = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final AtomicLong infoSequence = new AtomicLong();
+
+    private volatile boolean running;
+    private volatile Thread worker;
+
+    public SystemLogWriter(SystemLogBatchDatabase systemLogBatchDatabase,
+                           SystemLogStatistics systemLogStatistics,
+                           MeterRegistry meterRegistry,
+                           @Value("${app.system-log.buffer-size:8192}") int bufferSize,
+                           @Value("${app.system-log.batch-size:200}") int batchSize,
+                           @Value("${app.system-log.flush-interval-ms:1000}") long flushIntervalMs,
+                           @Value("${app.system-log.high-water-ratio:0.75}") double highWaterRatio,
+                           @Value("${app.system-log.info-sample-rate:10}") int infoSampleRate) {
+        this.systemLogBatchDatabase = systemLogBatchDatabase;
+        this.systemLogStatistics = systemLogStatistics;
+        this.buffer = new MpscRingBuffer<>(bufferSize);
+        this.batchSize = batchSize;
+        this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+        this.highWaterMark = (int) (buffer.capacity() * highWaterRatio);
+        this.infoSampleRate = Math.max(1, infoSampleRate);
+
+        FunctionCounter.builder("system.logs.accepted", accepted, LongAdder::sum).register(meterRegistry);
+        FunctionCounter.builder("system.logs.dropped", dropped, LongAdder::sum).register(meterRegistry);
+        FunctionCounter.builder("system.logs.sampled", sampledOut, LongAdder::sum).register(meterRegistry);
+        FunctionCounter.builder("system.logs.flushed", flushed, LongAdder::sum).register(meterRegistry);
+        FunctionCounter.builder("system.logs.failed", failed, LongAdder::sum).register(meterRegistry);
+        Gauge.builder("system.logs.buffered", buffer, MpscRingBuffer::size).register(meterRegistry);
+    }
+
+    @PostConstruct
+    void start() {
+        running = true;
+        Thread thread = new Thread(this::run, "system-log-writer");
+        thread.setDaemon(true);
+        worker = thread;
+        thread.start();
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        Thread thread = worker;
+        if (thread != null) {
+            LockSupport.unpark(thread);
+            thread.join(TimeUnit.SECONDS.toMillis(10));
+        }
+    }
+
+    /** Bloklamaydi. Yozuv qabul qilinmasa (sampling yoki to'la bufer) {@code false}. */
+    public boolean submit(SystemLogDbModel entry) {
+        int size = buffer.size();
+        if (size >= highWaterMark && "INFO".equals(entry.getLevel())
+                && infoSequence.getAndIncrement() % infoSampleRate != 0) {
+            sampledOut.increment();
+            return false;
+        }
+        if (!buffer.offer(entry)) {
+            dropped.increment();
+            return false;
+        }
+        accepted.increment();
+        if (size + 1 >= batchSize) {
+            Thread thread = worker;
+            if (thread != null) LockSupport.unpark(thread);
+        }
+        return true;
+    }
+
+    public Map<String, Long> getStatistics() {
+        Map<String, Long> stats = new LinkedHashMap<>();
+        stats.put("accepted", accepted.sum());
+        stats.put("flushed", flushed.sum());
+        stats.put("dropped", dropped.sum());
+        stats.put("sampled", sampledOut.sum());
+        stats.put("failed", failed.sum());
+        stats.put("buffered", (long) buffer.size());
+        stats.put("capacity", (long) buffer.capacity());
+        return stats;
+    }
+
+    private void run() {
+        List<SystemLogDbModel> batch = new ArrayList<>(batchSize);
+        long lastFlush = System.nanoTime();
+        while (running) {
+            drainTo(batch);
+            long now = System.nanoTime();
+            if (batch.size() >= batchSize || (!batch.isEmpty() && now - lastFlush >= flushIntervalNanos)) {
+                flush(batch);
+                lastFlush = now;
+            } else if (buffer.size() == 0) {
+                LockSupport.parkNanos(this, flushIntervalNanos);
+            } else {
+                // Katak band qilingan, lekin qiymat hali e'lon qilinmagan
+                Thread.onSpinWait();
+            }
+        }
+        // To'xtashda qolganlarini yozib qo'yamiz. Band qilingan, lekin hali e'lon qilinmagan katak bo'lsa
+        // size() > 0 bo'lib turadi, shuning uchun kutish muddat bilan cheklangan
+        long deadline = System.nanoTime() + SHUTDOWN_DRAIN_NANOS;
+        while (System.nanoTime() - deadline < 0) {
+            drainTo(batch);
+            if (!batch.isEmpty()) {
+                flush(batch);
+            } else if (buffer.size() == 0) {
+                return;
+            } else {
+                Thread.onSpinWait();
+            }
+        }
+        log.warn("System log writer stopped with {} entries still buffered", buffer.size());
+    }
+
+    private void drainTo(List<SystemLogDbModel> batch) {
+        SystemLogDbModel entry;
+        while (batch.size() < batchSize && (entry = buffer.poll()) != null) {
+            batch.add(entry);
+        }
+    }
+
+    private void flush(List<SystemLogDbModel> batch) {
+        if (batch.isEmpty()) return;
+        try {
+            systemLogBatchDatabase.insertAll(batch);
+            flushed.add(batch.size());
+            systemLogStatistics.recordWritten(batch);
+        } catch (Exception e) {
+            failed.add(batch.size());
+            log.error("Failed to flush {} system logs: {}", batch.size(), e.getMessage());
+        } finally {
+            batch.clear();
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package uz.coder.davomatbackend.service;
+
+import java.time.Duration;
+import java.util.function.Function;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import uz.coder.davomatbackend.model.User;
+
+/**
+ * Email bo'yicha {@link User} principal keshi. Har bir autentifikatsiyalangan so'rovda
+ * foydalanuvchini bazadan qayta o'qimaslik uchun. Yozuvlar TTL bilan eskiradi va
+ * {@link UserService} dagi o'zgarishlarda darhol o'chiriladi.
+ * Keshdagi obyekt tashqariga berilmaydi - har safar nusxa qaytadi.
+ */
+@Component
+public class UserPrincipalCache {
+
+    private final Cache<String, User> cache;
+
+    public UserPrincipalCache(MeterRegistry meterRegistry,
+                              @Value("${app.user-cache.max-size:10000}") long maxSize,
+                              @Value("${app.user-cache.ttl:5m}") Duration ttl) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "userPrincipals");
+    }
+
+    /** Keshdan oladi, bo'lmasa {@code loader} bilan yuklaydi. null natija keshlanmaydi. */
+    public User get(String email, Function<String, User> loader) {
+        if (email == null) return null;
+        User user = cache.get(email, loader);
+        return user == null ? null : copy(user);
+    }
+
+    public void evict(String... emails) {
+        for (String email : emails) {
+            if (email != null) cache.invalidate(email);
+        }
+    }
+
+    public void clear() {
+        cache.invalidateAll();
+    }
+
+    private static User copy(User user) {
+        return new User(
+                user.getId(),
+                user.getFirstName(),
+                user.getLastName(),
+                user.getEmail(),
+                user.getPassword(),
+                user.getPhoneNumber(),
+                user.getRole(),
+                user.getLastPasswordResetAt(),
+                user.getPayedDate()
+        );
+    }
+}
@@ -2,6 +2,7 @@ package uz.coder.davomatbackend.service;
 
 import java.time.Instant;
 import java.time.LocalDate;
+import java.util.Optional;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -27,14 +28,17 @@ public class UserService implements UserDetailsService {
     private final UserDatabase database;
     private final TelegramUserDatabase telegramUserDatabase;
     private final PasswordEncoder passwordEncoder;
+    private final UserPrincipalCache userCache;
 
     @Autowired
     public UserService(UserDatabase database,
                        TelegramUserDatabase telegramUserDatabase,
-                       PasswordEncoder passwordEncoder) {
+                       PasswordEncoder passwordEncoder,
+                       UserPrincipalCache userCache) {
         this.database = database;
         this.telegramUserDatabase = telegramUserDatabase;
         this.passwordEncoder = passwordEncoder;
+        this.userCache = userCache;
     }
 
     public User save(User user) {
@@ -104,6 +108,9 @@ public class UserService implements UserDetailsService {
         UserDbModel save = database.findById(user.getId())
                 .orElseThrow(() -> new IllegalArgumentException(THERE_IS_NO_SUCH_A_PERSON));
 
+        // Email o'zgargan bo'lishi mumkin: eski va yangi kalit ikkalasi ham o'chiriladi
+        userCache.evict(old.getEmail(), save.getEmail());
+
         return new User(
                 save.getId(),
                 save.getFirstName(),
@@ -118,8 +125,10 @@ public class UserService implements UserDetailsService {
     }
 
     public int deleteById(long id) {
-        if (database.existsById(id)) {
+        Optional<UserDbModel> model = database.findById(id);
+        if (model.isPresent()) {
             database.deleteById(id);
+            userCache.evict(model.get().getEmail());
             return 1;
         } else {
             return 0;
@@ -165,31 +174,32 @@ public class UserService implements UserDetailsService {
         }
 
         int updatedRows = database.updateBalanceUser(payDate, user.getId());
+        userCache.evict(user.getEmail());
         return updatedRows > 0;
     }
 
     @Override
     public UserDetails loadUserByUsername(String email) {
-        UserDbModel model = database.findByEmail(email);
+        User user = findByEmail(email);
 
-        if (model == null) {
+        if (user == null) {
             throw new UsernameNotFoundException("User not found: " + email);
         }
 
-        return new User(
-                model.getId(),
-                model.getFirstName(),
-                model.getLastName(),
-                model.getEmail(),
-                model.getPassword(),
-                model.getPhoneNumber(),
-                model.getRole(),
-                model.getLastPasswordResetAt(),
-                model.getPayedDate()
-        );
+        return user;
     }
 
     public User findByEmail(String email) {
+        return userCache.get(email, this::loadByEmail);
+    }
+
+    /** Keshni chetlab bazadan o'qiydi va keshni yangilaydi */
+    public User reloadByEmail(String email) {
+        userCache.evict(email);
+        return findByEmail(email);
+    }
+
+    private User loadByEmail(String email) {
         UserDbModel model = database.findByEmail(email);
         if (model == null) {
             return null;
@@ -2,12 +2,14 @@ package uz.coder.davomatbackend;
 
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
 
 /**
  * Bu test Spring Boot ilovasining context’ini to‘g‘ri yuklayaptimi
  * tekshiradi. Agar context yuklanmasa, test xato beradi.
  */
 @SpringBootTest
+@ActiveProfiles("test")
 class DavomatBackendApplicationTests {
 
     /**
@@ -0,0 +1,120 @@
+package uz.coder.davomatbackend.service;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import uz.coder.davomatbackend.db.AttendanceBatchDatabase;
+import uz.coder.davomatbackend.db.AttendanceDatabase;
+import uz.coder.davomatbackend.db.CourseDatabase;
+import uz.coder.davomatbackend.db.GroupDatabase;
+import uz.coder.davomatbackend.db.StudentDatabase;
+import uz.coder.davomatbackend.db.UserDatabase;
+import uz.coder.davomatbackend.db.model.AttendanceDbModel;
+import uz.coder.davomatbackend.db.model.CourseDbModel;
+import uz.coder.davomatbackend.db.model.GroupDbModel;
+import uz.coder.davomatbackend.db.model.StudentDbModel;
+import uz.coder.davomatbackend.db.model.UserDbModel;
+
+/**
+ * Oylik exportning o'lchovi: 5 000 student x 30 kun (150 000 ta davomat yozuvi).
+ * Repository lar mock qilingan, shuning uchun faqat servis va POI vaqti o'lchanadi.
+ * Ishga tushirish: {@code mvn test -Dtest=AttendanceExportBenchmarkTest -Dbenchmark=true}
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class AttendanceExportBenchmarkTest {
+
+    private static final long TEACHER_ID = 1L;
+    private static final int STUDENTS = 5_000;
+    private static final int DAYS = 30;
+    private static final int GROUPS = 50;
+    private static final int COURSES = 5;
+    private static final int WARMUP_RUNS = 2;
+    private static final int MEASURED_RUNS = 5;
+
+    private AttendanceService attendanceService;
+
+    @BeforeEach
+    void setUp() {
+        StudentDatabase studentDatabase = mock(StudentDatabase.class);
+        GroupDatabase groupDatabase = mock(GroupDatabase.class);
+        CourseDatabase courseDatabase = mock(CourseDatabase.class);
+        UserDatabase userDatabase = mock(UserDatabase.class);
+        AttendanceDatabase attendanceDatabase = mock(AttendanceDatabase.class);
+
+        List<CourseDbModel> courses = new ArrayList<>();
+        for (long c = 1; c <= COURSES; c++) {
+            courses.add(new CourseDbModel(c, "Kurs " + c, "", TEACHER_ID));
+        }
+        List<GroupDbModel> groups = new ArrayList<>();
+        for (long g = 1; g <= GROUPS; g++) {
+            groups.add(new GroupDbModel(g, "Guruh " + g, g % COURSES + 1));
+        }
+
+        List<StudentDbModel> students = new ArrayList<>();
+        List<UserDbModel> users = new ArrayList<>();
+        List<AttendanceDbModel> attendance = new ArrayList<>();
+        LocalDate firstDay = LocalDate.of(2025, 9, 1);
+        long attendanceId = 1;
+        for (long s = 1; s <= STUDENTS; s++) {
+            long userId = 1_000 + s;
+            students.add(new StudentDbModel(s, "+99890" + (1_000_000 + s), userId, s % GROUPS + 1, firstDay));
+            UserDbModel user = new UserDbModel();
+            user.setId(userId);
+            user.setFirstName("Ism" + s);
+            user.setLastName("Familiya" + s);
+            users.add(user);
+            for (int d = 0; d < DAYS; d++) {
+                attendance.add(new AttendanceDbModel(attendanceId++, s, firstDay.plusDays(d), (s + d) % 7 == 0 ? "-" : "+"));
+            }
+        }
+
+        when(studentDatabase.findAllStudentsByOwnerUserId(TEACHER_ID)).thenReturn(students);
+        when(groupDatabase.findAllById(any())).thenReturn(groups);
+        when(courseDatabase.findAllById(any())).thenReturn(courses);
+        when(userDatabase.findAllById(any())).thenReturn(users);
+        when(attendanceDatabase.findAllByTeacherAndOptionalCourseAndGroupAndDateBetween(
+                eq(TEACHER_ID), any(), any(), any(), any())).thenReturn(attendance);
+
+        attendanceService = new AttendanceService(attendanceDatabase, studentDatabase, groupDatabase,
+                userDatabase, courseDatabase, mock(AttendanceBatchDatabase.class), mock(AttendanceRollupService.class),
+                mock(TransactionTemplate.class));
+    }
+
+    @Test
+    void streamingExport() throws Exception {
+        for (int i = 0; i < WARMUP_RUNS; i++) {
+            attendanceService.exportToExcelByMonth(TEACHER_ID, null, null, 2025, 9, OutputStream.nullOutputStream());
+        }
+
+        long best = Long.MAX_VALUE;
+        long total = 0;
+        long size = 0;
+        for (int i = 0; i < MEASURED_RUNS; i++) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            long start = System.nanoTime();
+            attendanceService.exportToExcelByMonth(TEACHER_ID, null, null, 2025, 9, out);
+            long elapsed = System.nanoTime() - start;
+            best = Math.min(best, elapsed);
+            total += elapsed;
+            size = out.size();
+        }
+
+        System.out.printf("Export %d students x %d days: best %d ms, avg %d ms, %d KB%n",
+                STUDENTS, DAYS, best / 1_000_000, total / MEASURED_RUNS / 1_000_000, size / 1024);
+        assertTrue(size > 0);
+    }
+}
@@ -0,0 +1,402 @@
+package uz.coder.davomatbackend.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import uz.coder.davomatbackend.db.AttendanceBatchDatabase;
+import uz.coder.davomatbackend.db.AttendanceDatabase;
+import uz.coder.davomatbackend.db.AttendanceRollupBatchDatabase;
+import uz.coder.davomatbackend.db.AttendanceRollupBatchDatabase.Correction;
+import uz.coder.davomatbackend.db.AttendanceRollupDatabase;
+import uz.coder.davomatbackend.db.CourseDatabase;
+import uz.coder.davomatbackend.db.GroupDatabase;
+import uz.coder.davomatbackend.db.StudentDatabase;
+import uz.coder.davomatbackend.db.UserDatabase;
+import uz.coder.davomatbackend.db.model.AttendanceDbModel;
+import uz.coder.davomatbackend.db.model.CourseDbModel;
+import uz.coder.davomatbackend.model.Attendance;
+import uz.coder.davomatbackend.model.AttendanceBatchResult;
+import uz.coder.davomatbackend.model.AttendanceDelta;
+
+/**
+ * Rollup deltalari xom davomat bilan mos kelishini tekshiradi. Ma'lumotlar bazasi xotiradagi modelga almashtirilgan:
+ * mocklar AttendanceRollupBatchDatabase va AttendanceRollupDatabase so'rovlari bilan bir xil hisoblaydi,
+ * har bir testdan keyin rollup xom davomatdan qaytadan sanalgani bilan solishtiriladi.
+ */
+class AttendanceRollupServiceTest {
+
+    private static final LocalDate JAN_10 = LocalDate.of(2024, 1, 10);
+    private static final LocalDate JAN_11 = LocalDate.of(2024, 1, 11);
+    private static final LocalDate FEB_01 = LocalDate.of(2024, 2, 1);
+
+    // Guruh 1 -> kurs 10 (o'qituvchi 100), guruh 2 -> kurs 20 (o'qituvchi 200)
+    private final Map<Long, Long> studentGroup = new HashMap<>(Map.of(11L, 1L, 12L, 1L, 21L, 2L));
+    private final Map<Long, Long> groupCourse = new HashMap<>(Map.of(1L, 10L, 2L, 20L));
+    private final Map<Long, Long> courseTeacher = new HashMap<>(Map.of(10L, 100L, 20L, 200L));
+    private final Map<Long, AttendanceDbModel> attendance = new LinkedHashMap<>();
+    private final Map<Key, Long> rollup = new HashMap<>();
+    private long nextId = 1;
+
+    private AttendanceRollupBatchDatabase rollupBatchDatabase;
+    private AttendanceRollupService rollupService;
+    private AttendanceService attendanceService;
+
+    @BeforeEach
+    void setUp() {
+        rollupBatchDatabase = mock(AttendanceRollupBatchDatabase.class);
+        doAnswer(invocation -> {
+            List<AttendanceDelta> deltas = invocation.getArgument(0);
+            deltas.forEach(delta -> keyOf(delta.studentId(), delta.date(), delta.status())
+                    .ifPresent(key -> rollup.merge(key, (long) delta.delta(), Long::sum)));
+            List<LocalDate> touched = deltas.stream().filter(delta -> delta.delta() < 0).map(AttendanceDelta::date).toList();
+            pruneEmpty(key -> touched.contains(key.date()));
+            return null;
+        }).when(rollupBatchDatabase).applyDeltas(anyList());
+        doAnswer(invocation -> {
+            long studentId = invocation.getArgument(0);
+            int sign = invocation.getArgument(1);
+            attendance.values().stream().filter(row -> row.getStudentId() == studentId)
+                    .forEach(row -> keyOf(row.getStudentId(), row.getDate(), row.getStatus())
+                            .ifPresent(key -> rollup.merge(key, (long) sign, Long::sum)));
+            Long groupId = studentGroup.get(studentId);
+            if (sign < 0) pruneEmpty(key -> groupId != null && key.groupId() == groupId);
+            return null;
+        }).when(rollupBatchDatabase).applyStudent(anyLong(), anyInt());
+        when(rollupBatchDatabase.findMonthCorrections(any())).thenAnswer(invocation -> {
+            YearMonth month = invocation.getArgument(0);
+            Map<Key, Long> difference = new HashMap<>(expectedRollup());
+            rollup.forEach((key, total) -> difference.merge(key, -total, Long::sum));
+            List<Correction> corrections = new ArrayList<>();
+            difference.forEach((key, delta) -> {
+                if (delta != 0 && YearMonth.from(key.date()).equals(month)) {
+                    corrections.add(new Correction(key.date(), key.groupId(), key.courseId(), key.teacherId(),
+                            key.status(), delta));
+                }
+            });
+            return corrections;
+        });
+        doAnswer(invocation -> {
+            YearMonth month = invocation.getArgument(0);
+            List<Correction> corrections = invocation.getArgument(1);
+            corrections.forEach(correction -> rollup.merge(new Key(correction.date(), correction.groupId(),
+                    correction.courseId(), correction.teacherId(), correction.status()), correction.delta(), Long::sum));
+            pruneEmpty(key -> YearMonth.from(key.date()).equals(month));
+            return null;
+        }).when(rollupBatchDatabase).applyMonthCorrections(any(), anyList());
+        when(rollupBatchDatabase.findMonths()).thenAnswer(invocation -> {
+            List<LocalDate> dates = new ArrayList<>(rollup.keySet().stream().map(Key::date).toList());
+            attendance.values().forEach(row -> dates.add(row.getDate()));
+            if (dates.isEmpty()) return List.of();
+            YearMonth last = YearMonth.from(dates.stream().max(LocalDate::compareTo).orElseThrow());
+            List<YearMonth> months = new ArrayList<>();
+            for (YearMonth month = YearMonth.from(dates.stream().min(LocalDate::compareTo).orElseThrow());
+                 !month.isAfter(last); month = month.plusMonths(1)) {
+                months.add(month);
+            }
+            return months;
+        });
+
+        AttendanceRollupDatabase rollupDatabase = mock(AttendanceRollupDatabase.class);
+        when(rollupDatabase.reassignGroup(anyLong(), anyLong(), anyLong())).thenAnswer(invocation -> rekey(
+                key -> key.groupId() == (long) invocation.getArgument(0),
+                key -> new Key(key.date(), key.groupId(), invocation.getArgument(1), invocation.getArgument(2), key.status())));
+        when(rollupDatabase.reassignCourse(anyLong(), anyLong())).thenAnswer(invocation -> rekey(
+                key -> key.courseId() == (long) invocation.getArgument(0),
+                key -> new Key(key.date(), key.groupId(), key.courseId(), invocation.getArgument(1), key.status())));
+        when(rollupDatabase.deleteAllByGroupId(anyLong())).thenAnswer(invocation ->
+                removeIf(key -> key.groupId() == (long) invocation.getArgument(0)));
+        when(rollupDatabase.deleteAllByCourseId(anyLong())).thenAnswer(invocation ->
+                removeIf(key -> key.courseId() == (long) invocation.getArgument(0)));
+
+        CourseDatabase courseDatabase = mock(CourseDatabase.class);
+        when(courseDatabase.findById(anyLong())).thenAnswer(invocation -> {
+            long courseId = invocation.getArgument(0);
+            return Optional.ofNullable(courseTeacher.get(courseId))
+                    .map(teacherId -> new CourseDbModel(courseId, "course", null, teacherId));
+        });
+
+        AttendanceDatabase attendanceDatabase = mock(AttendanceDatabase.class);
+        when(attendanceDatabase.findByIdForUpdate(anyLong())).thenAnswer(invocation ->
+                Optional.ofNullable(attendance.get((long) invocation.getArgument(0))).map(AttendanceRollupServiceTest::copy));
+        when(attendanceDatabase.saveAndFlush(any())).thenAnswer(invocation -> {
+            AttendanceDbModel model = invocation.getArgument(0);
+            attendance.put(model.getId(), copy(model));
+            return model;
+        });
+        doAnswer(invocation -> attendance.remove(((AttendanceDbModel) invocation.getArgument(0)).getId()))
+                .when(attendanceDatabase).delete(any());
+
+        TransactionTemplate transactionTemplate = new TransactionTemplate(mock(PlatformTransactionManager.class));
+        rollupService = new AttendanceRollupService(rollupDatabase, rollupBatchDatabase, attendanceDatabase,
+                courseDatabase, transactionTemplate, mock(StatisticsCache.class), new TaskExecutorAdapter(Runnable::run), false);
+        attendanceService = new AttendanceService(attendanceDatabase, mock(StudentDatabase.class), mock(GroupDatabase.class),
+                mock(UserDatabase.class), courseDatabase, mock(AttendanceBatchDatabase.class), rollupService,
+                transactionTemplate);
+    }
+
+    @Test
+    void batchDeltasMoveChangedMarksAndSkipUnchanged() {
+        mark(11, JAN_10, "+");
+        mark(12, JAN_10, "+");
+
+        List<AttendanceBatchResult> upserted = List.of(
+                result(11, "-", "+"),
+                result(12, "+", "+"),
+                result(21, "+", null));
+        List<AttendanceDelta> deltas = AttendanceService.rollupDeltas(JAN_10, upserted);
+
+        assertEquals(List.of(
+                AttendanceDelta.removed(11L, JAN_10, "+"),
+                AttendanceDelta.added(11L, JAN_10, "-"),
+                AttendanceDelta.added(21L, JAN_10, "+")), deltas);
+
+        rowOf(11, JAN_10).setStatus("-");
+        attendance.put(nextId, new AttendanceDbModel(nextId++, 21L, JAN_10, "+"));
+        rollupService.apply(deltas);
+
+        assertConsistent();
+        assertEquals(1L, rollup.get(new Key(JAN_10, 1, 10, 100, "+")));
+        assertEquals(1L, rollup.get(new Key(JAN_10, 1, 10, 100, "-")));
+    }
+
+    @Test
+    void applySkipsZeroDeltas() {
+        rollupService.apply(List.of(new AttendanceDelta(11L, JAN_10, "+", 0)));
+        rollupService.apply(List.of());
+
+        verify(rollupBatchDatabase, never()).applyDeltas(anyList());
+    }
+
+    @Test
+    void updateMovingMarkToAnotherStudentAndDateKeepsRollupConsistent() {
+        long id = mark(11, JAN_10, "+");
+        mark(12, JAN_10, "+");
+
+        attendanceService.update(new Attendance(id, 21L, JAN_11, "-"));
+
+        assertConsistent();
+        assertEquals(1L, rollup.get(new Key(JAN_10, 1, 10, 100, "+")));
+        assertEquals(1L, rollup.get(new Key(JAN_11, 2, 20, 200, "-")));
+    }
+
+    @Test
+    void deleteRemovesEmptyRollupRow() {
+        long id = mark(11, JAN_10, "+");
+
+        assertTrue(attendanceService.delete(id));
+
+        assertConsistent();
+        assertTrue(rollup.isEmpty());
+        assertFalse(attendanceService.delete(id));
+    }
+
+    @Test
+    void studentMovedBetweenGroupsCarriesAttendance() {
+        mark(11, JAN_10, "+");
+        mark(11, JAN_11, "-");
+        mark(12, JAN_10, "+");
+
+        // StudentService.edit tartibi: eski guruhdan ayirish, guruhni almashtirish, yangisiga qo'shish
+        rollupService.onStudentDetached(11);
+        studentGroup.put(11L, 2L);
+        rollupService.onStudentAttached(11);
+
+        assertConsistent();
+        assertEquals(1L, rollup.get(new Key(JAN_10, 1, 10, 100, "+")));
+        assertEquals(1L, rollup.get(new Key(JAN_11, 2, 20, 200, "-")));
+        assertFalse(rollup.containsKey(new Key(JAN_11, 1, 10, 100, "-")));
+    }
+
+    @Test
+    void deletedStudentLeavesRollup() {
+        mark(11, JAN_10, "+");
+        mark(12, JAN_10, "+");
+
+        rollupService.onStudentDetached(11);
+        studentGroup.remove(11L);
+
+        assertConsistent();
+        assertEquals(1L, rollup.get(new Key(JAN_10, 1, 10, 100, "+")));
+    }
+
+    @Test
+    void groupMovedToAnotherCourseFollowsTeacher() {
+        mark(11, JAN_10, "+");
+        mark(21, JAN_10, "+");
+
+        groupCourse.put(1L, 20L);
+        rollupService.onGroupChanged(1, 20);
+
+        assertConsistent();
+        assertEquals(1L, rollup.get(new Key(JAN_10, 1, 20, 200, "+")));
+
+        // Kurs topilmasa guruh statistikadan chiqadi
+        groupCourse.put(1L, 99L);
+        rollupService.onGroupChanged(1, 99);
+
+        assertConsistent();
+        assertEquals(Map.of(new Key(JAN_10, 2, 20, 200, "+"), 1L), rollup);
+    }
+
+    @Test
+    void courseTeacherChangeAndDeletion() {
+        mark(11, JAN_10, "+");
+        mark(21, JAN_10, "+");
+
+        courseTeacher.put(10L, 300L);
+        rollupService.onCourseChanged(10, 300);
+
+        assertConsistent();
+        assertEquals(1L, rollup.get(new Key(JAN_10, 1, 10, 300, "+")));
+
+        courseTeacher.remove(10L);
+        rollupService.onCourseDeleted(10);
+
+        assertConsistent();
+        assertEquals(Map.of(new Key(JAN_10, 2, 20, 200, "+"), 1L), rollup);
+    }
+
+    @Test
+    void retentionSubtractsDeletedRows() {
+        mark(11, JAN_10, "+");
+        mark(12, JAN_10, "+");
+        mark(11, FEB_01, "-");
+
+        // RetentionService kabi: cutoff dan eski qatorlar o'chiriladi va ularning -1 deltalari qo'llanadi
+        List<AttendanceDelta> removed = new ArrayList<>();
+        attendance.values().removeIf(row -> {
+            if (!row.getDate().isBefore(FEB_01)) return false;
+            removed.add(AttendanceDelta.removed(row.getStudentId(), row.getDate(), row.getStatus()));
+            return true;
+        });
+        rollupService.apply(removed);
+
+        assertConsistent();
+        assertEquals(Map.of(new Key(FEB_01, 1, 10, 100, "-"), 1L), rollup);
+    }
+
+    @Test
+    void rebuildOfConsistentRollupHasNoCorrections() {
+        mark(11, JAN_10, "+");
+        mark(21, JAN_11, "-");
+        mark(12, FEB_01, "+");
+        Map<Key, Long> before = new HashMap<>(rollup);
+
+        Map<String, Object> result = rollupService.rebuild();
+
+        assertEquals(2, result.get("months"));
+        assertEquals(0L, result.get("corrections"));
+        verify(rollupBatchDatabase, times(2)).applyMonthCorrections(any(), anyList());
+        assertEquals(before, rollup);
+    }
+
+    @Test
+    void rebuildCorrectsDriftedMonth() {
+        mark(11, JAN_10, "+");
+        mark(12, FEB_01, "+");
+        // Rollupga tushmagan yozuv va ortiqcha qolgan rollup qatori
+        attendance.put(nextId, new AttendanceDbModel(nextId++, 21L, JAN_11, "-"));
+        rollup.put(new Key(JAN_10, 1, 10, 100, "-"), 3L);
+
+        Map<String, Object> result = rollupService.rebuild();
+
+        assertEquals(2L, result.get("corrections"));
+        assertConsistent();
+        assertEquals(0L, rollupService.rebuild().get("corrections"));
+    }
+
+    private long mark(long studentId, LocalDate date, String status) {
+        long id = nextId++;
+        attendance.put(id, new AttendanceDbModel(id, studentId, date, status));
+        rollupService.apply(List.of(AttendanceDelta.added(studentId, date, status)));
+        return id;
+    }
+
+    private AttendanceDbModel rowOf(long studentId, LocalDate date) {
+        return attendance.values().stream()
+                .filter(row -> row.getStudentId() == studentId && row.getDate().equals(date))
+                .findFirst().orElseThrow();
+    }
+
+    private void assertConsistent() {
+        assertEquals(expectedRollup(), rollup);
+    }
+
+    // MONTH_CORRECTIONS_SQL dagi xom hisob: attendance -> student -> groups -> course join
+    private Map<Key, Long> expectedRollup() {
+        Map<Key, Long> expected = new HashMap<>();
+        attendance.values().forEach(row -> keyOf(row.getStudentId(), row.getDate(), row.getStatus())
+                .ifPresent(key -> expected.merge(key, 1L, Long::sum)));
+        return expected;
+    }
+
+    private Optional<Key> keyOf(long studentId, LocalDate date, String status) {
+        Long groupId = studentGroup.get(studentId);
+        Long courseId = groupId == null ? null : groupCourse.get(groupId);
+        Long teacherId = courseId == null ? null : courseTeacher.get(courseId);
+        if (teacherId == null) return Optional.empty();
+        return Optional.of(new Key(date, groupId, courseId, teacherId, status));
+    }
+
+    private void pruneEmpty(Predicate<Key> scope) {
+        rollup.entrySet().removeIf(entry -> entry.getValue() <= 0 && scope.test(entry.getKey()));
+    }
+
+    private int rekey(Predicate<Key> filter, UnaryOperator<Key> mapper) {
+        Map<Key, Long> moved = new HashMap<>();
+        rollup.entrySet().removeIf(entry -> {
+            if (!filter.test(entry.getKey())) return false;
+            moved.merge(mapper.apply(entry.getKey()), entry.getValue(), Long::sum);
+            return true;
+        });
+        moved.forEach((key, total) -> rollup.merge(key, total, Long::sum));
+        return moved.size();
+    }
+
+    private int removeIf(Predicate<Key> filter) {
+        int before = rollup.size();
+        rollup.keySet().removeIf(filter);
+        return before - rollup.size();
+    }
+
+    private static AttendanceBatchResult result(long studentId, String status, String previousStatus) {
+        return new AttendanceBatchResult(studentId, null, status,
+                previousStatus == null ? AttendanceBatchResult.CREATED : AttendanceBatchResult.UPDATED, null, previousStatus);
+    }
+
+    private static AttendanceDbModel copy(AttendanceDbModel model) {
+        return new AttendanceDbModel(model.getId(), model.getStudentId(), model.getDate(), model.getStatus());
+    }
+
+    /** attendance_daily_rollup kaliti */
+    private record Key(LocalDate date, long groupId, long courseId, long teacherId, String status) {
+    }
+}
@@ -0,0 +1,52 @@
+package uz.coder.davomatbackend.service;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import org.junit.jupiter.api.Test;
+
+class LogDownloadServiceTest {
+
+    private static final long SIZE = 100;
+
+    @Test
+    void parsesClosedAndOpenRanges() {
+        assertArrayEquals(new long[]{0, 9}, LogDownloadService.parseRange("bytes=0-9", SIZE));
+        assertArrayEquals(new long[]{10, 99}, LogDownloadService.parseRange("bytes=10-", SIZE));
+        assertArrayEquals(new long[]{5, 5}, LogDownloadService.parseRange(" bytes=5-5 ", SIZE));
+        // Oxiri fayldan tashqarida bo'lsa oxirgi baytgacha qisqartiriladi
+        assertArrayEquals(new long[]{90, 99}, LogDownloadService.parseRange("bytes=90-500", SIZE));
+    }
+
+    @Test
+    void suffixRangeLargerThanFileReturnsWholeFile() {
+        assertArrayEquals(new long[]{90, 99}, LogDownloadService.parseRange("bytes=-10", SIZE));
+        assertArrayEquals(new long[]{0, 99}, LogDownloadService.parseRange("bytes=-100", SIZE));
+        assertArrayEquals(new long[]{0, 99}, LogDownloadService.parseRange("bytes=-5000", SIZE));
+        assertSame(LogDownloadService.UNSATISFIABLE, LogDownloadService.parseRange("bytes=-0", SIZE));
+    }
+
+    @Test
+    void openRangeAtEndOfFile() {
+        assertArrayEquals(new long[]{99, 99}, LogDownloadService.parseRange("bytes=99-", SIZE));
+        assertSame(LogDownloadService.UNSATISFIABLE, LogDownloadService.parseRange("bytes=100-", SIZE));
+        assertSame(LogDownloadService.UNSATISFIABLE, LogDownloadService.parseRange("bytes=0-", 0));
+        assertSame(LogDownloadService.UNSATISFIABLE, LogDownloadService.parseRange("bytes=-10", 0));
+    }
+
+    @Test
+    void startAfterEndIsUnsatisfiable() {
+        assertSame(LogDownloadService.UNSATISFIABLE, LogDownloadService.parseRange("bytes=20-10", SIZE));
+        assertSame(LogDownloadService.UNSATISFIABLE, LogDownloadService.parseRange("bytes=150-200", SIZE));
+    }
+
+    @Test
+    void ignoresMissingMalformedAndMultipleRanges() {
+        assertNull(LogDownloadService.parseRange(null, SIZE));
+        assertNull(LogDownloadService.parseRange("bytes=-", SIZE));
+        assertNull(LogDownloadService.parseRange("bytes=a-b", SIZE));
+        assertNull(LogDownloadService.parseRange("items=0-9", SIZE));
+        assertNull(LogDownloadService.parseRange("bytes=0-9,20-29", SIZE));
+    }
+}
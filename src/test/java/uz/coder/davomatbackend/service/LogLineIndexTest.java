@@ -0,0 +1,126 @@
+package uz.coder.davomatbackend.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class LogLineIndexTest {
+
+    private static final int INTERVAL = LogLineIndex.CHECKPOINT_INTERVAL;
+
+    // "INFO 12" / "ERROR 13" yozuv boshi, bo'sh joy bilan boshlanadigan qator davomi
+    private static final Function<String, String> LEVEL_OF =
+            line -> line.isEmpty() || line.startsWith(" ") ? null : line.substring(0, line.indexOf(' '));
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void locatesEveryOffsetAroundCheckpoints() throws IOException {
+        Path file = dir.resolve("app.log");
+        List<String> entries = new ArrayList<>();
+        append(file, entries, 0, 3 * INTERVAL + 1);
+        LogLineIndex index = new LogLineIndex(LEVEL_OF);
+
+        assertEveryOffset(index, file, entries);
+    }
+
+    @Test
+    void picksUpAppendedLinesAndIgnoresUnfinishedLastLine() throws IOException {
+        Path file = dir.resolve("app.log");
+        List<String> entries = new ArrayList<>();
+        append(file, entries, 0, INTERVAL - 1);
+        LogLineIndex index = new LogLineIndex(LEVEL_OF);
+        assertEveryOffset(index, file, entries);
+
+        // Checkpoint chegarasidan o'tadigan qo'shimcha
+        append(file, entries, INTERVAL - 1, 2 * INTERVAL + 2);
+        assertEveryOffset(index, file, entries);
+
+        // '\n' siz oxirgi qator hali yozilmoqda: indeksga kirmaydi
+        Files.writeString(file, "INFO unfinished", StandardOpenOption.APPEND);
+        assertEquals(entries.get(entries.size() - 1), entryAt(index, file, LogLineIndex.ALL, 0));
+        assertEquals(entries.get(0), entryAt(index, file, LogLineIndex.ALL, entries.size() - 1));
+        assertNull(index.locate(file, LogLineIndex.ALL, entries.size()));
+    }
+
+    @Test
+    void rebuildsWhenFileIsRewrittenLargerThanIndexed() throws IOException {
+        Path file = dir.resolve("app.log");
+        List<String> entries = new ArrayList<>();
+        append(file, entries, 0, INTERVAL + 5);
+        LogLineIndex index = new LogLineIndex(LEVEL_OF);
+        assertEveryOffset(index, file, entries);
+
+        // Tozalangan va indeksdagidan uzunroq bo'lib qayta yozilgan: fileKey va hajm buni ko'rsatmaydi
+        Files.write(file, new byte[0]);
+        List<String> rewritten = new ArrayList<>();
+        append(file, rewritten, 50_000, 50_000 + 2 * INTERVAL);
+        assertEveryOffset(index, file, rewritten);
+    }
+
+    @Test
+    void returnsNullPastTheOldestEntry() throws IOException {
+        Path file = dir.resolve("app.log");
+        List<String> entries = new ArrayList<>();
+        append(file, entries, 0, 10);
+        LogLineIndex index = new LogLineIndex(LEVEL_OF);
+
+        assertNull(index.locate(file, LogLineIndex.ALL, 10));
+        assertNull(index.locate(file, "WARN", 0));
+    }
+
+    /** from..to (exclusive) yozuvlarini qo'shadi: har uchinchisi ERROR, har yettinchisidan keyin davom qatori */
+    private static void append(Path file, List<String> entries, int from, int to) throws IOException {
+        StringBuilder content = new StringBuilder();
+        for (int i = from; i < to; i++) {
+            String entry = (i % 3 == 0 ? "ERROR " : "INFO ") + i;
+            entries.add(entry);
+            content.append(entry).append('\n');
+            if (i % 7 == 0) {
+                content.append("    at continuation ").append(i).append('\n');
+            }
+        }
+        Files.writeString(file, content, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+
+    private static void assertEveryOffset(LogLineIndex index, Path file, List<String> entries) throws IOException {
+        List<String> errors = entries.stream().filter(entry -> entry.startsWith("ERROR")).toList();
+        for (int offset = 0; offset <= entries.size(); offset++) {
+            String expected = offset < entries.size() ? entries.get(entries.size() - 1 - offset) : null;
+            assertEquals(expected, entryAt(index, file, LogLineIndex.ALL, offset), "ALL offset " + offset);
+        }
+        for (int offset = 0; offset <= errors.size(); offset++) {
+            String expected = offset < errors.size() ? errors.get(errors.size() - 1 - offset) : null;
+            assertEquals(expected, entryAt(index, file, "ERROR", offset), "ERROR offset " + offset);
+        }
+    }
+
+    // LogService.readLogFile bilan bir xil: nazorat nuqtasidan teskari o'qib, skip ta mos yozuvni tashlaydi
+    private static String entryAt(LogLineIndex index, Path file, String key, long offset) throws IOException {
+        LogLineIndex.Position position = index.locate(file, key, offset);
+        if (position == null) return null;
+        long skip = position.skip();
+        try (ReverseLineReader reader = new ReverseLineReader(file, position.offset())) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String level = LEVEL_OF.apply(line);
+                if (level == null || !(LogLineIndex.ALL.equals(key) || key.equals(level))) continue;
+                if (skip-- == 0) return line;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,100 @@
+package uz.coder.davomatbackend.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class ReverseLineReaderTest {
+
+    private static final int BLOCK = ReverseLineReader.BLOCK_SIZE;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void readsLinesNewestFirst() throws IOException {
+        Path file = write("one\ntwo\nthree\n");
+
+        assertEquals(List.of("", "three", "two", "one"), readAll(file, Long.MAX_VALUE));
+        // Qator boshidan (oldingi '\n' dan keyin) boshlansa birinchi qator bo'sh
+        assertEquals(List.of("", "two", "one"), readAll(file, "one\ntwo\n".length()));
+        assertEquals(List.of("tw", "one"), readAll(file, "one\ntw".length()));
+    }
+
+    @Test
+    void joinsLineCrossingBlockBoundary() throws IOException {
+        String crossing = "b".repeat(BLOCK + 100);
+        String longest = "c".repeat(2 * BLOCK + 7);
+        Path file = write("a".repeat(100) + "\n" + crossing + "\n" + longest + "\nlast\n");
+
+        assertEquals(List.of("", "last", longest, crossing, "a".repeat(100)), readAll(file, Long.MAX_VALUE));
+    }
+
+    @Test
+    void stripsCarriageReturnOfCrlfLines() throws IOException {
+        Path file = write("one\r\ntwo\r\n\r\nthree");
+
+        assertEquals(List.of("three", "", "two", "one"), readAll(file, Long.MAX_VALUE));
+    }
+
+    @Test
+    void stripsCarriageReturnSplitFromNewlineByBlockBoundary() throws IOException {
+        // Birinchi blok chegarasi fayl oxiridan BLOCK bayt oldin: '\r' oldingi blokda, '\n' keyingisida
+        String head = "first\r\nsecond\r";
+        String tail = "\n" + "x".repeat(BLOCK - 2) + "\n";
+        Path file = write(head + tail);
+
+        assertEquals(List.of("", "x".repeat(BLOCK - 2), "second", "first"), readAll(file, Long.MAX_VALUE));
+    }
+
+    @Test
+    void stripsCarriageReturnWhenLineStartsInPreviousBlock() throws IOException {
+        // '\r\n' oxirgi blokda, qatorning boshi oldingi blokda
+        String line = "y".repeat(BLOCK + 10);
+        Path file = write("first\n" + line + "\r\n");
+
+        assertEquals(List.of("", line, "first"), readAll(file, Long.MAX_VALUE));
+    }
+
+    @Test
+    void decodesMultiByteCharacterSplitByBlockBoundary() throws IOException {
+        String prefix = "first line\nstart-";
+        String suffix = "-end\n";
+        // Blok chegarasi '€' (3 bayt) ning birinchi baytidan keyin tushadi
+        int boundary = prefix.getBytes(StandardCharsets.UTF_8).length + 1;
+        int padding = boundary + BLOCK - (prefix + "€" + suffix).getBytes(StandardCharsets.UTF_8).length;
+        String line = "start-€" + "z".repeat(padding) + "-end";
+        Path file = write(prefix + "€" + "z".repeat(padding) + suffix);
+        assertEquals(boundary + BLOCK, Files.size(file));
+
+        assertEquals(List.of("", line, "first line"), readAll(file, Long.MAX_VALUE));
+    }
+
+    @Test
+    void emptyFileHasSingleEmptyLine() throws IOException {
+        assertEquals(List.of(""), readAll(write(""), Long.MAX_VALUE));
+    }
+
+    private Path write(String content) throws IOException {
+        return Files.writeString(dir.resolve("test.log"), content, StandardCharsets.UTF_8);
+    }
+
+    private static List<String> readAll(Path file, long endOffset) throws IOException {
+        List<String> lines = new ArrayList<>();
+        try (ReverseLineReader reader = new ReverseLineReader(file, endOffset)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lines.add(line);
+            }
+        }
+        return lines;
+    }
+}
@@ -0,0 +1,91 @@
+package uz.coder.davomatbackend.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+class SingleFlightTest {
+
+    @Test
+    void coalescesCallsWhileLoadIsInFlight() {
+        SingleFlight<String, Integer> singleFlight = new SingleFlight<>();
+        AtomicInteger loads = new AtomicInteger();
+        CompletableFuture<Integer> load = new CompletableFuture<>();
+
+        SingleFlight.Flight<Integer> first = singleFlight.run("key", () -> {
+            loads.incrementAndGet();
+            return load;
+        });
+        SingleFlight.Flight<Integer> second = singleFlight.run("key", () -> {
+            loads.incrementAndGet();
+            return CompletableFuture.completedFuture(-1);
+        });
+
+        assertFalse(first.shared());
+        assertTrue(second.shared());
+        assertSame(first.result(), second.result());
+        assertEquals(1, loads.get());
+        assertEquals(1, singleFlight.size());
+
+        load.complete(42);
+        assertEquals(42, first.result().join());
+        assertEquals(42, second.result().join());
+        assertEquals(0, singleFlight.size());
+    }
+
+    @Test
+    void differentKeysLoadIndependently() {
+        SingleFlight<String, Integer> singleFlight = new SingleFlight<>();
+        CompletableFuture<Integer> load = new CompletableFuture<>();
+
+        SingleFlight.Flight<Integer> a = singleFlight.run("a", () -> load);
+        SingleFlight.Flight<Integer> b = singleFlight.run("b", () -> CompletableFuture.completedFuture(2));
+
+        assertFalse(b.shared());
+        assertEquals(2, b.result().join());
+        assertFalse(a.result().isDone());
+        assertEquals(1, singleFlight.size());
+    }
+
+    @Test
+    void removesKeyAfterExceptionalCompletion() {
+        SingleFlight<String, Integer> singleFlight = new SingleFlight<>();
+        CompletableFuture<Integer> load = new CompletableFuture<>();
+
+        SingleFlight.Flight<Integer> failed = singleFlight.run("key", () -> load);
+        SingleFlight.Flight<Integer> waiting = singleFlight.run("key", () -> CompletableFuture.completedFuture(-1));
+        load.completeExceptionally(new IllegalStateException("boom"));
+
+        CompletionException error = assertThrows(CompletionException.class, () -> waiting.result().join());
+        assertEquals("boom", error.getCause().getMessage());
+        assertTrue(failed.result().isCompletedExceptionally());
+        assertEquals(0, singleFlight.size());
+
+        // Xatodan keyin kalit bo'shagan: keyingi chaqiruv yangi yuklashni boshlaydi
+        SingleFlight.Flight<Integer> retry = singleFlight.run("key", () -> CompletableFuture.completedFuture(7));
+        assertFalse(retry.shared());
+        assertEquals(7, retry.result().join());
+        assertEquals(0, singleFlight.size());
+    }
+
+    @Test
+    void removesKeyWhenLoaderThrows() {
+        SingleFlight<String, Integer> singleFlight = new SingleFlight<>();
+
+        SingleFlight.Flight<Integer> failed = singleFlight.run("key", () -> {
+            throw new IllegalArgumentException("bad key");
+        });
+
+        assertTrue(failed.result().isCompletedExceptionally());
+        assertEquals(0, singleFlight.size());
+        assertFalse(singleFlight.run("key", () -> CompletableFuture.completedFuture(1)).shared());
+    }
+}
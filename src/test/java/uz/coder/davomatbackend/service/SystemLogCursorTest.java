@@ -0,0 +1,46 @@
+package uz.coder.davomatbackend.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+import org.junit.jupiter.api.Test;
+
+import uz.coder.davomatbackend.model.SystemLogCursor;
+
+class SystemLogCursorTest {
+
+    @Test
+    void roundTripsBothDirections() {
+        LocalDateTime timestamp = LocalDateTime.of(2026, 3, 5, 14, 30, 15, 123_000_000);
+        for (boolean backward : new boolean[]{true, false}) {
+            SystemLogCursor cursor = new SystemLogCursor(backward, timestamp, 42);
+            assertEquals(cursor, SystemLogCursor.decode(cursor.encode()));
+        }
+    }
+
+    @Test
+    void rejectsMalformedCursors() {
+        assertInvalid("");
+        assertInvalid("not base64!");
+        assertInvalid(encode("n|2026-03-05T14:30:15"));
+        assertInvalid(encode("n|2026-03-05T14:30:15|42|7"));
+        assertInvalid(encode("x|2026-03-05T14:30:15|42"));
+        assertInvalid(encode("p|yesterday|42"));
+        assertInvalid(encode("p|2026-03-05T14:30:15|forty-two"));
+        assertInvalid(encode("p|2026-03-05T14:30:15|99999999999999999999"));
+    }
+
+    private static void assertInvalid(String cursor) {
+        IllegalArgumentException error =
+                assertThrows(IllegalArgumentException.class, () -> SystemLogCursor.decode(cursor), cursor);
+        assertEquals("Invalid cursor", error.getMessage());
+    }
+
+    private static String encode(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,70 @@
+package uz.coder.davomatbackend.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.Test;
+
+import uz.coder.davomatbackend.db.SystemLogDatabase;
+import uz.coder.davomatbackend.db.model.SystemLogDbModel;
+import uz.coder.davomatbackend.model.SystemLogCounts;
+
+class SystemLogStatisticsTest {
+
+    @Test
+    void addsWrittenEntriesToBaseline() {
+        SystemLogDatabase database = mock(SystemLogDatabase.class);
+        when(database.countByLevels(any())).thenReturn(new SystemLogCounts(10, 5, 3, 2, 1));
+        SystemLogStatistics statistics = new SystemLogStatistics(database);
+        assertEquals(new SystemLogCounts(10, 5, 3, 2, 1), statistics.current());
+
+        statistics.recordWritten(List.of(entry("INFO"), entry("ERROR"), entry("DEBUG")));
+
+        assertEquals(new SystemLogCounts(13, 6, 3, 3, 2), statistics.current());
+    }
+
+    @Test
+    void readerDuringReconcileSeesPreviousBaselineWithAllWrites() {
+        SystemLogDatabase database = mock(SystemLogDatabase.class);
+        SystemLogStatistics statistics = new SystemLogStatistics(database);
+        when(database.countByLevels(any())).thenReturn(new SystemLogCounts(10, 10, 0, 0, 0));
+        statistics.reconcile();
+        statistics.recordWritten(List.of(entry("INFO"), entry("INFO")));
+
+        // So'rov ketayotganda boshqa o'quvchi: eski baseline + oxirgi hisoblashdan beri yozilganlar
+        AtomicReference<SystemLogCounts> seenDuringQuery = new AtomicReference<>();
+        when(database.countByLevels(any())).thenAnswer(invocation -> {
+            seenDuringQuery.set(statistics.current());
+            return new SystemLogCounts(12, 12, 0, 0, 0);
+        });
+        statistics.reconcile();
+
+        assertEquals(new SystemLogCounts(12, 12, 0, 0, 0), seenDuringQuery.get());
+        assertEquals(new SystemLogCounts(12, 12, 0, 0, 0), statistics.current());
+    }
+
+    @Test
+    void invalidateReloadsFromDatabase() {
+        SystemLogDatabase database = mock(SystemLogDatabase.class);
+        when(database.countByLevels(any())).thenReturn(new SystemLogCounts(4, 4, 0, 0, 0));
+        SystemLogStatistics statistics = new SystemLogStatistics(database);
+        // Birinchi hisoblashdan oldin yozilganlar bazadagi sonda bor
+        statistics.recordWritten(List.of(entry("WARN")));
+        assertEquals(new SystemLogCounts(4, 4, 0, 0, 0), statistics.current());
+
+        when(database.countByLevels(any())).thenReturn(new SystemLogCounts(1, 0, 1, 0, 0));
+        statistics.invalidate();
+
+        assertEquals(new SystemLogCounts(1, 0, 1, 0, 0), statistics.current());
+    }
+
+    private static SystemLogDbModel entry(String level) {
+        return new SystemLogDbModel(LocalDateTime.now(), level, "user", "TEST", "message");
+    }
+}